@@ -30,7 +30,8 @@ public class TankFighterActivator implements BundleActivator {
 
         Hashtable tankProperties = new Hashtable();
         tankProperties.put("osgi.command.scope", "tank");
-        tankProperties.put("osgi.command.function", new String[]{"startGame", "stopGame"});
+        tankProperties.put("osgi.command.function", new String[]{"startGame", "stopGame", "simulateGame",
+                "replayGame", "seekReplay", "simulateReplay", "startServer", "stopServer"});
 
         bundleContext.registerService(TankGameService.class.getName(), new TankGameServiceImpl(), tankProperties);
     }
@@ -0,0 +1,263 @@
+package in.shabhushan.tankfighter.game.engine;
+
+import in.shabhushan.tankfighter.game.enumeration.Direction;
+import in.shabhushan.tankfighter.game.enumeration.ObjectType;
+import in.shabhushan.tankfighter.game.util.GameUtil;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import static in.shabhushan.tankfighter.game.util.Defaults.*;
+
+/**
+ * Store of all live bullets in the game, kept as a structure of arrays instead of an object per bullet.
+ *
+ * Live bullets are packed densely at indices [0, size), a bullet is removed by moving the last live bullet into it's
+ * slot, so the slots after size act as free list for bullets fired later. Arrays only grow when more bullets are
+ * alive than ever before, so firing, moving and removing bullets doesn't create any garbage.
+ *
+ * Indices of bullets change when a bullet is removed. Not thread safe, should only be used from the game loop thread.
+ */
+public class BulletPool {
+
+    private static final Direction[] DIRECTIONS = Direction.values();
+    private static final ObjectType[] OBJECT_TYPES = ObjectType.values();
+
+    private int[] horizontalPositions;
+    private int[] verticalPositions;
+    private int[] previousHorizontalPositions;
+    private int[] previousVerticalPositions;
+    private int[] speeds;
+    private byte[] directions;
+
+    // id and type of the game object which fired the bullet
+    private int[] owners;
+    private byte[] ownerTypes;
+
+    private int size;
+
+    // live bullets per owner id
+    private int[] ownerBulletCounts = new int[64];
+
+    public BulletPool() {
+        this(DEFAULT_BULLET_POOL_CAPACITY);
+    }
+
+    public BulletPool(int capacity) {
+        horizontalPositions = new int[capacity];
+        verticalPositions = new int[capacity];
+        previousHorizontalPositions = new int[capacity];
+        previousVerticalPositions = new int[capacity];
+        speeds = new int[capacity];
+        directions = new byte[capacity];
+        owners = new int[capacity];
+        ownerTypes = new byte[capacity];
+    }
+
+    /**
+     * Fires a new bullet
+     * @return index of the new bullet
+     */
+    public int spawn(int owner, ObjectType ownerType, int horizontalPosition, int verticalPosition,
+                     Direction direction, int speed) {
+        if(size == horizontalPositions.length) {
+            grow();
+        }
+
+        int index = size++;
+        horizontalPositions[index] = horizontalPosition;
+        verticalPositions[index] = verticalPosition;
+        previousHorizontalPositions[index] = horizontalPosition;
+        previousVerticalPositions[index] = verticalPosition;
+        speeds[index] = speed;
+        directions[index] = (byte) direction.ordinal();
+        owners[index] = owner;
+        ownerTypes[index] = (byte) ownerType.ordinal();
+
+        ensureOwner(owner);
+        ownerBulletCounts[owner]++;
+
+        return index;
+    }
+
+    /**
+     * Removes the bullet at passed index, the last bullet takes it's index.
+     */
+    public void remove(int index) {
+        ownerBulletCounts[owners[index]]--;
+
+        int last = --size;
+        horizontalPositions[index] = horizontalPositions[last];
+        verticalPositions[index] = verticalPositions[last];
+        previousHorizontalPositions[index] = previousHorizontalPositions[last];
+        previousVerticalPositions[index] = previousVerticalPositions[last];
+        speeds[index] = speeds[last];
+        directions[index] = directions[last];
+        owners[index] = owners[last];
+        ownerTypes[index] = ownerTypes[last];
+    }
+
+    /**
+     * Removes all bullets fired by passed owner
+     */
+    public void removeOwnedBy(int owner) {
+        for(int index = 0; index < size; ) {
+            if(owners[index] == owner) {
+                remove(index);
+            } else {
+                index++;
+            }
+        }
+    }
+
+    /**
+     * Removes bullets which left the playing field and moves the remaining ones by their speed.
+     * Position before moving is remembered as previous position.
+     */
+    public void update(GameEngine game) {
+        for(int index = 0; index < size; ) {
+            Direction direction = DIRECTIONS[directions[index]];
+
+            // Remove Bullet if it exceeds boundary
+            if(!GameUtil.objectWithinBoundary(horizontalPositions[index], verticalPositions[index], direction, game)) {
+                remove(index);
+                continue;
+            }
+
+            previousHorizontalPositions[index] = horizontalPositions[index];
+            previousVerticalPositions[index] = verticalPositions[index];
+
+            switch (direction) {
+                case UP:
+                    verticalPositions[index] -= speeds[index];
+                    break;
+                case DOWN:
+                    verticalPositions[index] += speeds[index];
+                    break;
+                case LEFT:
+                    horizontalPositions[index] -= speeds[index];
+                    break;
+                case RIGHT:
+                    horizontalPositions[index] += speeds[index];
+                    break;
+            }
+            index++;
+        }
+    }
+
+    // number of live bullets
+    public int size() {
+        return size;
+    }
+
+    // number of live bullets fired by passed owner
+    public int countOwnedBy(int owner) {
+        return owner < ownerBulletCounts.length ? ownerBulletCounts[owner] : 0;
+    }
+
+    public int getHorizontalPosition(int index) {
+        return horizontalPositions[index];
+    }
+
+    public int getVerticalPosition(int index) {
+        return verticalPositions[index];
+    }
+
+    public int getPreviousHorizontalPosition(int index) {
+        return previousHorizontalPositions[index];
+    }
+
+    public int getPreviousVerticalPosition(int index) {
+        return previousVerticalPositions[index];
+    }
+
+    public int getSpeed(int index) {
+        return speeds[index];
+    }
+
+    public Direction getDirection(int index) {
+        return DIRECTIONS[directions[index]];
+    }
+
+    public int getOwner(int index) {
+        return owners[index];
+    }
+
+    public ObjectType getOwnerType(int index) {
+        return OBJECT_TYPES[ownerTypes[index]];
+    }
+
+    /**
+     * Hash of all live bullets, in index order
+     */
+    public long stateHash() {
+        long hash = size;
+        for(int index = 0; index < size; index++) {
+            hash = GameRandom.mix(hash ^ ((long) horizontalPositions[index] << 32 | verticalPositions[index] & 0xffffffffL));
+            hash = GameRandom.mix(hash ^ ((long) owners[index] << 32 | speeds[index] << 8 | directions[index]));
+        }
+        return hash;
+    }
+
+    /**
+     * Writes all live bullets, in index order
+     */
+    public void writeState(ByteBuffer buffer) {
+        buffer.putInt(size);
+        for(int index = 0; index < size; index++) {
+            buffer.putInt(horizontalPositions[index]);
+            buffer.putInt(verticalPositions[index]);
+            buffer.putInt(previousHorizontalPositions[index]);
+            buffer.putInt(previousVerticalPositions[index]);
+            buffer.putInt(speeds[index]);
+            buffer.putInt(owners[index]);
+            buffer.put(directions[index]);
+            buffer.put(ownerTypes[index]);
+        }
+    }
+
+    /**
+     * Replaces all live bullets with the ones {@link #writeState(ByteBuffer)} has written
+     */
+    public void readState(ByteBuffer buffer) {
+        Arrays.fill(ownerBulletCounts, 0);
+
+        size = buffer.getInt();
+        while(horizontalPositions.length < size) {
+            grow();
+        }
+
+        for(int index = 0; index < size; index++) {
+            horizontalPositions[index] = buffer.getInt();
+            verticalPositions[index] = buffer.getInt();
+            previousHorizontalPositions[index] = buffer.getInt();
+            previousVerticalPositions[index] = buffer.getInt();
+            speeds[index] = buffer.getInt();
+            owners[index] = buffer.getInt();
+            directions[index] = buffer.get();
+            ownerTypes[index] = buffer.get();
+
+            ensureOwner(owners[index]);
+            ownerBulletCounts[owners[index]]++;
+        }
+    }
+
+    private void grow() {
+        int capacity = Math.max(16, horizontalPositions.length * 2);
+
+        horizontalPositions = Arrays.copyOf(horizontalPositions, capacity);
+        verticalPositions = Arrays.copyOf(verticalPositions, capacity);
+        previousHorizontalPositions = Arrays.copyOf(previousHorizontalPositions, capacity);
+        previousVerticalPositions = Arrays.copyOf(previousVerticalPositions, capacity);
+        speeds = Arrays.copyOf(speeds, capacity);
+        directions = Arrays.copyOf(directions, capacity);
+        owners = Arrays.copyOf(owners, capacity);
+        ownerTypes = Arrays.copyOf(ownerTypes, capacity);
+    }
+
+    private void ensureOwner(int owner) {
+        if(ownerBulletCounts.length <= owner) {
+            ownerBulletCounts = Arrays.copyOf(ownerBulletCounts, Math.max(owner + 1, ownerBulletCounts.length * 2));
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package in.shabhushan.tankfighter.game.engine;
+
+import java.util.Arrays;
+
+/**
+ * Finds the regions of screen that changed between two frames, for dirty rectangle rendering.
+ *
+ * Every frame, the renderer reports the bounds everything is drawn at via {@link #add(int, int, int, int, int, int)},
+ * keyed by a stable key like the entity id, along with a value describing it's appearance (direction, animation frame
+ * etc.). Bounds of an object that moved, changed it's appearance, appeared or disappeared since the last frame are
+ * dirty, both where it was and where it is now. Objects without a stable key, like bullets, are reported as
+ * {@link #VOLATILE} and are always dirty.
+ *
+ * Dirty rectangles are merged as they are added, into at most maxRegions regions.
+ * Not thread safe, should only be used from the thread rendering frames.
+ */
+public class DirtyRegions {
+
+    public static final int VOLATILE = -1;
+
+    private static final int KEY_STRIDE = 5;
+
+    private final int maxRegions;
+
+    // number of current frame, objects seen in last frame have a stamp of frame - 1
+    private long frame = 2;
+
+    // key -> bounds (x, y, width, height) and appearance it was drawn with last, and frame it was drawn in
+    private int[] bounds = new int[KEY_STRIDE * 64];
+    private long[] stamps = new long[64];
+
+    // keys drawn in last and in current frame
+    private int[] lastKeys = new int[64];
+    private int lastKeyCount;
+    private int[] currentKeys = new int[64];
+    private int currentKeyCount;
+
+    // bounds of volatile objects in last and in current frame
+    private int[] lastVolatileBounds = new int[4 * 64];
+    private int lastVolatileCount;
+    private int[] currentVolatileBounds = new int[4 * 64];
+    private int currentVolatileCount;
+
+    // merged dirty regions of current frame
+    private final int[] regions;
+    private int regionCount;
+
+    private boolean full;
+
+    /**
+     * @param maxRegions maximum number of dirty regions per frame, more regions get merged together
+     */
+    public DirtyRegions(int maxRegions) {
+        this.maxRegions = maxRegions;
+        this.regions = new int[4 * maxRegions];
+    }
+
+    /**
+     * Starts collecting bounds of a new frame
+     */
+    public void beginFrame() {
+        regionCount = 0;
+        full = false;
+    }
+
+    /**
+     * Reports the bounds an object is drawn at in current frame
+     * @param key stable key of the object, or VOLATILE
+     * @param appearance anything that changes how the object looks within it's bounds, ignored for VOLATILE objects
+     */
+    public void add(int key, int appearance, int x, int y, int width, int height) {
+        if(key == VOLATILE) {
+            if(currentVolatileBounds.length < 4 * (currentVolatileCount + 1)) {
+                currentVolatileBounds = Arrays.copyOf(currentVolatileBounds, currentVolatileBounds.length * 2);
+            }
+            setBounds(currentVolatileBounds, currentVolatileCount++, x, y, width, height);
+
+            mark(x, y, width, height);
+            return;
+        }
+
+        ensureKey(key);
+
+        int offset = KEY_STRIDE * key;
+        boolean drawnLastFrame = stamps[key] == frame - 1;
+
+        if(!drawnLastFrame || bounds[offset] != x || bounds[offset + 1] != y
+                || bounds[offset + 2] != width || bounds[offset + 3] != height || bounds[offset + 4] != appearance) {
+            if(drawnLastFrame) {
+                mark(bounds[offset], bounds[offset + 1], bounds[offset + 2], bounds[offset + 3]);
+            }
+            mark(x, y, width, height);
+
+            bounds[offset] = x;
+            bounds[offset + 1] = y;
+            bounds[offset + 2] = width;
+            bounds[offset + 3] = height;
+            bounds[offset + 4] = appearance;
+        }
+
+        stamps[key] = frame;
+
+        if(currentKeyCount == currentKeys.length) {
+            currentKeys = Arrays.copyOf(currentKeys, currentKeyCount * 2);
+        }
+        currentKeys[currentKeyCount++] = key;
+    }
+
+    /**
+     * Ends current frame, marking bounds of everything which was drawn in last frame but not in this one as dirty
+     */
+    public void endFrame() {
+        for(int index = 0; index < lastKeyCount; index++) {
+            int key = lastKeys[index];
+
+            if(stamps[key] != frame) {
+                int offset = KEY_STRIDE * key;
+                mark(bounds[offset], bounds[offset + 1], bounds[offset + 2], bounds[offset + 3]);
+            }
+        }
+
+        for(int index = 0; index < lastVolatileCount; index++) {
+            int offset = 4 * index;
+            mark(lastVolatileBounds[offset], lastVolatileBounds[offset + 1],
+                    lastVolatileBounds[offset + 2], lastVolatileBounds[offset + 3]);
+        }
+
+        int[] keys = lastKeys;
+        lastKeys = currentKeys;
+        lastKeyCount = currentKeyCount;
+        currentKeys = keys;
+        currentKeyCount = 0;
+
+        int[] volatileBounds = lastVolatileBounds;
+        lastVolatileBounds = currentVolatileBounds;
+        lastVolatileCount = currentVolatileCount;
+        currentVolatileBounds = volatileBounds;
+        currentVolatileCount = 0;
+
+        frame++;
+    }
+
+    /**
+     * Marks the whole screen as dirty in current frame, e.g. after the back buffer has been lost
+     */
+    public void invalidate() {
+        full = true;
+    }
+
+    // whole screen needs to be repainted
+    public boolean isFull() {
+        return full;
+    }
+
+    public int getRegionCount() {
+        return regionCount;
+    }
+
+    public int getX(int region) {
+        return regions[4 * region];
+    }
+
+    public int getY(int region) {
+        return regions[4 * region + 1];
+    }
+
+    public int getWidth(int region) {
+        return regions[4 * region + 2];
+    }
+
+    public int getHeight(int region) {
+        return regions[4 * region + 3];
+    }
+
+    // adds a dirty rectangle, merging it with an overlapping region, or the region it grows the least
+    private void mark(int x, int y, int width, int height) {
+        if(full || width <= 0 || height <= 0) {
+            return;
+        }
+
+        int bestRegion = -1;
+        long bestGrowth = Long.MAX_VALUE;
+
+        for(int region = 0; region < regionCount; region++) {
+            int offset = 4 * region;
+            int regionX = regions[offset];
+            int regionY = regions[offset + 1];
+            int regionWidth = regions[offset + 2];
+            int regionHeight = regions[offset + 3];
+
+            if(x <= regionX + regionWidth && regionX <= x + width && y <= regionY + regionHeight && regionY <= y + height) {
+                bestRegion = region;
+                break;
+            }
+
+            if(regionCount == maxRegions) {
+                long unionWidth = Math.max(x + width, regionX + regionWidth) - Math.min(x, regionX);
+                long unionHeight = Math.max(y + height, regionY + regionHeight) - Math.min(y, regionY);
+                long growth = unionWidth * unionHeight - (long) regionWidth * regionHeight;
+
+                if(growth < bestGrowth) {
+                    bestGrowth = growth;
+                    bestRegion = region;
+                }
+            }
+        }
+
+        if(bestRegion == -1) {
+            setBounds(regions, regionCount++, x, y, width, height);
+            return;
+        }
+
+        int offset = 4 * bestRegion;
+        int unionX = Math.min(x, regions[offset]);
+        int unionY = Math.min(y, regions[offset + 1]);
+        int unionWidth = Math.max(x + width, regions[offset] + regions[offset + 2]) - unionX;
+        int unionHeight = Math.max(y + height, regions[offset + 1] + regions[offset + 3]) - unionY;
+
+        setBounds(regions, bestRegion, unionX, unionY, unionWidth, unionHeight);
+    }
+
+    private void ensureKey(int key) {
+        if(stamps.length <= key) {
+            int length = Math.max(key + 1, stamps.length * 2);
+            stamps = Arrays.copyOf(stamps, length);
+            bounds = Arrays.copyOf(bounds, KEY_STRIDE * length);
+        }
+    }
+
+    private static void setBounds(int[] array, int index, int x, int y, int width, int height) {
+        int offset = 4 * index;
+        array[offset] = x;
+        array[offset + 1] = y;
+        array[offset + 2] = width;
+        array[offset + 3] = height;
+    }
+}
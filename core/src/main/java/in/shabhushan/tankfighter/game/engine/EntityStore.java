@@ -0,0 +1,326 @@
+package in.shabhushan.tankfighter.game.engine;
+
+import in.shabhushan.tankfighter.game.enumeration.Direction;
+import in.shabhushan.tankfighter.game.enumeration.ObjectType;
+
+import java.awt.Color;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Component store for the entities of a game, i.e. tanks and bombs. Bullets live in their own {@link BulletPool}.
+ *
+ * Every component (position, previous position, speed, direction, size, health, type and color) is kept in it's own
+ * array, and the components of all live entities are packed densely at indices [0, size). Systems iterate these arrays
+ * in plain loops, instead of calling virtual methods on an object per entity.
+ *
+ * An entity is referred to by it's id, which never changes, while it's index changes whenever another entity is
+ * removed: the last entity is moved into the slot of the removed one. {@link #indexOf(int)} maps an id to it's
+ * current index.
+ *
+ * Not thread safe, should only be used from the game loop thread.
+ */
+public class EntityStore {
+
+    public static final int NO_ENTITY = -1;
+
+    private static final Direction[] DIRECTIONS = Direction.values();
+    private static final ObjectType[] OBJECT_TYPES = ObjectType.values();
+
+    // id -> index, NO_ENTITY for ids not in the store
+    private int[] indices = new int[64];
+
+    // index -> id
+    private int[] ids;
+
+    private int[] horizontalPositions;
+    private int[] verticalPositions;
+    private int[] previousHorizontalPositions;
+    private int[] previousVerticalPositions;
+    private int[] speeds;
+    private byte[] directions;
+    private int[] sizes;
+    private int[] healths;
+    private byte[] objectTypes;
+    private Color[] colors;
+
+    private int size;
+
+    public EntityStore() {
+        this(64);
+    }
+
+    public EntityStore(int capacity) {
+        Arrays.fill(indices, NO_ENTITY);
+
+        ids = new int[capacity];
+        horizontalPositions = new int[capacity];
+        verticalPositions = new int[capacity];
+        previousHorizontalPositions = new int[capacity];
+        previousVerticalPositions = new int[capacity];
+        speeds = new int[capacity];
+        directions = new byte[capacity];
+        sizes = new int[capacity];
+        healths = new int[capacity];
+        objectTypes = new byte[capacity];
+        colors = new Color[capacity];
+    }
+
+    /**
+     * Adds a new entity at passed position, all other components are zero until set.
+     * @param id id of the entity, unique within the game
+     * @return index of the new entity
+     */
+    public int add(int id, ObjectType objectType, int horizontalPosition, int verticalPosition) {
+        if(size == ids.length) {
+            grow();
+        }
+        if(indices.length <= id) {
+            int length = indices.length;
+            indices = Arrays.copyOf(indices, Math.max(id + 1, length * 2));
+            Arrays.fill(indices, length, indices.length, NO_ENTITY);
+        }
+
+        int index = size++;
+        indices[id] = index;
+        ids[index] = id;
+
+        horizontalPositions[index] = horizontalPosition;
+        verticalPositions[index] = verticalPosition;
+        previousHorizontalPositions[index] = horizontalPosition;
+        previousVerticalPositions[index] = verticalPosition;
+        speeds[index] = 0;
+        directions[index] = (byte) Direction.UP.ordinal();
+        sizes[index] = 0;
+        healths[index] = 0;
+        objectTypes[index] = (byte) objectType.ordinal();
+        colors[index] = null;
+
+        return index;
+    }
+
+    /**
+     * Removes the entity at passed index, the last entity takes it's index.
+     */
+    public void remove(int index) {
+        indices[ids[index]] = NO_ENTITY;
+
+        int last = --size;
+        if(index != last) {
+            ids[index] = ids[last];
+            indices[ids[index]] = index;
+
+            horizontalPositions[index] = horizontalPositions[last];
+            verticalPositions[index] = verticalPositions[last];
+            previousHorizontalPositions[index] = previousHorizontalPositions[last];
+            previousVerticalPositions[index] = previousVerticalPositions[last];
+            speeds[index] = speeds[last];
+            directions[index] = directions[last];
+            sizes[index] = sizes[last];
+            healths[index] = healths[last];
+            objectTypes[index] = objectTypes[last];
+            colors[index] = colors[last];
+        }
+        colors[last] = null;
+    }
+
+    /**
+     * Current index of passed entity
+     * @return index, or NO_ENTITY if entity has been removed
+     */
+    public int indexOf(int id) {
+        return id < indices.length ? indices[id] : NO_ENTITY;
+    }
+
+    public boolean contains(int id) {
+        return indexOf(id) != NO_ENTITY;
+    }
+
+    // number of live entities
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Remembers current position of every entity as it's previous position, at the start of a tick
+     */
+    public void savePositions() {
+        System.arraycopy(horizontalPositions, 0, previousHorizontalPositions, 0, size);
+        System.arraycopy(verticalPositions, 0, previousVerticalPositions, 0, size);
+    }
+
+    public void savePosition(int index) {
+        previousHorizontalPositions[index] = horizontalPositions[index];
+        previousVerticalPositions[index] = verticalPositions[index];
+    }
+
+    public int getId(int index) {
+        return ids[index];
+    }
+
+    public int getHorizontalPosition(int index) {
+        return horizontalPositions[index];
+    }
+
+    public void setHorizontalPosition(int index, int horizontalPosition) {
+        horizontalPositions[index] = horizontalPosition;
+    }
+
+    public int getVerticalPosition(int index) {
+        return verticalPositions[index];
+    }
+
+    public void setVerticalPosition(int index, int verticalPosition) {
+        verticalPositions[index] = verticalPosition;
+    }
+
+    public int getPreviousHorizontalPosition(int index) {
+        return previousHorizontalPositions[index];
+    }
+
+    public int getPreviousVerticalPosition(int index) {
+        return previousVerticalPositions[index];
+    }
+
+    public int getSpeed(int index) {
+        return speeds[index];
+    }
+
+    public void setSpeed(int index, int speed) {
+        speeds[index] = speed;
+    }
+
+    public Direction getDirection(int index) {
+        return DIRECTIONS[directions[index]];
+    }
+
+    public void setDirection(int index, Direction direction) {
+        directions[index] = (byte) direction.ordinal();
+    }
+
+    public int getSize(int index) {
+        return sizes[index];
+    }
+
+    public void setSize(int index, int size) {
+        sizes[index] = size;
+    }
+
+    public int getHealth(int index) {
+        return healths[index];
+    }
+
+    public void setHealth(int index, int health) {
+        healths[index] = health;
+    }
+
+    public ObjectType getObjectType(int index) {
+        return OBJECT_TYPES[objectTypes[index]];
+    }
+
+    public void setObjectType(int index, ObjectType objectType) {
+        objectTypes[index] = (byte) objectType.ordinal();
+    }
+
+    public Color getColor(int index) {
+        return colors[index];
+    }
+
+    public void setColor(int index, Color color) {
+        colors[index] = color;
+    }
+
+    /**
+     * Hash of the components of all entities, in index order. Colors are left out, they don't affect the game.
+     */
+    public long stateHash() {
+        long hash = size;
+        for(int index = 0; index < size; index++) {
+            hash = GameRandom.mix(hash ^ ids[index]);
+            hash = GameRandom.mix(hash ^ ((long) horizontalPositions[index] << 32 | verticalPositions[index] & 0xffffffffL));
+            hash = GameRandom.mix(hash ^ ((long) speeds[index] << 32 | sizes[index] & 0xffffffffL));
+            hash = GameRandom.mix(hash ^ ((long) healths[index] << 16 | directions[index] << 8 | objectTypes[index]));
+        }
+        return hash;
+    }
+
+    /**
+     * Writes the components of all entities, in index order. Colors are written as their RGB value.
+     */
+    public void writeState(ByteBuffer buffer) {
+        buffer.putInt(size);
+        for(int index = 0; index < size; index++) {
+            buffer.putInt(ids[index]);
+            buffer.putInt(horizontalPositions[index]);
+            buffer.putInt(verticalPositions[index]);
+            buffer.putInt(previousHorizontalPositions[index]);
+            buffer.putInt(previousVerticalPositions[index]);
+            buffer.putInt(speeds[index]);
+            buffer.putInt(sizes[index]);
+            buffer.putInt(healths[index]);
+            buffer.put(directions[index]);
+            buffer.put(objectTypes[index]);
+            buffer.putInt(colors[index] == null ? 0 : colors[index].getRGB());
+        }
+    }
+
+    /**
+     * Replaces all entities with the ones {@link #writeState(ByteBuffer)} has written. A color is only created anew if
+     * it differs from the one at the same index.
+     */
+    public void readState(ByteBuffer buffer) {
+        for(int index = 0; index < size; index++) {
+            indices[ids[index]] = NO_ENTITY;
+        }
+
+        size = buffer.getInt();
+        while(ids.length < size) {
+            grow();
+        }
+
+        for(int index = 0; index < size; index++) {
+            int id = buffer.getInt();
+            if(indices.length <= id) {
+                int length = indices.length;
+                indices = Arrays.copyOf(indices, Math.max(id + 1, length * 2));
+                Arrays.fill(indices, length, indices.length, NO_ENTITY);
+            }
+            indices[id] = index;
+            ids[index] = id;
+
+            horizontalPositions[index] = buffer.getInt();
+            verticalPositions[index] = buffer.getInt();
+            previousHorizontalPositions[index] = buffer.getInt();
+            previousVerticalPositions[index] = buffer.getInt();
+            speeds[index] = buffer.getInt();
+            sizes[index] = buffer.getInt();
+            healths[index] = buffer.getInt();
+            directions[index] = buffer.get();
+            objectTypes[index] = buffer.get();
+
+            int rgb = buffer.getInt();
+            if(rgb == 0) {
+                colors[index] = null;
+            } else if(colors[index] == null || colors[index].getRGB() != rgb) {
+                colors[index] = new Color(rgb, true);
+            }
+        }
+        Arrays.fill(colors, size, colors.length, null);
+    }
+
+    private void grow() {
+        int capacity = Math.max(16, ids.length * 2);
+
+        ids = Arrays.copyOf(ids, capacity);
+        horizontalPositions = Arrays.copyOf(horizontalPositions, capacity);
+        verticalPositions = Arrays.copyOf(verticalPositions, capacity);
+        previousHorizontalPositions = Arrays.copyOf(previousHorizontalPositions, capacity);
+        previousVerticalPositions = Arrays.copyOf(previousVerticalPositions, capacity);
+        speeds = Arrays.copyOf(speeds, capacity);
+        directions = Arrays.copyOf(directions, capacity);
+        sizes = Arrays.copyOf(sizes, capacity);
+        healths = Arrays.copyOf(healths, capacity);
+        objectTypes = Arrays.copyOf(objectTypes, capacity);
+        colors = Arrays.copyOf(colors, capacity);
+    }
+}
@@ -0,0 +1,224 @@
+package in.shabhushan.tankfighter.game.engine;
+
+import in.shabhushan.tankfighter.game.enumeration.Direction;
+
+import java.util.Arrays;
+
+/**
+ * Distance of every node of a {@link GameGrid} to a single target, shared by all movers chasing that target.
+ *
+ * Nodes are the same as for a {@link PathFinder}: a mover with it's top left cell at a node, all movers being of the
+ * same size. A breadth first search from all nodes at which a mover touches the target gives the distance in cells
+ * from every node the target can be reached from, so every mover finds it's next step in O(1) by looking at the
+ * distances of it's neighbour nodes, instead of searching a path of it's own. The field only knows about cells
+ * occupied at the time it's updated, it should thus be updated every few ticks as the target moves.
+ *
+ * Before the search, the nodes a mover fits at are worked out for 64 nodes of a row at a time, by and-ing the free
+ * cells of the rows of the footprint shifted by each column of the footprint.
+ *
+ * Not thread safe, but the field can be read by any number of threads while it's not being updated.
+ */
+public class FlowField {
+
+    public static final int UNREACHABLE = Integer.MAX_VALUE;
+
+    private final GameGrid gameGrid;
+    private final int cellSize;
+    private final int rows;
+    private final int columns;
+
+    // footprint of a mover in cells
+    private final int footprint;
+
+    // bit set of nodes a mover fits at, per row
+    private final long[][] passable;
+    // bit set of nodes a row of the footprint fits at, per row
+    private final long[][] freeRuns;
+
+    private final int[] distances;
+    private final int[] queue;
+
+    private boolean updated;
+
+    // target of the last update
+    private int targetHorizontalPosition;
+    private int targetVerticalPosition;
+    private int targetSize;
+
+    /**
+     * @param size size of the movers in pixels, movers are expected to be aligned to cells
+     */
+    public FlowField(GameGrid gameGrid, int size) {
+        this.gameGrid = gameGrid;
+        this.cellSize = gameGrid.getCellSize();
+        this.rows = gameGrid.getRows();
+        this.columns = gameGrid.getColumns();
+
+        this.footprint = (size + cellSize - 1) / cellSize;
+
+        int words = (columns + Long.SIZE - 1) / Long.SIZE;
+        passable = new long[rows][words];
+        freeRuns = new long[rows][words];
+
+        distances = new int[rows * columns];
+        queue = new int[rows * columns];
+    }
+
+    /**
+     * Computes distances to a target at passed position, in pixels, from the cells occupied right now
+     */
+    public void update(int targetHorizontalPosition, int targetVerticalPosition, int targetSize) {
+        this.targetHorizontalPosition = targetHorizontalPosition;
+        this.targetVerticalPosition = targetVerticalPosition;
+        this.targetSize = targetSize;
+
+        Arrays.fill(distances, UNREACHABLE);
+        updatePassable();
+
+        int targetFirstRow = gameGrid.toCell(targetVerticalPosition);
+        int targetFirstColumn = gameGrid.toCell(targetHorizontalPosition);
+        int targetLastRow = gameGrid.toCell(targetVerticalPosition + targetSize - 1);
+        int targetLastColumn = gameGrid.toCell(targetHorizontalPosition + targetSize - 1);
+
+        // nodes at which a mover touches the target, not overlapping it
+        int head = 0;
+        int tail = 0;
+        for(int row = targetFirstRow - footprint; row <= targetLastRow + 1; row++) {
+            for(int column = targetFirstColumn - footprint; column <= targetLastColumn + 1; column++) {
+                boolean touching = row == targetFirstRow - footprint || row == targetLastRow + 1
+                        || column == targetFirstColumn - footprint || column == targetLastColumn + 1;
+
+                if(touching && isPassable(row, column)) {
+                    int node = row * columns + column;
+                    distances[node] = 0;
+                    queue[tail++] = node;
+                }
+            }
+        }
+
+        while(head < tail) {
+            int node = queue[head++];
+            int row = node / columns;
+            int column = node % columns;
+            int distance = distances[node] + 1;
+
+            if(0 < row) tail = visit(node - columns, row - 1, column, distance, tail);
+            if(row < rows - 1) tail = visit(node + columns, row + 1, column, distance, tail);
+            if(0 < column) tail = visit(node - 1, row, column - 1, distance, tail);
+            if(column < columns - 1) tail = visit(node + 1, row, column + 1, distance, tail);
+        }
+
+        updated = true;
+    }
+
+    private int visit(int node, int row, int column, int distance, int tail) {
+        if(distances[node] != UNREACHABLE || !isPassable(row, column)) {
+            return tail;
+        }
+
+        distances[node] = distance;
+        queue[tail] = node;
+        return tail + 1;
+    }
+
+    public int getTargetHorizontalPosition() {
+        return targetHorizontalPosition;
+    }
+
+    public int getTargetVerticalPosition() {
+        return targetVerticalPosition;
+    }
+
+    public int getTargetSize() {
+        return targetSize;
+    }
+
+    /**
+     * Distance in cells from a mover at passed position to the target
+     * @return distance, UNREACHABLE if the target can't be reached from there
+     */
+    public int getDistance(int horizontalPosition, int verticalPosition) {
+        int row = gameGrid.toCell(verticalPosition);
+        int column = gameGrid.toCell(horizontalPosition);
+
+        if(!updated || row < 0 || rows <= row || column < 0 || columns <= column) {
+            return UNREACHABLE;
+        }
+        return distances[row * columns + column];
+    }
+
+    /**
+     * Direction a mover at passed position should move in to get closer to the target
+     * @return direction towards the closest neighbour node, null if the mover touches the target already or can't
+     * reach it at all
+     */
+    public Direction getDirection(int horizontalPosition, int verticalPosition) {
+        int distance = getDistance(horizontalPosition, verticalPosition);
+        if(distance == 0 || distance == UNREACHABLE) {
+            return null;
+        }
+
+        int row = gameGrid.toCell(verticalPosition);
+        int column = gameGrid.toCell(horizontalPosition);
+        int node = row * columns + column;
+
+        Direction direction = null;
+        if(0 < row && distances[node - columns] < distance) {
+            distance = distances[node - columns];
+            direction = Direction.UP;
+        }
+        if(row < rows - 1 && distances[node + columns] < distance) {
+            distance = distances[node + columns];
+            direction = Direction.DOWN;
+        }
+        if(0 < column && distances[node - 1] < distance) {
+            distance = distances[node - 1];
+            direction = Direction.LEFT;
+        }
+        if(column < columns - 1 && distances[node + 1] < distance) {
+            direction = Direction.RIGHT;
+        }
+
+        return direction;
+    }
+
+    private void updatePassable() {
+        int words = passable[0].length;
+        int lastColumn = columns - footprint; // last column a mover fits at without leaving the grid
+
+        for(int row = 0; row < rows; row++) {
+            for(int word = 0; word < words; word++) {
+                int firstColumn = word * Long.SIZE;
+
+                long run = -1L;
+                for(int column = 0; column < footprint; column++) {
+                    run &= ~gameGrid.getCells(row, firstColumn + column);
+                }
+
+                if(lastColumn < firstColumn + Long.SIZE - 1) {
+                    run &= lastColumn < firstColumn ? 0L : -1L >>> (Long.SIZE - 1 - (lastColumn - firstColumn));
+                }
+                freeRuns[row][word] = run;
+            }
+        }
+
+        for(int row = 0; row < rows; row++) {
+            for(int word = 0; word < words; word++) {
+                long fits = rows < row + footprint ? 0L : -1L;
+                for(int footprintRow = row; fits != 0 && footprintRow < row + footprint; footprintRow++) {
+                    fits &= freeRuns[footprintRow][word];
+                }
+                passable[row][word] = fits;
+            }
+        }
+    }
+
+    // mover fits with it's top left cell at passed cell
+    private boolean isPassable(int row, int column) {
+        if(row < 0 || column < 0 || rows <= row || columns <= column) {
+            return false;
+        }
+
+        return (passable[row][column >>> 6] & (1L << (column & 63))) != 0;
+    }
+}
@@ -0,0 +1,205 @@
+package in.shabhushan.tankfighter.game.engine;
+
+import in.shabhushan.tankfighter.game.util.Defaults;
+
+import java.awt.Canvas;
+import java.awt.Color;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.Toolkit;
+import java.awt.geom.Area;
+import java.awt.image.BufferStrategy;
+import java.awt.image.VolatileImage;
+
+/**
+ * Canvas on which a {@link GameEngine} is rendered.
+ * All the AWT specific parts of the game loop (BufferStrategy, Toolkit etc.) live here, so a {@link GameEngine}
+ * without a canvas can run on a headless machine.
+ *
+ * Frames are drawn straight into the back buffer of the canvas's BufferStrategy, which is then flipped or copied to
+ * screen by the strategy itself. Only if the canvas has no BufferStrategy, a compatible VolatileImage is used as back
+ * buffer instead.
+ *
+ * With dirty region rendering, the canvas keeps it's own back buffer across frames, and only the regions which changed
+ * since the last frame are repainted and copied to screen. This needs a {@link Renderer} able to report it's bounds,
+ * otherwise whole frames are still painted.
+ */
+public class GameCanvas extends Canvas {
+
+    private static final long serialVersionUID = 1L;
+
+    private final GameEngine game;
+    private final Renderer renderer;
+
+    // set on every graphics drawn with, created once
+    private final RenderingHints renderingHints =
+            new RenderingHints(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+
+    // back buffer when there is no buffer strategy, or with dirty region rendering
+    private VolatileImage backBuffer;
+
+    private boolean dirtyRegionRendering;
+    private final DirtyRegions dirtyRegions = new DirtyRegions(Defaults.DEFAULT_DIRTY_REGIONS);
+
+    // set when AWT asks for the canvas to be painted, e.g. after it has been uncovered
+    private volatile boolean repaintRequested;
+
+    protected Color backgroundColor = Defaults.DEFAULT_BG_COLOR;
+
+    public GameCanvas(GameEngine game, Renderer renderer) {
+        this.game = game;
+        this.renderer = renderer;
+
+        game.setCanvas(this);
+        setPreferredSize(game.getResolution());
+    }
+
+    public GameEngine getGame() {
+        return game;
+    }
+
+    /**
+     * Turns dirty region rendering on or off, should be called before the game is started.
+     */
+    public void setDirtyRegionRendering(boolean dirtyRegionRendering) {
+        this.dirtyRegionRendering = dirtyRegionRendering;
+    }
+
+    public boolean isDirtyRegionRendering() {
+        return dirtyRegionRendering;
+    }
+
+    // set up before game loop starts, parent must be visible by now
+    public void init() {
+        if(isDisplayable() && !dirtyRegionRendering) {
+            createBufferStrategy(2); // double buffering
+        }
+    }
+
+    @Override
+    public void paint(Graphics graphics) {
+        // whole frame is painted by the game loop anyway, but the dirty regions alone don't cover an uncovered canvas
+        repaintRequested = true;
+    }
+
+    // draws and renders a single frame of the game
+    public void render() {
+        BufferStrategy strategy = getBufferStrategy();
+
+        if(strategy == null) {
+            renderToBackBuffer();
+            return;
+        }
+
+        // buffer strategy uses volatile images, so deal with possible content loss
+        do {
+            do {
+                Graphics2D graphics = (Graphics2D) strategy.getDrawGraphics();
+                try {
+                    draw(graphics);
+                } finally {
+                    graphics.dispose();
+                }
+            } while (strategy.contentsRestored());
+
+            strategy.show(); // Display the buffer
+        } while (strategy.contentsLost()); // Repeat the rendering if the drawing buffer was lost
+        Toolkit.getDefaultToolkit().sync();
+    }
+
+    private void renderToBackBuffer() {
+        Graphics screenGraphics = getGraphics();
+        if(screenGraphics == null || getWidth() <= 0 || getHeight() <= 0) {
+            return; // not displayable yet
+        }
+
+        try {
+            do {
+                boolean backBufferLost = validateBackBuffer();
+
+                Graphics2D graphics = backBuffer.createGraphics();
+                try {
+                    if(dirtyRegionRendering) {
+                        drawDirtyRegions(graphics, screenGraphics, backBufferLost);
+                    } else {
+                        draw(graphics);
+                        screenGraphics.drawImage(backBuffer, 0, 0, null);
+                    }
+                } finally {
+                    graphics.dispose();
+                }
+            } while (backBuffer.contentsLost());
+        } finally {
+            screenGraphics.dispose();
+        }
+        Toolkit.getDefaultToolkit().sync();
+    }
+
+    private void drawDirtyRegions(Graphics2D graphics, Graphics screenGraphics, boolean backBufferLost) {
+        float interpolation = game.getInterpolation();
+
+        dirtyRegions.beginFrame();
+        if(backBufferLost || repaintRequested) {
+            repaintRequested = false;
+            dirtyRegions.invalidate();
+        }
+        if(!renderer.collectBounds(dirtyRegions, interpolation)) {
+            dirtyRegions.invalidate();
+        }
+        dirtyRegions.endFrame();
+
+        if(dirtyRegions.isFull()) {
+            draw(graphics);
+            screenGraphics.drawImage(backBuffer, 0, 0, null);
+            return;
+        }
+
+        // scene is drawn once, clipped to all the regions together, instead of once per region
+        Area clip = new Area();
+        for(int region = 0; region < dirtyRegions.getRegionCount(); region++) {
+            clip.add(new Area(new Rectangle(dirtyRegions.getX(region), dirtyRegions.getY(region),
+                    dirtyRegions.getWidth(region), dirtyRegions.getHeight(region))));
+        }
+        graphics.setClip(clip);
+        draw(graphics);
+
+        for(int region = 0; region < dirtyRegions.getRegionCount(); region++) {
+            int x = dirtyRegions.getX(region);
+            int y = dirtyRegions.getY(region);
+            int width = dirtyRegions.getWidth(region);
+            int height = dirtyRegions.getHeight(region);
+
+            screenGraphics.drawImage(backBuffer, x, y, x + width, y + height, x, y, x + width, y + height, null);
+        }
+    }
+
+    /**
+     * Makes sure the back buffer exists, matches canvas size and is compatible with it's device
+     * @return true if contents of back buffer are lost, i.e. it needs to be repainted completely
+     */
+    private boolean validateBackBuffer() {
+        GraphicsConfiguration configuration = getGraphicsConfiguration();
+
+        int validation = backBuffer == null ? VolatileImage.IMAGE_INCOMPATIBLE : backBuffer.validate(configuration);
+
+        if(validation == VolatileImage.IMAGE_INCOMPATIBLE
+                || backBuffer.getWidth() != getWidth() || backBuffer.getHeight() != getHeight()) {
+            backBuffer = configuration.createCompatibleVolatileImage(getWidth(), getHeight());
+            return true;
+        }
+
+        return validation == VolatileImage.IMAGE_RESTORED;
+    }
+
+    private void draw(Graphics2D graphics) {
+        graphics.setRenderingHints(renderingHints);
+
+        graphics.setColor(backgroundColor);
+        graphics.fillRect(0, 0, getWidth(), getHeight()); // draw background
+
+        renderer.draw(graphics, game.getInterpolation());
+    }
+}
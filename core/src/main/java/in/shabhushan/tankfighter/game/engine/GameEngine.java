@@ -2,16 +2,14 @@ package in.shabhushan.tankfighter.game.engine;
 
 import in.shabhushan.tankfighter.game.util.Defaults;
 
-import java.awt.Canvas;
-import java.awt.Color;
 import java.awt.Dimension;
-import java.awt.Graphics2D;
-import java.awt.Image;
-import java.awt.RenderingHints;
-import java.awt.Toolkit;
-import java.awt.image.BufferStrategy;
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
 
 /**
  * @author Shashi Bhushan
@@ -20,36 +18,64 @@ import java.util.concurrent.Executors;
  * Base component for games and other similar graphics intensive
  * applications.
  *
- * Usage: Create instance of a GameEngine subclass, add to a
- * Container, and call the GameEngine's start() method. Parent
- * must be made visible prior to calling start(). Override update()
- * and draw() for custom game content.
+ * Usage: Create instance of a GameEngine subclass, attach it to a {@link GameCanvas} if it should be displayed,
+ * add the canvas to a Container, and call the GameEngine's start() method. Parent must be made visible prior to
+ * calling start(). Override update() for custom game content, drawing it is up to the canvas's {@link Renderer}.
  *
- * TODO: Change to JPanel for Supporting KeyBindings.
- * See {@link https://docs.oracle.com/javase/tutorial/uiswing/TOC.html} for Reference.
+ * A GameEngine without a {@link GameCanvas} runs headless, i.e. the game loop only checks for collisions and updates
+ * the game, without touching any AWT Toolkit or BufferStrategy. {@link #simulate(int)} can be used to step a headless
+ * game as fast as possible.
+ *
+ * The game itself is deterministic: it only changes in {@link #step()}, in a fixed order, and draws random numbers
+ * from it's seeded {@link GameRandom}. Wall clock time only decides how many steps the game loop takes before
+ * rendering, so a game started with the same seed and fed the same input ends up in the same state, as compared by
+ * {@link #stateHash()}.
  */
-public abstract class GameEngine extends Canvas implements Runnable {
+public abstract class GameEngine implements Runnable {
 
-    private static final long nanosecondsPerSecond = 10000000000L;
-    private static final long millisecondsPerNanosecond = 1000000L;
+    private static final long nanosecondsPerSecond = 1000000000L;
 
-    protected int frameRate; // how many times per second to (ideally) run the game loop
+    protected int frameRate; // how many times per second to (ideally) render the game
     private long timePerFrame; // nanoseconds per frame based on framerate
 
-    protected Dimension resolution; // holds the width/height of game's canvas
+    protected int tickRate; // how many times per second the game is updated, independent of frame rate
+    private long timePerTick; // nanoseconds per tick based on tickRate
+
+    protected int maxTicksPerFrame = Defaults.DEFAULT_MAX_TICKS_PER_FRAME; // cap on catch up ticks between two frames
+
+    protected volatile double speed = 1; // game time passing per wall clock time, e.g. to play a replay fast or slow
+
+    protected long tick; // number of ticks simulated so far
+
+    private float interpolation; // how far (0..1) rendering is between the last tick and the next one
+
+    protected Dimension resolution; // holds the width/height of the view on the game
 
-    private Image drawImage;
-    protected Graphics2D drawGraphics; // reference to drawImage's graphics
+    protected Dimension worldSize; // holds the width/height of game's playing field, at least as big as resolution
 
-    protected Color backgroundColor = Defaults.DEFAULT_BG_COLOR;
+    protected GameCanvas canvas; // null when running headless
 
-    protected boolean running;
+    protected volatile boolean running; // written by whichever thread stops the game, read by the game loop
 
     protected boolean gameFinished = false;
 
     protected final GameGrid gameGrid;
 
-    protected ExecutorService executorService = Executors.newCachedThreadPool();
+    protected final EntityStore entityStore = new EntityStore();
+
+    protected final BulletPool bulletPool = new BulletPool();
+
+    protected final GameRandom random = new GameRandom(Defaults.DEFAULT_RANDOM_SEED);
+
+    // actions posted from other threads, run on the game loop at the start of next tick
+    private final Queue<Runnable> pendingActions = new ConcurrentLinkedQueue<>();
+
+    private int nextObjectId;
+
+    protected final TickScheduler scheduler = new TickScheduler(Defaults.DEFAULT_SCHEDULER_WHEEL_SIZE);
+
+    // runs the game loop, everything else runs on the game loop thread via the scheduler
+    protected ExecutorService executorService = Executors.newSingleThreadExecutor();
 
     // creates GameEngine with default resolution of 800x600 at 60 fps
     public GameEngine() {
@@ -61,96 +87,362 @@ public abstract class GameEngine extends Canvas implements Runnable {
         this(resolution, Defaults.DEFAULT_FRAME_RATE);
     }
 
-    // creates GameEngine with passed resolution at passed fps
+    // creates GameEngine with passed resolution at passed fps, ticking at default tick rate
     public GameEngine(Dimension resolution, int frameRate) {
-        gameGrid = new GameGrid(resolution);
+        this(resolution, frameRate, Defaults.DEFAULT_TICK_RATE);
+    }
+
+    // creates GameEngine with passed resolution at passed fps and passed ticks per second
+    public GameEngine(Dimension resolution, int frameRate, int tickRate) {
+        this(resolution, resolution, frameRate, tickRate);
+    }
+
+    // creates GameEngine with a playing field of passed world size, viewed at passed resolution
+    public GameEngine(Dimension resolution, Dimension worldSize) {
+        this(resolution, worldSize, Defaults.DEFAULT_FRAME_RATE, Defaults.DEFAULT_TICK_RATE);
+    }
+
+    // creates GameEngine with a playing field of passed world size, viewed at passed resolution, fps and ticks per second
+    public GameEngine(Dimension resolution, Dimension worldSize, int frameRate, int tickRate) {
+        gameGrid = new GameGrid(worldSize, Defaults.DEFAULT_GRID_CELL_SIZE);
 
         this.resolution = resolution;
+        this.worldSize = worldSize;
         this.frameRate = frameRate;
+        this.tickRate = tickRate;
 
         timePerFrame = nanosecondsPerSecond / frameRate;
-        setPreferredSize(resolution);
+        timePerTick = nanosecondsPerSecond / tickRate;
     }
 
     public GameGrid getGameGrid() {
         return gameGrid;
     }
 
+    public EntityStore getEntityStore() {
+        return entityStore;
+    }
+
+    public BulletPool getBulletPool() {
+        return bulletPool;
+    }
+
+    /**
+     * Random number generator of this game, should only be used on the game loop thread
+     */
+    public GameRandom getRandom() {
+        return random;
+    }
+
+    /**
+     * Hash of everything that makes up the state of the game: tick, occupied cells of the grid, entities, bullets and
+     * random number generator. Two games in the same state have the same hash.
+     */
+    public long stateHash() {
+        long hash = GameRandom.mix(tick);
+        hash = GameRandom.mix(hash ^ gameGrid.stateHash());
+        hash = GameRandom.mix(hash ^ entityStore.stateHash());
+        hash = GameRandom.mix(hash ^ bulletPool.stateHash());
+        return GameRandom.mix(hash ^ random.getState());
+    }
+
+    /**
+     * Writes the state of the game into passed buffer: tick, random number generator, ids handed out, scheduled tasks,
+     * grid, entities and bullets. Must be called on the game loop thread between two ticks.
+     * @throws java.nio.BufferOverflowException if the state doesn't fit into the buffer
+     */
+    public void writeState(ByteBuffer buffer) {
+        buffer.putLong(tick);
+        buffer.putLong(random.getState());
+        buffer.putInt(nextObjectId);
+        buffer.put((byte) (gameFinished ? 1 : 0));
+
+        scheduler.writeState(buffer);
+        gameGrid.writeState(buffer);
+        entityStore.writeState(buffer);
+        bulletPool.writeState(buffer);
+    }
+
+    /**
+     * Puts the game back into the state {@link #writeState(ByteBuffer)} has written. The game must be of the same
+     * kind and size as the one written, with the same tasks scheduled. Must be called on the game loop thread between
+     * two ticks, or from an action posted via {@link #invokeLater(Runnable)}.
+     */
+    public void readState(ByteBuffer buffer) {
+        tick = buffer.getLong();
+        random.setState(buffer.getLong());
+        nextObjectId = buffer.getInt();
+        gameFinished = buffer.get() != 0;
+
+        scheduler.readState(buffer);
+        gameGrid.readState(buffer);
+        entityStore.readState(buffer);
+        bulletPool.readState(buffer);
+    }
+
+    /**
+     * Returns a new unique id for a game object in this game.
+     * @return id for a new game object
+     */
+    public int nextObjectId() {
+        return nextObjectId++;
+    }
+
+    /**
+     * Runs passed action on the game loop thread at the start of the next tick. Can be called from any thread, e.g. to
+     * apply player input from AWT event dispatch thread without racing with the game loop.
+     * @param action action to run
+     */
+    public void invokeLater(Runnable action) {
+        pendingActions.add(action);
+    }
+
+    public TickScheduler getScheduler() {
+        return scheduler;
+    }
+
+    /**
+     * Converts passed duration to number of ticks at this game's tick rate, at least one tick.
+     * @param milliseconds duration in milliseconds
+     * @return number of ticks for passed duration
+     */
+    public int millisecondsToTicks(long milliseconds) {
+        return (int) Math.max(1, milliseconds * tickRate / 1000);
+    }
+
+    /**
+     * Size of the view on the game, i.e. the canvas. The playing field can be bigger than this.
+     * @return size of the view
+     */
+    public Dimension getResolution() {
+        return resolution;
+    }
+
+    public Dimension getWorldSize() {
+        return worldSize;
+    }
+
+    /**
+     * Width of the playing field. Independent of any AWT component, so it's available in headless mode as well.
+     * @return width of the playing field
+     */
+    public int getWidth() {
+        return (int) worldSize.getWidth();
+    }
+
+    /**
+     * Height of the playing field. Independent of any AWT component, so it's available in headless mode as well.
+     * @return height of the playing field
+     */
+    public int getHeight() {
+        return (int) worldSize.getHeight();
+    }
+
+    public GameCanvas getCanvas() {
+        return canvas;
+    }
+
+    /**
+     * Attaches a {@link GameCanvas} the game is rendered on. Should be called before {@link #start()}.
+     * @param canvas the canvas to render to
+     */
+    public void setCanvas(GameCanvas canvas) {
+        this.canvas = canvas;
+    }
+
+    public boolean isHeadless() {
+        return canvas == null;
+    }
+
+    public int getTickRate() {
+        return tickRate;
+    }
+
+    /**
+     * Returns the number of ticks simulated so far.
+     * @return current tick
+     */
+    public long getTick() {
+        return tick;
+    }
+
+    /**
+     * Fraction of a tick (0..1) elapsed since the last simulated tick when the current frame is rendered.
+     * Game objects use it to interpolate between their previous and current position while drawing.
+     * @return interpolation factor for current frame
+     */
+    public float getInterpolation() {
+        return interpolation;
+    }
+
+    public void setMaxTicksPerFrame(int maxTicksPerFrame) {
+        this.maxTicksPerFrame = maxTicksPerFrame;
+    }
+
+    /**
+     * Sets how fast the game loop runs the game compared to real time, 2 runs it twice as fast. The game itself
+     * doesn't change, it's simply stepped more or less often. Speeding up is limited by maxTicksPerFrame.
+     */
+    public void setSpeed(double speed) {
+        this.speed = speed;
+    }
+
+    public boolean isGameFinished() {
+        return gameFinished;
+    }
+
     // final set up and starts game loop
     public void start() {
-        createBufferStrategy(2); // double buffering
+        if(!isHeadless()) {
+            canvas.init();
+        }
         running = true;
         executorService.execute(this);
     }
 
     public void stop() {
+        running = false;
+    }
+
+    /**
+     * Stops the game loop and waits for it to end, so everything the game does once stopped is done when this returns
+     * @param timeoutMilliseconds longest time to wait for
+     */
+    public void stopAndWait(long timeoutMilliseconds) {
+        stop();
+        executorService.shutdown();
+        try {
+            executorService.awaitTermination(timeoutMilliseconds, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
     }
 
+    /**
+     * Fixed timestep game loop.
+     * Elapsed time is accumulated and the game is stepped once for every elapsed tick, at most maxTicksPerFrame times
+     * per iteration of the loop. If the game falls behind further than that, the remaining backlog is dropped instead
+     * of letting it pile up. Rendering happens at most frameRate times a second, once the next frame is due, and is
+     * interpolated between the last two ticks, so the simulation rate stays fixed irrespective of how fast frames can be
+     * drawn, and frames aren't drawn more often when ticks are due more often, e.g. at a higher speed.
+     */
     @Override
     public void run() {
+        long accumulator = 0;
+        long previousTime = System.nanoTime();
+        long nextFrame = previousTime; // time the next frame is due at
+
         // game loop
         while (running) {
-            long timeBeforeLoop = System.nanoTime(); // time when game loop starts
+            long frameStart = System.nanoTime(); // time when this iteration of game loop starts
+            accumulator += (long) ((frameStart - previousTime) * speed);
+            previousTime = frameStart;
+
+            int ticks = 0;
+            while (accumulator >= timePerTick && ticks < maxTicksPerFrame) {
+                step();
+                accumulator -= timePerTick;
+                ticks++;
+            }
 
-            checkForCollisions();
-            update();
-            draw();
-            render();
+            // spent all catch up ticks and still behind, drop the backlog
+            if (accumulator >= timePerTick) {
+                accumulator %= timePerTick;
+            }
+
+            if(!isHeadless() && nextFrame - frameStart <= 0) {
+                interpolation = (float) accumulator / timePerTick;
+                canvas.render();
+
+                // frames aren't drawn back to back to catch up with frames more than a frame late
+                nextFrame += timePerFrame;
+                if(nextFrame - frameStart < 0) {
+                    nextFrame = frameStart + timePerFrame;
+                }
+            }
 
             if(gameFinished) {
                 break;
             }
 
-            try {
-                Thread.sleep(calculateSleepTime(timeBeforeLoop));
-            } catch (InterruptedException e) {
-            }
+            LockSupport.parkNanos(calculateSleepTime(frameStart, accumulator, nextFrame));
         }
+
+        stopped();
     }
 
-    abstract public void checkForCollisions();
+    /**
+     * Advances the game by a single tick, without drawing anything.
+     * Positions of all entities are saved as their previous positions first, so anything moving them in this tick is
+     * interpolated while drawing. Then actions posted via {@link #invokeLater(Runnable)}, {@link #beforeTick()} and
+     * scheduled tasks due in this tick run, followed by collision checks and update, and {@link #afterTick()} once the
+     * tick is over.
+     */
+    public void step() {
+        entityStore.savePositions();
+
+        Runnable action;
+        while((action = pendingActions.poll()) != null) {
+            action.run();
+        }
 
-    // update everything in the game, should be overridden
-    abstract public void update();
+        beforeTick();
 
-    // draw everything in the game, should be overridden
-    public void draw() {
-        if (drawImage == null)
-            drawImage = createImage((int) resolution.getWidth(), (int) resolution.getHeight());
+        scheduler.advance();
+        checkForCollisions();
+        update();
+        tick++;
 
-        drawGraphics = (Graphics2D) drawImage.getGraphics();
-        drawGraphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        afterTick();
+    }
 
-        drawGraphics.setColor(backgroundColor);
-        drawGraphics.fillRect(0, 0, getWidth(), getHeight()); // draw background
+    /**
+     * Steps the game on the calling thread as fast as possible, without sleeping between ticks or rendering.
+     *
+     * @param ticks maximum number of ticks to simulate
+     * @return number of ticks actually simulated, less than ticks if the game finished before
+     */
+    public int simulate(int ticks) {
+        int simulated = 0;
+        while(simulated < ticks && !gameFinished) {
+            step();
+            simulated++;
+        }
+        return simulated;
     }
 
-    // render the graphics, buffer strategy uses volatile images, so deal with possible content loss
-    private void render() {
-        drawGraphics.dispose();
-        BufferStrategy strategy = getBufferStrategy();
-        do {
-            do {
-                Graphics2D g = (Graphics2D) strategy.getDrawGraphics();
-                g.drawImage(drawImage, 0, 0, null);
-                g.dispose();
-            } while (strategy.contentsRestored());
+    // applies input of current tick which isn't posted via invokeLater, e.g. read from a replay
+    protected void beforeTick() {}
 
-            strategy.show(); // Display the buffer
-        } while (strategy.contentsLost()); // Repeat the rendering if the drawing buffer was lost
-        Toolkit.getDefaultToolkit().sync();
-    }
+    // called after every tick, while the game is in between two ticks
+    protected void afterTick() {}
 
-    // figure out how long the thread should sleep to keep a consistent frame rate
-    private long calculateSleepTime(long beforeLoop) {
-        long afterLoop = System.nanoTime(); // get time after loop
-        long difference = afterLoop - beforeLoop; // calculate the difference
-        long timeToSleep = (timePerFrame - difference) / millisecondsPerNanosecond; // calculate time to sleep in milliseconds
+    // called on the game loop thread once the game loop has ended
+    protected void stopped() {}
 
-        // if you see this in the console when running, it means the game loop isn't keeping up with frame rate
-        if (timeToSleep < 0) {
-            System.out.println("sleep time is < 0. DO SOMETHING.");
+    abstract public void checkForCollisions();
+
+    // update everything in the game, should be overridden
+    abstract public void update();
+
+    /**
+     * Figure out how long the thread should park until either the next tick or the next frame is due. Game time still
+     * missing to the next tick is converted to wall clock time at current speed, and both are counted from the start
+     * of this iteration, as stepping and rendering have taken some of that time already.
+     */
+    private long calculateSleepTime(long frameStart, long accumulator, long nextFrame) {
+        double speed = this.speed;
+        long now = System.nanoTime();
+        long elapsed = now - frameStart;
+
+        // paused game checks back once a tick
+        long timeToNextTick = speed > 0 ? (long) ((timePerTick - accumulator) / speed) - elapsed : timePerTick - elapsed;
+
+        if(isHeadless()) {
+            return timeToNextTick;
         }
-        return (timeToSleep > 0) ? timeToSleep : 0; // if timeToSleep is < 0, frame took longer than timePerFrame, so sleep time is 0
+
+        long timeToNextFrame = nextFrame - now;
+        return Math.min(timeToNextTick, timeToNextFrame);
     }
 }
@@ -1,18 +1,115 @@
 package in.shabhushan.tankfighter.game.engine;
 
-import in.shabhushan.tankfighter.game.model.Tank;
+import in.shabhushan.tankfighter.game.util.Defaults;
 
 import java.awt.*;
+import java.nio.ByteBuffer;
+import java.util.concurrent.locks.ReentrantLock;
 
+/**
+ * Occupancy grid of the playing field, used to check whether a {@link in.shabhushan.tankfighter.game.model.GameObject}
+ * can move into some space.
+ *
+ * The playing field is divided into square cells of cellSize pixels, positions and sizes passed to the grid are in
+ * pixels and a rectangle occupies every cell it touches. With a cell size matching the distance tanks move in, the
+ * grid is cellSize * cellSize times smaller than a per pixel grid.
+ *
+ * Each row of cells is stored as a bitset packed into longs, thus a rectangle is occupied, vacated or checked with one
+ * masked operation per 64 cells of each row instead of touching every single cell.
+ * Rectangles are clipped to the grid, positions outside of the grid are never occupied.
+ *
+ * Rows are guarded by striped locks (row mod number of stripes), every operation locks only the stripes of the rows it
+ * touches, always in ascending order. Thus movers in different parts of the grid don't contend with each other, and
+ * {@link #tryOccupySpace(int, int, int, int)} and {@link #moveSpace(int, int, int, int, int, int)} check and claim
+ * space as a single atomic operation.
+ */
 public class GameGrid {
-    private final boolean[][] gameGrid;
+    private static final int WORD_SHIFT = 6;
+    private static final int WORD_MASK = (1 << WORD_SHIFT) - 1;
+    private static final long ALL_BITS = -1L;
 
+    private static final int MAX_STRIPES = Long.SIZE; // stripes to lock are collected in a long
+
+    private final long[][] gameGrid;
+
+    private final ReentrantLock[] stripes;
+
+    private final int cellSize;
+    private final int rows;
+    private final int columns;
+
+    // grid with a cell for every pixel
     public GameGrid(Dimension dimension) {
-        int horizontalSize = (int)dimension.getWidth();
-        int verticalSize = (int)dimension.getHeight();
+        this(dimension, 1);
+    }
+
+    public GameGrid(Dimension dimension, int cellSize) {
+        this(dimension, cellSize, Defaults.DEFAULT_GRID_LOCK_STRIPES);
+    }
+
+    public GameGrid(Dimension dimension, int cellSize, int lockStripes) {
+        this.cellSize = cellSize;
+
+        stripes = new ReentrantLock[Math.max(1, Math.min(MAX_STRIPES, lockStripes))];
+        for(int index = 0; index < stripes.length; index++) {
+            stripes[index] = new ReentrantLock();
+        }
+
+        columns = ((int)dimension.getWidth() + cellSize - 1) / cellSize;
+        rows = ((int)dimension.getHeight() + cellSize - 1) / cellSize;
+
+        // 600 x 800 pixels with 10 pixel cells is 60 rows and 80 columns, 2 words per row
+        gameGrid = new long[rows][(columns + WORD_MASK) >>> WORD_SHIFT];
+    }
+
+    public int getCellSize() {
+        return cellSize;
+    }
+
+    // number of rows of cells
+    public int getRows() {
+        return rows;
+    }
+
+    // number of columns of cells
+    public int getColumns() {
+        return columns;
+    }
+
+    /**
+     * Hash of the occupied cells, row by row. Doesn't lock, nothing else should be changing the grid meanwhile.
+     */
+    public long stateHash() {
+        long hash = rows;
+        for(long[] row: gameGrid) {
+            for(long word: row) {
+                hash = GameRandom.mix(hash ^ word);
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * Writes every row of cells. Doesn't lock, nothing else should be using the grid meanwhile.
+     */
+    public void writeState(ByteBuffer buffer) {
+        for(long[] row: gameGrid) {
+            for(long word: row) {
+                buffer.putLong(word);
+            }
+        }
+    }
 
-        // 600 rows and 800 columns
-        gameGrid = new boolean[verticalSize][horizontalSize];
+    /**
+     * Reads back what {@link #writeState(ByteBuffer)} has written for a grid of the same size. Doesn't lock, nothing
+     * else should be using the grid meanwhile.
+     */
+    public void readState(ByteBuffer buffer) {
+        for(long[] row: gameGrid) {
+            for(int word = 0; word < row.length; word++) {
+                row[word] = buffer.getLong();
+            }
+        }
     }
 
     public void occupySpace(int verticalPosition, int horizontalPosition) {
@@ -24,12 +121,76 @@ public class GameGrid {
     }
 
     public void occupySpace(int verticalPosition, int horizontalPosition, int verticalSize, int horizontalSize) {
-        for(int row = 0; row < verticalSize && row < gameGrid.length; row++) {
-            for(int column = 0; column < horizontalSize && column < gameGrid[row].length; column++) {
-                synchronized (Tank.class) {
-                    gameGrid[verticalPosition + row][horizontalPosition + column] = true;
-                }
+        int firstRow = firstCell(verticalPosition);
+        int lastRow = lastCell(verticalPosition, verticalSize);
+
+        long lockedStripes = lock(stripesOf(firstRow, lastRow));
+        try {
+            occupyCells(firstRow, firstCell(horizontalPosition), lastRow, lastCell(horizontalPosition, horizontalSize));
+        } finally {
+            unlock(lockedStripes);
+        }
+    }
+
+    public boolean tryOccupySpace(int verticalPosition, int horizontalPosition, int size) {
+        return tryOccupySpace(verticalPosition, horizontalPosition, size, size);
+    }
+
+    /**
+     * Occupies passed space only if no part of it is occupied already, as a single atomic operation.
+     * @return true if the space was free and is now occupied
+     */
+    public boolean tryOccupySpace(int verticalPosition, int horizontalPosition, int verticalSize, int horizontalSize) {
+        int firstRow = firstCell(verticalPosition);
+        int firstColumn = firstCell(horizontalPosition);
+        int lastRow = lastCell(verticalPosition, verticalSize);
+        int lastColumn = lastCell(horizontalPosition, horizontalSize);
+
+        long lockedStripes = lock(stripesOf(firstRow, lastRow));
+        try {
+            if(areCellsOccupied(firstRow, firstColumn, lastRow, lastColumn)) {
+                return false;
+            }
+
+            occupyCells(firstRow, firstColumn, lastRow, lastColumn);
+            return true;
+        } finally {
+            unlock(lockedStripes);
+        }
+    }
+
+    /**
+     * Moves an object of passed size from one position to another as a single atomic operation.
+     * The space currently occupied by the object itself doesn't block the move, but any other occupied cell in the
+     * new position does, in which case the object stays where it is.
+     *
+     * @return true if the object was moved, false if the new position is occupied by something else
+     */
+    public boolean moveSpace(int fromVerticalPosition, int fromHorizontalPosition,
+                             int toVerticalPosition, int toHorizontalPosition, int size) {
+        int fromFirstRow = firstCell(fromVerticalPosition);
+        int fromFirstColumn = firstCell(fromHorizontalPosition);
+        int fromLastRow = lastCell(fromVerticalPosition, size);
+        int fromLastColumn = lastCell(fromHorizontalPosition, size);
+
+        int toFirstRow = firstCell(toVerticalPosition);
+        int toFirstColumn = firstCell(toHorizontalPosition);
+        int toLastRow = lastCell(toVerticalPosition, size);
+        int toLastColumn = lastCell(toHorizontalPosition, size);
+
+        long lockedStripes = lock(stripesOf(fromFirstRow, fromLastRow) | stripesOf(toFirstRow, toLastRow));
+        try {
+            vacantCells(fromFirstRow, fromFirstColumn, fromLastRow, fromLastColumn);
+
+            if(areCellsOccupied(toFirstRow, toFirstColumn, toLastRow, toLastColumn)) {
+                occupyCells(fromFirstRow, fromFirstColumn, fromLastRow, fromLastColumn);
+                return false;
             }
+
+            occupyCells(toFirstRow, toFirstColumn, toLastRow, toLastColumn);
+            return true;
+        } finally {
+            unlock(lockedStripes);
         }
     }
 
@@ -42,12 +203,14 @@ public class GameGrid {
     }
 
     public void vacantSpace(int verticalPosition, int horizontalPosition, int verticalSize, int horizontalSize) {
-        for(int row = 0; row < verticalSize && row < gameGrid.length; row++) {
-            for(int column = 0; column < horizontalSize && column < gameGrid[row].length; column++) {
-                synchronized (Tank.class) {
-                    gameGrid[verticalPosition + row][horizontalPosition + column] = false;
-                }
-            }
+        int firstRow = firstCell(verticalPosition);
+        int lastRow = lastCell(verticalPosition, verticalSize);
+
+        long lockedStripes = lock(stripesOf(firstRow, lastRow));
+        try {
+            vacantCells(firstRow, firstCell(horizontalPosition), lastRow, lastCell(horizontalPosition, horizontalSize));
+        } finally {
+            unlock(lockedStripes);
         }
     }
 
@@ -60,17 +223,235 @@ public class GameGrid {
     }
 
     public boolean isSpaceOccupied(int verticalPosition, int horizontalPosition, int verticalSize, int horizontalSize) {
-        boolean isSpaceOccupied = false;
+        int firstRow = firstCell(verticalPosition);
+        int lastRow = lastCell(verticalPosition, verticalSize);
+
+        long lockedStripes = lock(stripesOf(firstRow, lastRow));
+        try {
+            return areCellsOccupied(firstRow, firstCell(horizontalPosition), lastRow, lastCell(horizontalPosition, horizontalSize));
+        } finally {
+            unlock(lockedStripes);
+        }
+    }
+
+    /**
+     * Checks a single cell, cells outside of the grid are never occupied
+     * @param row row of the cell
+     * @param column column of the cell
+     * @return true if the cell is occupied
+     */
+    public boolean isCellOccupied(int row, int column) {
+        if(row < 0 || rows <= row || column < 0 || columns <= column) {
+            return false;
+        }
+
+        return (gameGrid[row][column >>> WORD_SHIFT] & (1L << (column & WORD_MASK))) != 0;
+    }
 
-        for(int row = 0; row < verticalSize && row < gameGrid.length; row++) {
-            for(int column = 0; column < horizontalSize && column < gameGrid[row].length; column++) {
-                if(gameGrid[verticalPosition + row][horizontalPosition + column]) {
-                    isSpaceOccupied = true;
-                    break;
+    /**
+     * Occupancy of 64 cells of a row, starting at passed column, as bits of a long. Cells outside of the grid are
+     * never occupied. Doesn't lock the row, so it should only be used while nobody is changing the grid.
+     * @return bit n is set if cell at firstColumn + n is occupied
+     */
+    public long getCells(int row, int firstColumn) {
+        if(row < 0 || rows <= row || columns <= firstColumn || firstColumn <= -Long.SIZE) {
+            return 0L;
+        }
+
+        long[] words = gameGrid[row];
+        if(firstColumn < 0) {
+            return words[0] << -firstColumn;
+        }
+
+        int word = firstColumn >>> WORD_SHIFT;
+        int shift = firstColumn & WORD_MASK;
+
+        long cells = words[word] >>> shift;
+        if(shift != 0 && word + 1 < words.length) {
+            cells |= words[word + 1] << (Long.SIZE - shift);
+        }
+        return cells;
+    }
+
+    /**
+     * Whether any cell on the straight line of cells between two cells, both included, is occupied. Lines along a row
+     * are checked 64 cells at a time, any other line is walked cell by cell (Bresenham). Doesn't lock, same as
+     * {@link #getCells(int, int)}.
+     */
+    public boolean isLineOccupied(int fromRow, int fromColumn, int toRow, int toColumn) {
+        if(fromRow == toRow) {
+            int firstColumn = Math.min(fromColumn, toColumn);
+            int lastColumn = Math.max(fromColumn, toColumn);
+
+            for(int column = firstColumn; column <= lastColumn; column += Long.SIZE) {
+                int cells = Math.min(Long.SIZE, lastColumn - column + 1);
+                long mask = ALL_BITS >>> (Long.SIZE - cells);
+
+                if((getCells(fromRow, column) & mask) != 0) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        int columnDistance = Math.abs(toColumn - fromColumn);
+        int rowDistance = -Math.abs(toRow - fromRow);
+        int columnStep = fromColumn < toColumn ? 1 : -1;
+        int rowStep = fromRow < toRow ? 1 : -1;
+        int error = columnDistance + rowDistance;
+
+        int row = fromRow;
+        int column = fromColumn;
+        while(true) {
+            if(isCellOccupied(row, column)) {
+                return true;
+            }
+            if(row == toRow && column == toColumn) {
+                return false;
+            }
+
+            int doubleError = 2 * error;
+            if(rowDistance <= doubleError) {
+                error += rowDistance;
+                column += columnStep;
+            }
+            if(doubleError <= columnDistance) {
+                error += columnDistance;
+                row += rowStep;
+            }
+        }
+    }
+
+    // cell containing passed pixel position
+    public int toCell(int position) {
+        return Math.floorDiv(position, cellSize);
+    }
+
+    private int firstCell(int position) {
+        return toCell(position);
+    }
+
+    // last cell touched by size pixels starting at passed position, before first cell if size is zero
+    private int lastCell(int position, int size) {
+        if(size <= 0) {
+            return toCell(position) - 1;
+        }
+        return toCell(position + size - 1);
+    }
+
+    // bit set of stripes guarding passed rows
+    private long stripesOf(int firstRow, int lastRow) {
+        firstRow = Math.max(0, firstRow);
+        lastRow = Math.min(rows - 1, lastRow);
+
+        if(lastRow < firstRow) {
+            return 0L;
+        }
+        if(stripes.length <= lastRow - firstRow) {
+            return ALL_BITS >>> (MAX_STRIPES - stripes.length);
+        }
+
+        long stripeBits = 0L;
+        for(int row = firstRow; row <= lastRow; row++) {
+            stripeBits |= 1L << (row % stripes.length);
+        }
+        return stripeBits;
+    }
+
+    // locks stripes in ascending order, so two operations can never wait on each other
+    private long lock(long stripeBits) {
+        for(long remaining = stripeBits; remaining != 0; remaining &= remaining - 1) {
+            stripes[Long.numberOfTrailingZeros(remaining)].lock();
+        }
+        return stripeBits;
+    }
+
+    private void unlock(long stripeBits) {
+        for(long remaining = stripeBits; remaining != 0; remaining &= remaining - 1) {
+            stripes[Long.numberOfTrailingZeros(remaining)].unlock();
+        }
+    }
+
+    private void occupyCells(int firstRow, int firstColumn, int lastRow, int lastColumn) {
+        firstRow = Math.max(0, firstRow);
+        firstColumn = Math.max(0, firstColumn);
+        lastRow = Math.min(rows - 1, lastRow);
+        lastColumn = Math.min(columns - 1, lastColumn);
+
+        if(lastColumn < firstColumn) {
+            return;
+        }
+
+        int firstWord = firstColumn >>> WORD_SHIFT;
+        int lastWord = lastColumn >>> WORD_SHIFT;
+
+        for(int row = firstRow; row <= lastRow; row++) {
+            long[] words = gameGrid[row];
+            for(int word = firstWord; word <= lastWord; word++) {
+                words[word] |= mask(word, firstWord, lastWord, firstColumn, lastColumn);
+            }
+        }
+    }
+
+    private void vacantCells(int firstRow, int firstColumn, int lastRow, int lastColumn) {
+        firstRow = Math.max(0, firstRow);
+        firstColumn = Math.max(0, firstColumn);
+        lastRow = Math.min(rows - 1, lastRow);
+        lastColumn = Math.min(columns - 1, lastColumn);
+
+        if(lastColumn < firstColumn) {
+            return;
+        }
+
+        int firstWord = firstColumn >>> WORD_SHIFT;
+        int lastWord = lastColumn >>> WORD_SHIFT;
+
+        for(int row = firstRow; row <= lastRow; row++) {
+            long[] words = gameGrid[row];
+            for(int word = firstWord; word <= lastWord; word++) {
+                words[word] &= ~mask(word, firstWord, lastWord, firstColumn, lastColumn);
+            }
+        }
+    }
+
+    private boolean areCellsOccupied(int firstRow, int firstColumn, int lastRow, int lastColumn) {
+        firstRow = Math.max(0, firstRow);
+        firstColumn = Math.max(0, firstColumn);
+        lastRow = Math.min(rows - 1, lastRow);
+        lastColumn = Math.min(columns - 1, lastColumn);
+
+        if(lastColumn < firstColumn) {
+            return false;
+        }
+
+        int firstWord = firstColumn >>> WORD_SHIFT;
+        int lastWord = lastColumn >>> WORD_SHIFT;
+
+        for(int row = firstRow; row <= lastRow; row++) {
+            long[] words = gameGrid[row];
+            for(int word = firstWord; word <= lastWord; word++) {
+                if((words[word] & mask(word, firstWord, lastWord, firstColumn, lastColumn)) != 0) {
+                    return true;
                 }
             }
         }
 
-        return isSpaceOccupied;
+        return false;
+    }
+
+    /**
+     * Bits of passed word which lie between first and last column, both inclusive
+     */
+    private static long mask(int word, int firstWord, int lastWord, int firstColumn, int lastColumn) {
+        long mask = ALL_BITS;
+
+        if(word == firstWord) {
+            mask &= ALL_BITS << (firstColumn & WORD_MASK);
+        }
+        if(word == lastWord) {
+            mask &= ALL_BITS >>> (WORD_MASK - (lastColumn & WORD_MASK));
+        }
+
+        return mask;
     }
 }
@@ -0,0 +1,59 @@
+package in.shabhushan.tankfighter.game.engine;
+
+/**
+ * Seeded random number generator of a game (SplitMix64), so that a game started with the same seed and fed the same
+ * input always plays out the same.
+ *
+ * It's state is a single long, which can be read and restored, e.g. to save a game. {@link #split()} hands out an
+ * independent generator, for use where the order of draws from a shared generator isn't fixed, like work done in
+ * parallel. Not thread safe, a generator should only be used by one thread at a time.
+ */
+public final class GameRandom {
+
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+    private long state;
+
+    public GameRandom(long seed) {
+        this.state = seed;
+    }
+
+    public long nextLong() {
+        return mix(state += GOLDEN_GAMMA);
+    }
+
+    /**
+     * @return random int in [0, bound)
+     */
+    public int nextInt(int bound) {
+        return (int) ((nextLong() >>> 1) % bound);
+    }
+
+    public boolean nextBoolean() {
+        return nextLong() < 0;
+    }
+
+    /**
+     * New generator seeded from this one, the two produce unrelated sequences
+     */
+    public GameRandom split() {
+        return new GameRandom(nextLong());
+    }
+
+    public long getState() {
+        return state;
+    }
+
+    public void setState(long state) {
+        this.state = state;
+    }
+
+    /**
+     * Scrambles bits of passed value, used by the generator and for hashing game state
+     */
+    public static long mix(long value) {
+        value = (value ^ (value >>> 30)) * 0xbf58476d1ce4e5b9L;
+        value = (value ^ (value >>> 27)) * 0x94d049bb133111ebL;
+        return value ^ (value >>> 31);
+    }
+}
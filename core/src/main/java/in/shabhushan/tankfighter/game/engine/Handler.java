@@ -2,49 +2,178 @@ package in.shabhushan.tankfighter.game.engine;
 
 import in.shabhushan.tankfighter.game.model.GameObject;
 
-import java.awt.*;
-import java.util.LinkedList;
+import java.util.AbstractList;
+import java.util.Arrays;
 import java.util.List;
 
 /**
+ * Holds game objects of a kind, packed densely in an array so they can be iterated by index without allocating.
+ *
+ * Adding and removing objects is deferred: {@link #addObject(GameObject)} and {@link #removeObject(GameObject)} only
+ * record a command, which is applied in order by {@link #flush()} at the tick boundary. Objects can thus be added or
+ * removed while the handler is being iterated. An object is found by it's id, and removed by moving the last object
+ * into it's slot, so removal is O(1) but doesn't keep the order of objects.
+ *
+ * Not thread safe, other threads should go through {@link GameEngine#invokeLater(Runnable)}.
+ *
  * @author Shashi Bhushan
  * @date 16/9/18
  */
 public class Handler<T extends GameObject> {
-    List<T> gameObjects = new LinkedList<>();
+
+    private static final int NO_SLOT = -1;
+
+    private Object[] gameObjects = new Object[16];
+    private int size;
+
+    // object id -> slot in gameObjects, NO_SLOT if not in this handler
+    private int[] slots = new int[64];
+
+    // commands to apply on next flush
+    private Object[] pendingObjects = new Object[16];
+    private boolean[] pendingAdds = new boolean[16];
+    private int pendingCount;
+
+    private final List<T> view = new AbstractList<T>() {
+        @Override
+        public T get(int index) {
+            return Handler.this.get(index);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    };
+
+    public Handler() {
+        Arrays.fill(slots, NO_SLOT);
+    }
 
     public void update() {
-        // TODO: Check why it's Giving Error
-        // gameObjects.forEach(GameObject::update);
-        for(T gameObject: gameObjects) {
-            gameObject.update();
+        for(int index = 0; index < size; index++) {
+            get(index).update();
         }
     }
 
     /**
-     * Loops through all the game model and render them on the Frame
-     * @param graphics
+     * Adds passed object on next {@link #flush()}
+     */
+    public void addObject(T gameObject) {
+        addCommand(gameObject, true);
+    }
+
+    /**
+     * Removes passed object on next {@link #flush()}
+     * @return true if object is in this handler right now
+     */
+    public boolean removeObject(T gameObject) {
+        addCommand(gameObject, false);
+        return contains(gameObject);
+    }
+
+    /**
+     * Applies all pending additions and removals, in the order they were made. Should be called on the game loop
+     * thread at a tick boundary, while nobody is iterating the handler.
      */
-    public void draw(Graphics2D graphics) {
-        /* TODO: Check why it's not working
-        gameObjects.forEach((GameObject gameObject) -> {
-            gameObject.draw(graphics);
-        });*/
+    @SuppressWarnings("unchecked")
+    public void flush() {
+        for(int command = 0; command < pendingCount; command++) {
+            T gameObject = (T) pendingObjects[command];
 
-        for(GameObject gameObject : gameObjects) {
-           gameObject.draw(graphics);
+            if(pendingAdds[command]) {
+                add(gameObject);
+            } else {
+                remove(gameObject);
+            }
+            pendingObjects[command] = null;
         }
+        pendingCount = 0;
     }
 
-    public void addObject(T gameObject) {
-        gameObjects.add(gameObject);
+    /**
+     * Removes all objects right away, dropping pending additions and removals as well
+     */
+    public void clear() {
+        for(int index = 0; index < size; index++) {
+            slots[get(index).getId()] = NO_SLOT;
+            gameObjects[index] = null;
+        }
+        size = 0;
+
+        Arrays.fill(pendingObjects, 0, pendingCount, null);
+        pendingCount = 0;
     }
 
-    public boolean removeObject(T gameObject) {
-        return gameObjects.remove(gameObject);
+    public boolean contains(T gameObject) {
+        int id = gameObject.getId();
+        return id < slots.length && slots[id] != NO_SLOT;
     }
 
+    @SuppressWarnings("unchecked")
+    public T get(int index) {
+        return (T) gameObjects[index];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Read only view on the objects of this handler, changing as the handler changes
+     */
     public List<T> getGameObjects() {
-        return gameObjects;
+        return view;
+    }
+
+    private void add(T gameObject) {
+        if(contains(gameObject)) {
+            return;
+        }
+
+        int id = gameObject.getId();
+        if(slots.length <= id) {
+            int length = slots.length;
+            slots = Arrays.copyOf(slots, Math.max(id + 1, length * 2));
+            Arrays.fill(slots, length, slots.length, NO_SLOT);
+        }
+        if(size == gameObjects.length) {
+            gameObjects = Arrays.copyOf(gameObjects, size * 2);
+        }
+
+        slots[id] = size;
+        gameObjects[size++] = gameObject;
+    }
+
+    private void remove(T gameObject) {
+        if(!contains(gameObject)) {
+            return;
+        }
+
+        int slot = slots[gameObject.getId()];
+        slots[gameObject.getId()] = NO_SLOT;
+
+        // last object takes the slot of removed one
+        int last = --size;
+        if(slot != last) {
+            gameObjects[slot] = gameObjects[last];
+            slots[get(slot).getId()] = slot;
+        }
+        gameObjects[last] = null;
+    }
+
+    private void addCommand(T gameObject, boolean add) {
+        if(pendingCount == pendingObjects.length) {
+            pendingObjects = Arrays.copyOf(pendingObjects, pendingCount * 2);
+            pendingAdds = Arrays.copyOf(pendingAdds, pendingCount * 2);
+        }
+
+        pendingObjects[pendingCount] = gameObject;
+        pendingAdds[pendingCount] = add;
+        pendingCount++;
     }
 }
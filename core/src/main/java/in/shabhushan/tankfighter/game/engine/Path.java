@@ -0,0 +1,119 @@
+package in.shabhushan.tankfighter.game.engine;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Path of a single mover through the {@link GameGrid}, as planned by a {@link PathFinder}.
+ *
+ * A path is a list of nodes, each a single cell apart, starting at the node the mover was at when the path was planned.
+ * The cursor points to the node the mover is at now. Paths are kept by their mover across ticks, so they're only
+ * planned again once the mover strays from them or their goal has moved.
+ */
+public class Path {
+
+    private int[] nodes = new int[64];
+    private int length;
+    private int cursor;
+
+    // node of the target when the path was planned
+    private int goal;
+
+    // path ends short of the goal, as the search ran out of expansions
+    private boolean partial;
+
+    public boolean isEmpty() {
+        return length == 0;
+    }
+
+    // number of nodes in the path, including the start
+    public int getLength() {
+        return length;
+    }
+
+    public int getNode(int index) {
+        return nodes[index];
+    }
+
+    public int getCursor() {
+        return cursor;
+    }
+
+    public int getGoal() {
+        return goal;
+    }
+
+    public boolean isPartial() {
+        return partial;
+    }
+
+    // mover is at the last node of the path
+    public boolean isExhausted() {
+        return cursor >= length - 1;
+    }
+
+    public void clear() {
+        length = 0;
+        cursor = 0;
+        partial = false;
+    }
+
+    public void writeState(ByteBuffer buffer) {
+        buffer.putInt(length);
+        buffer.putInt(cursor);
+        buffer.putInt(goal);
+        buffer.put((byte) (partial ? 1 : 0));
+        for(int index = 0; index < length; index++) {
+            buffer.putInt(nodes[index]);
+        }
+    }
+
+    public void readState(ByteBuffer buffer) {
+        length = buffer.getInt();
+        cursor = buffer.getInt();
+        goal = buffer.getInt();
+        partial = buffer.get() != 0;
+
+        if(nodes.length < length) {
+            nodes = new int[length];
+        }
+        for(int index = 0; index < length; index++) {
+            nodes[index] = buffer.getInt();
+        }
+    }
+
+    void advance() {
+        cursor++;
+    }
+
+    void start(int goal, boolean partial) {
+        this.length = 0;
+        this.cursor = 0;
+        this.goal = goal;
+        this.partial = partial;
+    }
+
+    void add(int node) {
+        if(length == nodes.length) {
+            nodes = Arrays.copyOf(nodes, length * 2);
+        }
+        nodes[length++] = node;
+    }
+
+    /**
+     * Replaces nodes from the cursor up to and including passed index with passed nodes, keeping the rest of the path
+     * @param replacement nodes leading from the node at cursor to the node at passed index, both included
+     */
+    void splice(int index, int[] replacement, int replacementLength) {
+        int tail = length - index - 1;
+        int newLength = cursor + replacementLength + tail;
+
+        int[] spliced = new int[Math.max(nodes.length, newLength)];
+        System.arraycopy(nodes, 0, spliced, 0, cursor);
+        System.arraycopy(replacement, 0, spliced, cursor, replacementLength);
+        System.arraycopy(nodes, index + 1, spliced, cursor + replacementLength, tail);
+
+        nodes = spliced;
+        length = newLength;
+    }
+}
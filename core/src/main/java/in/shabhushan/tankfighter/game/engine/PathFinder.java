@@ -0,0 +1,424 @@
+package in.shabhushan.tankfighter.game.engine;
+
+import in.shabhushan.tankfighter.game.enumeration.Direction;
+
+import java.util.Arrays;
+
+/**
+ * A* search over the cells of a {@link GameGrid}, for square movers like tanks.
+ *
+ * A mover at pixel position (x, y) is at node (x / cellSize, y / cellSize), and moves a single cell at a time, so it
+ * stays at the same offset within it's cells. A node can be entered if every cell of the mover's footprint there is
+ * free, not counting the cells occupied by the mover itself or by it's target, which is checked a row of the footprint
+ * at a time with {@link GameGrid#getCells(int, int)}. The mover has reached it's target once it's footprint touches
+ * the target's. Costs are in cells, the heuristic is the manhattan distance to the nearest node touching the target.
+ *
+ * Searches share a budget of node expansions, which is reset every tick by {@link #resetBudget()}, and a single search
+ * may only use a part of it. A search that runs out of expansions, e.g. as the goal can't be reached at all, returns
+ * a partial path, to the node closest to the goal it has seen, and once the budget is spent no more searches are run
+ * in that tick. The cost of path finding per tick is thus bounded, no matter how many
+ * movers are looking for a path.
+ *
+ * {@link #follow(Path, int, int, int, int, int, int)} keeps a mover's path up to date: the path is planned again only
+ * once it's goal has moved, and is repaired locally when the grid has changed in front of the mover.
+ *
+ * Search state is kept in arrays of the size of the grid, allocated once. Not thread safe.
+ */
+public class PathFinder {
+
+    private static final int NO_NODE = -1;
+
+    private final GameGrid gameGrid;
+    private final int cellSize;
+    private final int rows;
+    private final int columns;
+
+    private final int expansionsPerTick;
+    private final int searchExpansions;
+    private final int replanDistance;
+    private final int repairLookahead;
+    private final int repairExpansions;
+
+    private int remainingExpansions;
+
+    // per node state of the current search, valid only if stamp of the node matches the current search
+    private final int[] costs;
+    private final int[] parents;
+    private final int[] stamps;
+    private final boolean[] closed;
+    private int search;
+
+    // open set as binary heap of nodes ordered by key
+    private int[] heapNodes = new int[256];
+    private long[] heapKeys = new long[256];
+    private int heapSize;
+
+    // footprint of the mover in cells, and cells of the mover and it's target which never block it
+    private int footprintColumns;
+    private int footprintRows;
+    private long footprintMask;
+    private int ignoredFirstRow, ignoredFirstColumn, ignoredLastRow, ignoredLastColumn;
+    private int targetFirstRow, targetFirstColumn, targetLastRow, targetLastColumn;
+
+    private int[] scratch = new int[64];
+
+    /**
+     * @param expansionsPerTick node expansions all searches in a tick may use together
+     * @param searchExpansions node expansions a single search may use
+     * @param replanDistance distance in cells the goal may move before a path is planned again
+     * @param repairLookahead nodes ahead of a blocked node a repaired path joins the old path again
+     * @param repairExpansions node expansions a single repair may use
+     */
+    public PathFinder(GameGrid gameGrid, int expansionsPerTick, int searchExpansions,
+                      int replanDistance, int repairLookahead, int repairExpansions) {
+        this.gameGrid = gameGrid;
+        this.cellSize = gameGrid.getCellSize();
+        this.rows = gameGrid.getRows();
+        this.columns = gameGrid.getColumns();
+
+        this.expansionsPerTick = expansionsPerTick;
+        this.searchExpansions = searchExpansions;
+        this.replanDistance = replanDistance;
+        this.repairLookahead = repairLookahead;
+        this.repairExpansions = repairExpansions;
+        this.remainingExpansions = expansionsPerTick;
+
+        costs = new int[rows * columns];
+        parents = new int[rows * columns];
+        stamps = new int[rows * columns];
+        closed = new boolean[rows * columns];
+    }
+
+    /**
+     * Makes the full budget of node expansions available again, should be called once every tick
+     */
+    public void resetBudget() {
+        remainingExpansions = expansionsPerTick;
+    }
+
+    public int getRemainingExpansions() {
+        return remainingExpansions;
+    }
+
+    /**
+     * Direction a mover should take next to get to it's target, planning or repairing it's path as needed.
+     * Positions and sizes are in pixels.
+     *
+     * @param path path of the mover, kept by the mover between calls
+     * @return direction of next node of the path, or null if there is no path right now, e.g. as the budget is spent
+     */
+    public Direction follow(Path path, int horizontalPosition, int verticalPosition, int size,
+                            int targetHorizontalPosition, int targetVerticalPosition, int targetSize) {
+        prepare(horizontalPosition, verticalPosition, size, targetHorizontalPosition, targetVerticalPosition, targetSize);
+
+        int node = node(toCell(verticalPosition), toCell(horizontalPosition));
+        int goal = node(targetFirstRow, targetFirstColumn);
+
+        // mover took the last step of it's path
+        if(!path.isEmpty() && !path.isExhausted() && path.getNode(path.getCursor() + 1) == node) {
+            path.advance();
+        }
+
+        if(path.isEmpty() || path.getNode(path.getCursor()) != node || distance(path.getGoal(), goal) > replanDistance
+                || (path.isExhausted() && path.isPartial())) {
+            if(!plan(path, node, goal)) {
+                path.clear();
+                return null;
+            }
+        }
+
+        if(path.isExhausted()) {
+            return null; // at the target
+        }
+
+        if(!isPassable(path.getNode(path.getCursor() + 1)) && !repair(path, node)) {
+            if(!plan(path, node, goal)) {
+                path.clear();
+                return null;
+            }
+            if(path.isExhausted()) {
+                return null;
+            }
+        }
+
+        return direction(node, path.getNode(path.getCursor() + 1));
+    }
+
+    // plans a new path from passed node to the target, false if no step towards it can be found
+    private boolean plan(Path path, int start, int goal) {
+        int end = search(start, NO_NODE, Math.min(remainingExpansions, searchExpansions));
+        if(end == NO_NODE) {
+            return false;
+        }
+
+        boolean reached = estimate(end, NO_NODE) == 0;
+
+        int length = reconstruct(start, end);
+
+        // partial paths are planned again once the mover is at their end, unless the mover can't get any closer at all
+        path.start(goal, !reached && 1 < length);
+        for(int index = length - 1; 0 <= index; index--) {
+            path.add(scratch[index]);
+        }
+
+        return 1 < length || reached;
+    }
+
+    // finds a way around whatever blocks the next node, rejoining the path a few nodes further on
+    private boolean repair(Path path, int start) {
+        int rejoin = Math.min(path.getCursor() + 1 + repairLookahead, path.getLength() - 1);
+
+        // skip nodes which are blocked as well, the path has to rejoin at a free node
+        while(rejoin < path.getLength() - 1 && !isPassable(path.getNode(rejoin))) {
+            rejoin++;
+        }
+
+        int rejoinNode = path.getNode(rejoin);
+        int end = search(start, rejoinNode, Math.min(remainingExpansions, repairExpansions));
+        if(end != rejoinNode) {
+            return false;
+        }
+
+        int length = reconstruct(start, end);
+        int[] replacement = new int[length];
+        for(int index = 0; index < length; index++) {
+            replacement[index] = scratch[length - 1 - index];
+        }
+
+        path.splice(rejoin, replacement, length);
+        return true;
+    }
+
+    /**
+     * A* from start to passed goal node, or to the target if goal is NO_NODE, using at most passed number of expansions
+     * @return node at which goal was reached, else the node closest to it which was seen, NO_NODE if nothing could be
+     * expanded
+     */
+    private int search(int start, int goal, int maxExpansions) {
+        if(maxExpansions <= 0) {
+            return NO_NODE;
+        }
+
+        search++;
+        heapSize = 0;
+
+        visit(start, 0, NO_NODE, goal);
+
+        int best = start;
+        int bestDistance = Integer.MAX_VALUE;
+        int expansions = 0;
+
+        while(0 < heapSize && expansions < maxExpansions) {
+            int node = poll();
+            if(closed[node]) {
+                continue; // stale entry, node was reached cheaper already
+            }
+            closed[node] = true;
+            expansions++;
+
+            int nodeDistance = estimate(node, goal);
+            if(nodeDistance < bestDistance) {
+                bestDistance = nodeDistance;
+                best = node;
+            }
+            if(nodeDistance == 0) {
+                break;
+            }
+
+            int row = node / columns;
+            int column = node % columns;
+
+            int cost = costs[node] + 1;
+            if(0 < row) expand(node - columns, cost, node, goal);
+            if(row < rows - 1) expand(node + columns, cost, node, goal);
+            if(0 < column) expand(node - 1, cost, node, goal);
+            if(column < columns - 1) expand(node + 1, cost, node, goal);
+        }
+
+        remainingExpansions -= expansions;
+        return best;
+    }
+
+    private void expand(int node, int cost, int parent, int goal) {
+        if(stamps[node] == search && (closed[node] || costs[node] <= cost)) {
+            return;
+        }
+        if(!isPassable(node)) {
+            return;
+        }
+
+        visit(node, cost, parent, goal);
+    }
+
+    private void visit(int node, int cost, int parent, int goal) {
+        if(stamps[node] != search) {
+            stamps[node] = search;
+            closed[node] = false;
+        }
+        costs[node] = cost;
+        parents[node] = parent;
+
+        // lower estimate first, on a tie the node further along
+        push(node, ((long) (cost + estimate(node, goal)) << 32) - cost);
+    }
+
+    /**
+     * Manhattan distance from passed node to goal, or to the nearest node at which the mover touches the target if
+     * goal is NO_NODE
+     */
+    private int estimate(int node, int goal) {
+        int row = node / columns;
+        int column = node % columns;
+
+        if(goal != NO_NODE) {
+            return Math.abs(goal / columns - row) + Math.abs(goal % columns - column);
+        }
+
+        return distanceToRange(row, targetFirstRow - footprintRows, targetLastRow + 1)
+                + distanceToRange(column, targetFirstColumn - footprintColumns, targetLastColumn + 1);
+    }
+
+    private static int distanceToRange(int value, int minimum, int maximum) {
+        return value < minimum ? minimum - value : (maximum < value ? value - maximum : 0);
+    }
+
+    // writes nodes from end back to start into scratch, returns their number
+    private int reconstruct(int start, int end) {
+        int length = 0;
+        for(int node = end; node != NO_NODE; node = node == start ? NO_NODE : parents[node]) {
+            if(length == scratch.length) {
+                scratch = Arrays.copyOf(scratch, length * 2);
+            }
+            scratch[length++] = node;
+        }
+        return length;
+    }
+
+    // mover fits at passed node, with it's top left cell at the node
+    private boolean isPassable(int node) {
+        int firstRow = node / columns;
+        int firstColumn = node % columns;
+        int lastRow = firstRow + footprintRows - 1;
+
+        if(rows <= lastRow || columns < firstColumn + footprintColumns) {
+            return false;
+        }
+
+        for(int row = firstRow; row <= lastRow; row++) {
+            long cells = gameGrid.getCells(row, firstColumn) & footprintMask;
+
+            if(cells != 0) {
+                if(ignoredFirstRow <= row && row <= ignoredLastRow) {
+                    cells &= ~columnMask(ignoredFirstColumn - firstColumn, ignoredLastColumn - firstColumn);
+                }
+                if(targetFirstRow <= row && row <= targetLastRow) {
+                    cells &= ~columnMask(targetFirstColumn - firstColumn, targetLastColumn - firstColumn);
+                }
+                if(cells != 0) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    // bits of passed columns, relative to first column of a footprint
+    private static long columnMask(int firstColumn, int lastColumn) {
+        if(lastColumn < 0 || Long.SIZE <= firstColumn) {
+            return 0L;
+        }
+        firstColumn = Math.max(0, firstColumn);
+        lastColumn = Math.min(Long.SIZE - 1, lastColumn);
+
+        return (-1L << firstColumn) & (-1L >>> (Long.SIZE - 1 - lastColumn));
+    }
+
+    private void prepare(int horizontalPosition, int verticalPosition, int size,
+                         int targetHorizontalPosition, int targetVerticalPosition, int targetSize) {
+        ignoredFirstRow = toCell(verticalPosition);
+        ignoredFirstColumn = toCell(horizontalPosition);
+        ignoredLastRow = toCell(verticalPosition + size - 1);
+        ignoredLastColumn = toCell(horizontalPosition + size - 1);
+
+        footprintRows = ignoredLastRow - ignoredFirstRow + 1;
+        footprintColumns = ignoredLastColumn - ignoredFirstColumn + 1;
+        footprintMask = columnMask(0, footprintColumns - 1);
+
+        targetFirstRow = toCell(targetVerticalPosition);
+        targetFirstColumn = toCell(targetHorizontalPosition);
+        targetLastRow = toCell(targetVerticalPosition + targetSize - 1);
+        targetLastColumn = toCell(targetHorizontalPosition + targetSize - 1);
+    }
+
+    private int toCell(int position) {
+        return Math.floorDiv(position, cellSize);
+    }
+
+    private int node(int row, int column) {
+        return clamp(row, rows - 1) * columns + clamp(column, columns - 1);
+    }
+
+    private int distance(int node, int other) {
+        return Math.abs(node / columns - other / columns) + Math.abs(node % columns - other % columns);
+    }
+
+    private Direction direction(int from, int to) {
+        int rowDistance = to / columns - from / columns;
+        if(rowDistance != 0) {
+            return rowDistance < 0 ? Direction.UP : Direction.DOWN;
+        }
+        return to < from ? Direction.LEFT : Direction.RIGHT;
+    }
+
+    private static int clamp(int value, int maximum) {
+        return Math.max(0, Math.min(value, maximum));
+    }
+
+    private void push(int node, long key) {
+        if(heapSize == heapNodes.length) {
+            heapNodes = Arrays.copyOf(heapNodes, heapSize * 2);
+            heapKeys = Arrays.copyOf(heapKeys, heapSize * 2);
+        }
+
+        int index = heapSize++;
+        while(0 < index) {
+            int parent = (index - 1) >>> 1;
+            if(heapKeys[parent] <= key) {
+                break;
+            }
+            heapNodes[index] = heapNodes[parent];
+            heapKeys[index] = heapKeys[parent];
+            index = parent;
+        }
+        heapNodes[index] = node;
+        heapKeys[index] = key;
+    }
+
+    private int poll() {
+        int node = heapNodes[0];
+
+        int lastNode = heapNodes[--heapSize];
+        long lastKey = heapKeys[heapSize];
+
+        int index = 0;
+        while(true) {
+            int child = 2 * index + 1;
+            if(heapSize <= child) {
+                break;
+            }
+            if(child + 1 < heapSize && heapKeys[child + 1] < heapKeys[child]) {
+                child++;
+            }
+            if(lastKey <= heapKeys[child]) {
+                break;
+            }
+            heapNodes[index] = heapNodes[child];
+            heapKeys[index] = heapKeys[child];
+            index = child;
+        }
+        heapNodes[index] = lastNode;
+        heapKeys[index] = lastKey;
+
+        return node;
+    }
+}
@@ -0,0 +1,28 @@
+package in.shabhushan.tankfighter.game.engine;
+
+import java.awt.Graphics2D;
+
+/**
+ * Draws a frame of a game onto it's {@link GameCanvas}.
+ * Game objects don't know how to draw themselves, all the drawing code lives in renderers, so the game model can be
+ * used without any AWT or Swing component.
+ */
+public interface Renderer {
+
+    /**
+     * Draws everything in the game onto passed graphics
+     * @param graphics graphics to draw onto
+     * @param interpolation fraction of a tick elapsed since the last simulated tick, see {@link GameEngine#getInterpolation()}
+     */
+    public void draw(Graphics2D graphics, float interpolation);
+
+    /**
+     * Reports the bounds of everything {@link #draw(Graphics2D, float)} would draw, for dirty rectangle rendering
+     * @param dirtyRegions to add bounds to
+     * @param interpolation same as for draw
+     * @return false if this renderer can't report it's bounds, the whole frame is repainted then
+     */
+    public default boolean collectBounds(DirtyRegions dirtyRegions, float interpolation) {
+        return false;
+    }
+}
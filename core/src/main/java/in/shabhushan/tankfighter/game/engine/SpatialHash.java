@@ -0,0 +1,183 @@
+package in.shabhushan.tankfighter.game.engine;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntConsumer;
+
+/**
+ * Uniform spatial hash used as broad phase for collision checks.
+ *
+ * The playing field is divided into square cells of 2^cellShift pixels, each object is added to the buckets of all the
+ * cells its bounding box touches. A query then only looks at objects in the cells the query rectangle touches, instead
+ * of every object in the game. Cells are hashed into a fixed number of buckets, so the field can be of any size.
+ *
+ * Meant to be rebuilt every tick: {@link #clear()} and {@link #insert(Object, int, int, int, int)} don't allocate once
+ * the internal arrays have grown large enough. Objects without an object of their own, like entities of an
+ * {@link EntityStore}, can be added by an int key instead, see {@link #insertKey(int, int, int, int, int)}.
+ * Not thread safe.
+ *
+ * @param <T> type of objects in the hash
+ */
+public class SpatialHash<T> {
+
+    private static final int EMPTY = -1;
+
+    private final int cellShift;
+    private final int bucketMask;
+
+    // first entry of each bucket, entries of a bucket are chained through next
+    private final int[] buckets;
+
+    // entry -> index of object it refers to, and next entry in same bucket
+    private int[] entryObjects = new int[64];
+    private int[] nextEntries = new int[64];
+    private int entries;
+
+    // distinct objects or their keys, and the last query each object was reported in, to report each object once per query
+    private Object[] objects = new Object[32];
+    private int[] keys = new int[32];
+    private int[] queryStamps = new int[32];
+    private int size;
+
+    private int queryStamp;
+
+    /**
+     * @param cellShift log2 of cell size in pixels
+     * @param bucketCount number of buckets, rounded up to a power of two
+     */
+    public SpatialHash(int cellShift, int bucketCount) {
+        this.cellShift = cellShift;
+
+        int capacity = Integer.highestOneBit(Math.max(1, bucketCount - 1)) << 1;
+        buckets = new int[capacity];
+        bucketMask = capacity - 1;
+
+        Arrays.fill(buckets, EMPTY);
+    }
+
+    /**
+     * Removes all objects from the hash
+     */
+    public void clear() {
+        Arrays.fill(buckets, EMPTY);
+        Arrays.fill(objects, 0, size, null);
+        entries = 0;
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Adds an object with passed bounding box to the hash
+     */
+    public void insert(T object, int horizontalPosition, int verticalPosition, int width, int height) {
+        addObject(object, 0, horizontalPosition, verticalPosition, width, height);
+    }
+
+    /**
+     * Adds an object with passed bounding box to the hash, by it's key
+     */
+    public void insertKey(int key, int horizontalPosition, int verticalPosition, int width, int height) {
+        addObject(null, key, horizontalPosition, verticalPosition, width, height);
+    }
+
+    private void addObject(T object, int key, int horizontalPosition, int verticalPosition, int width, int height) {
+        if(size == objects.length) {
+            objects = Arrays.copyOf(objects, size * 2);
+            keys = Arrays.copyOf(keys, size * 2);
+            queryStamps = Arrays.copyOf(queryStamps, size * 2);
+        }
+
+        int objectIndex = size++;
+        objects[objectIndex] = object;
+        keys[objectIndex] = key;
+        queryStamps[objectIndex] = queryStamp;
+
+        int firstColumn = horizontalPosition >> cellShift;
+        int lastColumn = (horizontalPosition + Math.max(1, width) - 1) >> cellShift;
+        int firstRow = verticalPosition >> cellShift;
+        int lastRow = (verticalPosition + Math.max(1, height) - 1) >> cellShift;
+
+        for(int row = firstRow; row <= lastRow; row++) {
+            for(int column = firstColumn; column <= lastColumn; column++) {
+                addEntry(bucket(column, row), objectIndex);
+            }
+        }
+    }
+
+    /**
+     * Collects all objects whose cells are touched by passed rectangle into result, each object only once.
+     * Objects are only candidates: they are close to the rectangle, but don't necessarily intersect it.
+     *
+     * @param result list to add candidates to, it is not cleared
+     * @return result
+     */
+    @SuppressWarnings("unchecked")
+    public List<T> query(int horizontalPosition, int verticalPosition, int width, int height, List<T> result) {
+        queryStamp++;
+
+        int firstColumn = horizontalPosition >> cellShift;
+        int lastColumn = (horizontalPosition + Math.max(1, width) - 1) >> cellShift;
+        int firstRow = verticalPosition >> cellShift;
+        int lastRow = (verticalPosition + Math.max(1, height) - 1) >> cellShift;
+
+        for(int row = firstRow; row <= lastRow; row++) {
+            for(int column = firstColumn; column <= lastColumn; column++) {
+                for(int entry = buckets[bucket(column, row)]; entry != EMPTY; entry = nextEntries[entry]) {
+                    int objectIndex = entryObjects[entry];
+
+                    if(queryStamps[objectIndex] != queryStamp) {
+                        queryStamps[objectIndex] = queryStamp;
+                        result.add((T) objects[objectIndex]);
+                    }
+                }
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Passes keys of all objects whose cells are touched by passed rectangle to consumer, each key only once.
+     * Same as {@link #query(int, int, int, int, List)}, for objects added by key.
+     */
+    public void queryKeys(int horizontalPosition, int verticalPosition, int width, int height, IntConsumer consumer) {
+        queryStamp++;
+
+        int firstColumn = horizontalPosition >> cellShift;
+        int lastColumn = (horizontalPosition + Math.max(1, width) - 1) >> cellShift;
+        int firstRow = verticalPosition >> cellShift;
+        int lastRow = (verticalPosition + Math.max(1, height) - 1) >> cellShift;
+
+        for(int row = firstRow; row <= lastRow; row++) {
+            for(int column = firstColumn; column <= lastColumn; column++) {
+                for(int entry = buckets[bucket(column, row)]; entry != EMPTY; entry = nextEntries[entry]) {
+                    int objectIndex = entryObjects[entry];
+
+                    if(queryStamps[objectIndex] != queryStamp) {
+                        queryStamps[objectIndex] = queryStamp;
+                        consumer.accept(keys[objectIndex]);
+                    }
+                }
+            }
+        }
+    }
+
+    private void addEntry(int bucket, int objectIndex) {
+        if(entries == entryObjects.length) {
+            entryObjects = Arrays.copyOf(entryObjects, entries * 2);
+            nextEntries = Arrays.copyOf(nextEntries, entries * 2);
+        }
+
+        entryObjects[entries] = objectIndex;
+        nextEntries[entries] = buckets[bucket];
+        buckets[bucket] = entries;
+        entries++;
+    }
+
+    private int bucket(int column, int row) {
+        return (column * 73856093 ^ row * 19349663) & bucketMask;
+    }
+}
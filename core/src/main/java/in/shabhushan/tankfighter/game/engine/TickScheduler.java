@@ -0,0 +1,199 @@
+package in.shabhushan.tankfighter.game.engine;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Schedules tasks to run after a number of game ticks, on the game loop thread.
+ *
+ * It's implemented as a hashed timer wheel: A task due at tick t is put into bucket (t mod wheelSize), thus every
+ * {@link #advance()} only has to look at a single bucket instead of all scheduled tasks. Tasks due more than a wheel
+ * revolution away stay in their bucket until their deadline comes around.
+ *
+ * Not thread safe, tasks should only be scheduled from the game loop thread or before the game is started.
+ *
+ * The deadlines of scheduled tasks can be written into and read back from a snapshot of the game. Tasks themselves
+ * can't be written, they're identified by the order they were scheduled in, so only tasks which are still scheduled
+ * can be restored, like the tasks a game schedules at a fixed rate once it's created.
+ */
+public class TickScheduler {
+
+    /**
+     * Handle of a scheduled task, which can be used to cancel it.
+     */
+    public static final class ScheduledTask {
+        private final Runnable task;
+        private final int period; // zero for one shot tasks
+        private final int sequence; // order task was scheduled in
+        private long deadline;
+        private boolean cancelled;
+
+        private ScheduledTask(Runnable task, long deadline, int period, int sequence) {
+            this.task = task;
+            this.deadline = deadline;
+            this.period = period;
+            this.sequence = sequence;
+        }
+
+        /**
+         * Cancels the task, it will not run again.
+         */
+        public void cancel() {
+            cancelled = true;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+
+    private final List<ScheduledTask>[] wheel;
+    private final int mask;
+
+    // tasks of the bucket being processed, reused between ticks
+    private List<ScheduledTask> processing = new ArrayList<>();
+
+    private long currentTick;
+
+    private int nextSequence;
+
+    /**
+     * @param wheelSize number of buckets in the wheel, rounded up to a power of two
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public TickScheduler(int wheelSize) {
+        int size = Integer.highestOneBit(Math.max(1, wheelSize - 1)) << 1;
+
+        wheel = new List[size];
+        for(int index = 0; index < size; index++) {
+            wheel[index] = new ArrayList<>();
+        }
+        mask = size - 1;
+    }
+
+    /**
+     * Schedules a task to run once after passed number of ticks.
+     * @param task task to run
+     * @param delay ticks to wait, at least one
+     * @return handle of scheduled task
+     */
+    public ScheduledTask schedule(Runnable task, int delay) {
+        return add(new ScheduledTask(task, currentTick + Math.max(1, delay), 0, nextSequence++));
+    }
+
+    /**
+     * Schedules a task to run every period ticks, first run being after period ticks.
+     * @param task task to run
+     * @param period ticks between two runs, at least one
+     * @return handle of scheduled task, to cancel it
+     */
+    public ScheduledTask scheduleAtFixedRate(Runnable task, int period) {
+        int ticks = Math.max(1, period);
+        return add(new ScheduledTask(task, currentTick + ticks, ticks, nextSequence++));
+    }
+
+    /**
+     * Runs all tasks due in the current tick and moves on to the next tick.
+     */
+    public void advance() {
+        int bucket = (int) (currentTick & mask);
+
+        // swap the bucket with an empty list, so tasks rescheduled into this very bucket are not run twice
+        List<ScheduledTask> due = wheel[bucket];
+        wheel[bucket] = processing;
+        processing = due;
+
+        for(int index = 0; index < due.size(); index++) {
+            ScheduledTask scheduledTask = due.get(index);
+
+            if(scheduledTask.cancelled) {
+                continue;
+            }
+
+            if(scheduledTask.deadline != currentTick) {
+                // due in a later revolution of the wheel
+                wheel[bucket].add(scheduledTask);
+                continue;
+            }
+
+            scheduledTask.task.run();
+
+            if(scheduledTask.period > 0 && !scheduledTask.cancelled) {
+                scheduledTask.deadline += scheduledTask.period;
+                add(scheduledTask);
+            }
+        }
+        due.clear();
+
+        currentTick++;
+    }
+
+    public long getCurrentTick() {
+        return currentTick;
+    }
+
+    /**
+     * Writes current tick and the deadline of every task not cancelled, in the order the tasks are going to run
+     */
+    public void writeState(ByteBuffer buffer) {
+        buffer.putLong(currentTick);
+
+        int countPosition = buffer.position();
+        buffer.putInt(0);
+
+        int count = 0;
+        for(int offset = 0; offset < wheel.length; offset++) {
+            List<ScheduledTask> bucket = wheel[(int) ((currentTick + offset) & mask)];
+
+            for(int index = 0; index < bucket.size(); index++) {
+                ScheduledTask scheduledTask = bucket.get(index);
+
+                if(!scheduledTask.cancelled) {
+                    buffer.putInt(scheduledTask.sequence);
+                    buffer.putLong(scheduledTask.deadline);
+                    count++;
+                }
+            }
+        }
+        buffer.putInt(countPosition, count);
+    }
+
+    /**
+     * Reads back what {@link #writeState(ByteBuffer)} has written. Tasks scheduled since are dropped, tasks cancelled
+     * since are scheduled again.
+     * @throws IllegalStateException if a task written isn't scheduled anymore
+     */
+    public void readState(ByteBuffer buffer) {
+        Map<Integer, ScheduledTask> scheduledTasks = new HashMap<>();
+        for(List<ScheduledTask> bucket: wheel) {
+            for(int index = 0; index < bucket.size(); index++) {
+                ScheduledTask scheduledTask = bucket.get(index);
+                scheduledTasks.put(scheduledTask.sequence, scheduledTask);
+            }
+            bucket.clear();
+        }
+
+        currentTick = buffer.getLong();
+
+        int count = buffer.getInt();
+        for(int index = 0; index < count; index++) {
+            int sequence = buffer.getInt();
+            ScheduledTask scheduledTask = scheduledTasks.get(sequence);
+            if(scheduledTask == null) {
+                throw new IllegalStateException("Task " + sequence + " isn't scheduled anymore, unable to restore it");
+            }
+
+            scheduledTask.deadline = buffer.getLong();
+            scheduledTask.cancelled = false;
+            add(scheduledTask);
+        }
+    }
+
+    private ScheduledTask add(ScheduledTask scheduledTask) {
+        wheel[(int) (scheduledTask.deadline & mask)].add(scheduledTask);
+        return scheduledTask;
+    }
+}
@@ -6,5 +6,6 @@ package in.shabhushan.tankfighter.game.enumeration;
  */
 public enum ObjectType {
     PLAYER_TANK,
-    ENEMY_TANK
+    ENEMY_TANK,
+    BOMB
 }
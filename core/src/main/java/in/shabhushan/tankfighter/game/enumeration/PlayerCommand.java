@@ -0,0 +1,8 @@
+package in.shabhushan.tankfighter.game.enumeration;
+
+/**
+ * Everything a player can tell their tank to do, a single command per key press
+ */
+public enum PlayerCommand {
+    UP, DOWN, LEFT, RIGHT, FIRE
+}
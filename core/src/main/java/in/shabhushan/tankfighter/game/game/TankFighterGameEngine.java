@@ -1,18 +1,29 @@
 package in.shabhushan.tankfighter.game.game;
 
+import in.shabhushan.tankfighter.game.engine.FlowField;
 import in.shabhushan.tankfighter.game.engine.GameEngine;
 import in.shabhushan.tankfighter.game.engine.Handler;
+import in.shabhushan.tankfighter.game.engine.PathFinder;
+import in.shabhushan.tankfighter.game.engine.SpatialHash;
 import in.shabhushan.tankfighter.game.enumeration.ObjectType;
-import in.shabhushan.tankfighter.game.model.Bomb;
-import in.shabhushan.tankfighter.game.model.Bullet;
+import in.shabhushan.tankfighter.game.enumeration.PlayerCommand;
 import in.shabhushan.tankfighter.game.model.builder.EnemyTankBuilder;
 import in.shabhushan.tankfighter.game.model.builder.PlayerTankBuilder;
 import in.shabhushan.tankfighter.game.model.Tank;
+import in.shabhushan.tankfighter.game.model.impl.EnemyTank;
+import in.shabhushan.tankfighter.game.model.impl.PlayerTank;
+import in.shabhushan.tankfighter.game.replay.ReplayReader;
+import in.shabhushan.tankfighter.game.replay.ReplayWriter;
+import in.shabhushan.tankfighter.game.system.BombSystem;
+import in.shabhushan.tankfighter.game.system.EnemyAiSystem;
 import in.shabhushan.tankfighter.game.util.GameUtil;
 
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.awt.*;
-import java.util.ListIterator;
 
 import static in.shabhushan.tankfighter.game.enumeration.Direction.DOWN;
 import static in.shabhushan.tankfighter.game.enumeration.Direction.UP;
@@ -28,16 +39,65 @@ public class TankFighterGameEngine extends GameEngine {
 
     private Handler<Tank> enemyTankHandler;
 
-    private Handler<Bomb> bombsHandler;
+    private final BombSystem bombSystem;
+
+    private final PathFinder pathFinder;
+
+    // distances to player tank, shared by all enemy tanks
+    private final FlowField flowField;
+
+    // broad phase for bullet vs tank collisions, rebuilt every tick
+    private final SpatialHash<Tank> enemyTankIndex = new SpatialHash<>(DEFAULT_SPATIAL_HASH_CELL_SHIFT, DEFAULT_SPATIAL_HASH_BUCKETS);
+    private final SpatialHash<Tank> playerTankIndex = new SpatialHash<>(DEFAULT_SPATIAL_HASH_CELL_SHIFT, DEFAULT_SPATIAL_HASH_BUCKETS);
+    private final List<Tank> collisionCandidates = new ArrayList<>();
+    private final List<Tank> destroyedTanks = new ArrayList<>();
+
+    // all entities by id, for finding what's in view while rendering; rebuilt at the end of every tick
+    private final SpatialHash<Void> entityIndex = new SpatialHash<>(DEFAULT_SPATIAL_HASH_CELL_SHIFT, DEFAULT_SPATIAL_HASH_BUCKETS);
+
+    private final long seed;
+
+    // every tank of the game by id, alive or not, to put tanks back into their handlers when state is read
+    private final Map<Integer, Tank> tanks = new HashMap<>();
+
+    // records player commands as they are applied, if set
+    private ReplayWriter replayWriter;
+
+    // plays back recorded player commands, if set
+    private ReplayReader replayReader;
+
+    // runs after every tick, if set
+    private Runnable tickListener;
 
     public TankFighterGameEngine(Dimension resolution) {
-        super(resolution);
+        this(resolution, resolution);
+    }
+
+    public TankFighterGameEngine(Dimension resolution, Dimension worldSize) {
+        this(resolution, worldSize, DEFAULT_RANDOM_SEED);
+    }
+
+    /**
+     * Creates a game on a playing field of passed world size, the player starting in it's center
+     * @param seed seed of the game's random number generator, games with the same seed and input play out the same
+     */
+    public TankFighterGameEngine(Dimension resolution, Dimension worldSize, long seed) {
+        super(resolution, worldSize);
+        this.seed = seed;
+        random.setState(seed);
+
         handler = new Handler<>();
         enemyTankHandler = new Handler<>();
-        bombsHandler = new Handler<>();
+        bombSystem = new BombSystem(this);
+        pathFinder = new PathFinder(gameGrid, DEFAULT_PATH_EXPANSIONS_PER_TICK, DEFAULT_PATH_SEARCH_EXPANSIONS,
+                DEFAULT_PATH_REPLAN_DISTANCE, DEFAULT_PATH_REPAIR_LOOKAHEAD, DEFAULT_PATH_REPAIR_EXPANSIONS);
+        flowField = new FlowField(gameGrid, DEFAULT_TANK_OBJECT_SIZE);
+
+        int playerHorizontalPosition = (int) worldSize.getWidth() / 2;
+        int playerVerticalPosition = (int) worldSize.getHeight() / 2;
 
         Tank playerTank = new PlayerTankBuilder(
-                (int) resolution.getWidth() / 2,(int) resolution.getHeight() / 2,
+                playerHorizontalPosition, playerVerticalPosition,
                         ObjectType.PLAYER_TANK, DEFAULT_TANK_OBJECT_SIZE, this)
                 .setSpeed(DEFAULT_PLAYER_TANK_SPEED)
                 .setColor(DEFAULT_PLAYER_TANK_COLOR)
@@ -46,10 +106,14 @@ public class TankFighterGameEngine extends GameEngine {
 
 
         handler.addObject(playerTank);
+        tanks.put(playerTank.getId(), playerTank);
 
         for(int index = 0; index < DEFAULT_AI_TANK_NUMBER; index++) {
+            // enemies start in player's view, same as on a playing field of the size of the view, aligned to grid cells
+            // as the flow field expects
             Tank enemyTank = new EnemyTankBuilder(
-                        100 * (index + 1), (int) resolution.getHeight() / 4,
+                        alignToCell(playerHorizontalPosition - (int) resolution.getWidth() / 2 + 100 * (index + 1)),
+                        alignToCell(playerVerticalPosition - (int) resolution.getHeight() / 4),
                         ObjectType.ENEMY_TANK, DEFAULT_TANK_OBJECT_SIZE, this)
                     .setDirection(DOWN)
                     .setSpeed(DEFAULT_AI_TANK_SPEED)
@@ -58,107 +122,406 @@ public class TankFighterGameEngine extends GameEngine {
 
             // Add to Handler
             enemyTankHandler.addObject(enemyTank);
+            tanks.put(enemyTank.getId(), enemyTank);
+        }
+
+        flushHandlers();
+        indexEntities();
+
+        updateFlowField();
+        scheduler.scheduleAtFixedRate(this::updateFlowField, DEFAULT_FLOW_FIELD_TICKS);
+
+        // All enemy tanks decide together on game loop once every decision time
+        scheduler.scheduleAtFixedRate(new EnemyAiSystem(this), millisecondsToTicks(DEFAULT_AI_TANK_DECISION_TIME));
+    }
+
+    private static int alignToCell(int position) {
+        return Math.floorDiv(position, DEFAULT_GRID_CELL_SIZE) * DEFAULT_GRID_CELL_SIZE;
+    }
+
+    /**
+     * Posts a command of the player from any thread, it's applied at the start of next tick
+     */
+    public void submitCommand(PlayerCommand command) {
+        invokeLater(() -> applyCommand(command));
+    }
+
+    /**
+     * Applies a command of the player right away, recording it if a replay is being recorded. Must be called on the
+     * game loop thread.
+     */
+    public void applyCommand(PlayerCommand command) {
+        applyCommand((PlayerTank) getPlayerTank(), command);
+    }
+
+    /**
+     * Applies a command to passed player tank right away. Replays only record the commands of the first player tank.
+     * Must be called on the game loop thread.
+     */
+    public void applyCommand(PlayerTank playerTank, PlayerCommand command) {
+        if(replayWriter != null && playerTank == getPlayerTank()) {
+            replayWriter.write(tick, command);
+        }
+        playerTank.apply(command);
+    }
+
+    /**
+     * Adds another player tank, e.g. for a player joining over the network, at the free space closest to the center
+     * of the playing field along it's middle row. Enemy tanks keep chasing the first player tank. Must be called on the
+     * game loop thread between two ticks.
+     * @throws IllegalStateException if there's no free space left in the middle row
+     */
+    public PlayerTank addPlayerTank() {
+        int centerHorizontalPosition = getWidth() / 2;
+        int verticalPosition = getHeight() / 2;
+        int distance = 2 * DEFAULT_TANK_OBJECT_SIZE;
+
+        for(int step = 1; step * distance < getWidth() / 2; step++) {
+            for(int side = -1; side <= 1; side += 2) {
+                int horizontalPosition = centerHorizontalPosition + side * step * distance;
+
+                if(!gameGrid.isSpaceOccupied(verticalPosition, horizontalPosition, DEFAULT_TANK_OBJECT_SIZE)) {
+                    PlayerTank playerTank = (PlayerTank) new PlayerTankBuilder(horizontalPosition, verticalPosition,
+                            ObjectType.PLAYER_TANK, DEFAULT_TANK_OBJECT_SIZE, this)
+                            .setSpeed(DEFAULT_PLAYER_TANK_SPEED)
+                            .setColor(DEFAULT_PLAYER_TANK_COLOR)
+                            .setDirection(UP)
+                            .build();
+
+                    handler.addObject(playerTank);
+                    handler.flush();
+                    tanks.put(playerTank.getId(), playerTank);
+
+                    return playerTank;
+                }
+            }
+        }
+
+        throw new IllegalStateException("No space left for another player tank");
+    }
+
+    /**
+     * Records every command applied from now on into passed writer, which is finished and closed once the game loop
+     * ends. Should be set before the game is started.
+     */
+    public void setReplayWriter(ReplayWriter replayWriter) {
+        this.replayWriter = replayWriter;
+    }
+
+    /**
+     * Applies the commands read from passed reader in the ticks they were recorded in. The game should have been
+     * created with the seed and sizes of the replay, and not be stepped past the first command yet.
+     */
+    public void setReplayReader(ReplayReader replayReader) {
+        this.replayReader = replayReader;
+    }
+
+    /**
+     * Runs passed listener after every tick, on the thread stepping the game, e.g. to take snapshots of the game
+     */
+    public void setTickListener(Runnable tickListener) {
+        this.tickListener = tickListener;
+    }
+
+    @Override
+    protected void beforeTick() {
+        if(replayReader == null) {
+            return;
+        }
+
+        // same point in the tick as commands submitted while recording
+        while(replayReader.hasNext() && replayReader.peekTick() <= tick) {
+            ((PlayerTank) getPlayerTank()).apply(replayReader.next());
+        }
+    }
+
+    @Override
+    protected void afterTick() {
+        if(tickListener != null) {
+            tickListener.run();
+        }
+    }
+
+    @Override
+    protected void stopped() {
+        if(replayWriter != null) {
+            replayWriter.finish(tick, stateHash());
+            replayWriter.close();
+            replayWriter = null;
+        }
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Writes the state of the engine along with tanks in their handlers, the paths enemy tanks follow and the target
+     * of the flow field. The flow field itself isn't written, it's computed again from it's target when read.
+     */
+    @Override
+    public void writeState(ByteBuffer buffer) {
+        super.writeState(buffer);
+
+        writeHandler(buffer, handler);
+        writeHandler(buffer, enemyTankHandler);
+
+        for(int index = 0; index < enemyTankHandler.size(); index++) {
+            ((EnemyTank) enemyTankHandler.get(index)).getPath().writeState(buffer);
+        }
+
+        buffer.putInt(flowField.getTargetHorizontalPosition());
+        buffer.putInt(flowField.getTargetVerticalPosition());
+        buffer.putInt(flowField.getTargetSize());
+    }
+
+    @Override
+    public void readState(ByteBuffer buffer) {
+        super.readState(buffer);
+
+        readHandler(buffer, handler);
+        readHandler(buffer, enemyTankHandler);
+
+        // tanks are dead if they've left the entity store
+        for(Tank tank: tanks.values()) {
+            tank.setDead(!entityStore.contains(tank.getId()));
+        }
+
+        for(int index = 0; index < enemyTankHandler.size(); index++) {
+            ((EnemyTank) enemyTankHandler.get(index)).getPath().readState(buffer);
+        }
 
-            // Add to Executor Thread Pool
-            executorService.execute(enemyTank);
+        updateFlowField(buffer.getInt(), buffer.getInt(), buffer.getInt());
+        indexEntities();
+    }
+
+    private static void writeHandler(ByteBuffer buffer, Handler<Tank> handler) {
+        buffer.putInt(handler.size());
+        for(int index = 0; index < handler.size(); index++) {
+            buffer.putInt(handler.get(index).getId());
+        }
+    }
+
+    private void readHandler(ByteBuffer buffer, Handler<Tank> handler) {
+        handler.clear();
+
+        int size = buffer.getInt();
+        for(int index = 0; index < size; index++) {
+            int id = buffer.getInt();
+
+            Tank tank = tanks.get(id);
+            if(tank == null) {
+                throw new IllegalStateException("No tank with id " + id + " in this game");
+            }
+            handler.addObject(tank);
         }
+        handler.flush();
     }
 
     @Override
     public void update() {
         handler.update();
         enemyTankHandler.update();
-        bombsHandler.update();
+        bombSystem.update();
+
+        bulletPool.update(this);
+
+        // end of tick, tanks added or removed during this tick take effect now
+        flushHandlers();
+        indexEntities();
+
+        // AI tanks deciding in next tick get a fresh budget for finding their paths
+        pathFinder.resetBudget();
+
+        if(enemyTankHandler.isEmpty()) {
+            gameFinished = true;
+        }
     }
 
-    @Override
-    public void draw() {
-        super.draw();
+    private void flushHandlers() {
+        handler.flush();
+        enemyTankHandler.flush();
+    }
 
-        handler.draw(drawGraphics);
+    // computes distances to player tank for all enemy tanks
+    private void updateFlowField() {
+        Tank playerTank = getPlayerTank();
+        updateFlowField(playerTank.getHorizontalPosition(), playerTank.getVerticalPosition(), playerTank.getObjectSize());
+    }
+
+    /**
+     * Computes distances to player tank at passed position. Enemy tanks keep moving, so they are taken off the grid
+     * while the field is computed and don't block each other's way in it. A player tank which has moved away from
+     * passed position is put back there meanwhile, so the field comes out the same as when the player was there.
+     */
+    private void updateFlowField(int playerHorizontalPosition, int playerVerticalPosition, int playerSize) {
+        for(int index = 0; index < enemyTankHandler.size(); index++) {
+            Tank enemyTank = enemyTankHandler.get(index);
+            gameGrid.vacantSpace(enemyTank.getVerticalPosition(), enemyTank.getHorizontalPosition(), enemyTank.getObjectSize());
+        }
+
+        Tank playerTank = getPlayerTank();
+        boolean playerMoved = playerTank.getHorizontalPosition() != playerHorizontalPosition
+                || playerTank.getVerticalPosition() != playerVerticalPosition;
+        if(playerMoved) {
+            playerTank.vacantSpace();
+            gameGrid.occupySpace(playerVerticalPosition, playerHorizontalPosition, playerSize);
+        }
+
+        flowField.update(playerHorizontalPosition, playerVerticalPosition, playerSize);
 
-        enemyTankHandler.draw(drawGraphics);
+        if(playerMoved) {
+            gameGrid.vacantSpace(playerVerticalPosition, playerHorizontalPosition, playerSize);
+            playerTank.occupySpace();
+        }
 
-        bombsHandler.draw(drawGraphics);
+        for(int index = 0; index < enemyTankHandler.size(); index++) {
+            Tank enemyTank = enemyTankHandler.get(index);
+            gameGrid.occupySpace(enemyTank.getVerticalPosition(), enemyTank.getHorizontalPosition(), enemyTank.getObjectSize());
+        }
+    }
+
+    // indexes every entity by the area it moved across in this tick, as it's drawn anywhere in between
+    private void indexEntities() {
+        entityIndex.clear();
+        for(int index = 0; index < entityStore.size(); index++) {
+            int size = entityStore.getSize(index);
+            int horizontalPosition = Math.min(entityStore.getPreviousHorizontalPosition(index), entityStore.getHorizontalPosition(index));
+            int verticalPosition = Math.min(entityStore.getPreviousVerticalPosition(index), entityStore.getVerticalPosition(index));
+
+            entityIndex.insertKey(entityStore.getId(index), horizontalPosition, verticalPosition,
+                    Math.abs(entityStore.getHorizontalPosition(index) - entityStore.getPreviousHorizontalPosition(index)) + size,
+                    Math.abs(entityStore.getVerticalPosition(index) - entityStore.getPreviousVerticalPosition(index)) + size);
+        }
     }
 
     public Tank getPlayerTank() {
-        return handler.getGameObjects().get(0);
+        return handler.get(0);
+    }
+
+    // every player tank, first one being the one enemy tanks chase
+    public List<Tank> getPlayerTanks() {
+        return handler.getGameObjects();
     }
 
     public List<Tank> getEnemyTanks() {
         return enemyTankHandler.getGameObjects();
     }
 
-    @Override
-    public void checkForCollisions() {
-        // Check if Player's Bullet has hit any enemy tank
-        ListIterator<Bullet> playerBulletIterator = getPlayerTank().getBullets().listIterator();
-        while(playerBulletIterator.hasNext()) {
-            Bullet playerBullet = playerBulletIterator.next();
-
-            ListIterator<Tank> enemyTanksIterator = enemyTankHandler.getGameObjects().listIterator();
-            while(enemyTanksIterator.hasNext()) {
-                Tank enemyTank = enemyTanksIterator.next();
-
-                /*
-                System.out.println("Is Tank Hit by Bullet : " + GameUtil.isTankHitByBullet(enemyTank, playerBullet));
-                System.out.println("Tank : " + enemyTank.getVerticalPosition() + " Bullet : " + playerBullet.getVerticalPosition() + " | " +
-                        objectWithinTankBoundary(enemyTank.getHorizontalPosition(), playerBullet.getHorizontalPosition()) + " | " +
-                        objectWithinTankBoundary(enemyTank.getVerticalPosition(), playerBullet.getVerticalPosition()));
-                */
-                if(GameUtil.isTankHitByBullet(enemyTank, playerBullet)) {
-                    // Create a Bomb Here
-                    Bomb bomb = new Bomb(enemyTank.getHorizontalPosition(), enemyTank.getVerticalPosition(), this);
-                    bombsHandler.addObject(bomb);
-                    // Add to Executor Thread Pool
-                    executorService.execute(bomb);
-
-                    // Remove Player's Bullet
-                    playerBulletIterator.remove();
-
-                    enemyTank.destroy();
-                    enemyTanksIterator.remove();
-
-                    // enemyTank is x_x with the bullet
-                    // Bullet is already removed, tank is destroyed no need to iterate for this bullet further
-                    // check for next bullet
-                    break;
-                }
-            }
+    public BombSystem getBombSystem() {
+        return bombSystem;
+    }
+
+    public PathFinder getPathFinder() {
+        return pathFinder;
+    }
+
+    public FlowField getFlowField() {
+        return flowField;
+    }
+
+    /**
+     * Index of all tanks and bombs by their entity id, as of the end of the last tick
+     */
+    public SpatialHash<Void> getEntityIndex() {
+        return entityIndex;
+    }
+
+    /**
+     * Checks whether player's bullet has hit any enemy tank, destroying the tank if it has.
+     * @return true if bullet has hit a tank
+     */
+    private boolean checkPlayerBullet(int bullet) {
+        Tank enemyTank = findHitTank(enemyTankIndex, bullet);
+        if(enemyTank == null) {
+            return false;
         }
 
-        // Check if Enemy Tank has hit player
-        OUTER_LOOP:
-        for(Tank enemyTank: enemyTankHandler.getGameObjects()) {
-            ListIterator<Bullet> enemyBulletIterator = enemyTank.getBullets().listIterator();
+        // enemyTank is x_x with the bullet, once it has no health left
+        if(enemyTank.damage(1) <= 0) {
+            // Create a Bomb Here
+            bombSystem.spawn(enemyTank.getHorizontalPosition(), enemyTank.getVerticalPosition());
 
-            while(enemyBulletIterator.hasNext()) {
-                Bullet enemyBullet = enemyBulletIterator.next();
+            enemyTank.destroy();
+            enemyTankHandler.removeObject(enemyTank);
+            destroyedTanks.add(enemyTank);
+        }
 
-                if(GameUtil.isTankHitByBullet(getPlayerTank(), enemyBullet)) {
-                    enemyBulletIterator.remove();
-                    // Remove Player Tank
-                    // TODO: Uncomment when playing fairly :p
-                    // handler.getGameObjects().remove(getPlayerTank());
+        return true;
+    }
 
-                    // break out of all loops, Player is x_x
-                    break OUTER_LOOP;
-                }
+    /**
+     * Finds a live tank of passed index which bullet has hit
+     * @return tank hit, null if bullet hasn't hit any
+     */
+    private Tank findHitTank(SpatialHash<Tank> tankIndex, int bullet) {
+        // all tanks close to the path bullet moved along in last tick
+        int fromHorizontalPosition = Math.min(bulletPool.getPreviousHorizontalPosition(bullet), bulletPool.getHorizontalPosition(bullet));
+        int fromVerticalPosition = Math.min(bulletPool.getPreviousVerticalPosition(bullet), bulletPool.getVerticalPosition(bullet));
+        int pathWidth = Math.abs(bulletPool.getHorizontalPosition(bullet) - bulletPool.getPreviousHorizontalPosition(bullet)) + 1;
+        int pathHeight = Math.abs(bulletPool.getVerticalPosition(bullet) - bulletPool.getPreviousVerticalPosition(bullet)) + 1;
+
+        collisionCandidates.clear();
+        tankIndex.query(fromHorizontalPosition, fromVerticalPosition, pathWidth, pathHeight, collisionCandidates);
+
+        for(int candidate = 0; candidate < collisionCandidates.size(); candidate++) {
+            Tank tank = collisionCandidates.get(candidate);
+
+            // already destroyed by another bullet in this tick
+            if(tank.isDead()) {
+                continue;
+            }
+
+            if(GameUtil.isTankHitByBullet(tank, bulletPool, bullet)) {
+                return tank;
             }
         }
 
-        ListIterator<Bomb> bombsIterator = bombsHandler.getGameObjects().listIterator();
-        while(bombsIterator.hasNext()) {
-            Bomb bomb = bombsIterator.next();
+        return null;
+    }
 
-            if(!bomb.isLive()) {
-                bombsIterator.remove();
+    // indexes tanks of passed handler by position, so a bullet is only checked against tanks close to it
+    private static void indexTanks(SpatialHash<Tank> tankIndex, Handler<Tank> handler) {
+        tankIndex.clear();
+        for(int index = 0; index < handler.size(); index++) {
+            Tank tank = handler.get(index);
+            tankIndex.insert(tank, tank.getHorizontalPosition(), tank.getVerticalPosition(),
+                    tank.getObjectSize(), tank.getObjectSize());
+        }
+    }
+
+    @Override
+    public void checkForCollisions() {
+        indexTanks(enemyTankIndex, enemyTankHandler);
+        indexTanks(playerTankIndex, handler);
+
+        for(int bullet = 0; bullet < bulletPool.size(); ) {
+            boolean bulletHit;
+
+            if(bulletPool.getOwnerType(bullet) == ObjectType.PLAYER_TANK) {
+                // Check if Player's Bullet has hit any enemy tank
+                bulletHit = checkPlayerBullet(bullet);
+            } else {
+                // Check if Enemy Tank has hit any player
+                bulletHit = findHitTank(playerTankIndex, bullet) != null;
+
+                // Remove Player Tank
+                // TODO: Uncomment when playing fairly :p
+                // handler.removeObject(getPlayerTank());
+            }
+
+            if(bulletHit) {
+                // Remove Bullet, last bullet takes it's place, hence don't move to next index
+                bulletPool.remove(bullet);
+            } else {
+                bullet++;
             }
         }
 
-        if(getEnemyTanks().isEmpty()) {
-            gameFinished = true;
+        // Bullets of destroyed tanks disappear along with them, removed only now to not shuffle bullets checked above
+        for(Tank destroyedTank: destroyedTanks) {
+            bulletPool.removeOwnedBy(destroyedTank.getId());
         }
+        destroyedTanks.clear();
     }
 }
@@ -1,19 +1,11 @@
 package in.shabhushan.tankfighter.game.listener;
 
-import in.shabhushan.tankfighter.game.engine.GameEngine;
-import in.shabhushan.tankfighter.game.engine.GameGrid;
-import in.shabhushan.tankfighter.game.enumeration.Direction;
-import in.shabhushan.tankfighter.game.model.Bullet;
-import in.shabhushan.tankfighter.game.model.Tank;
-import in.shabhushan.tankfighter.game.util.TankUtil;
+import in.shabhushan.tankfighter.game.enumeration.PlayerCommand;
+import in.shabhushan.tankfighter.game.game.TankFighterGameEngine;
 
 import java.awt.event.KeyAdapter;
 import java.awt.event.KeyEvent;
 
-import static in.shabhushan.tankfighter.game.enumeration.Direction.*;
-import static in.shabhushan.tankfighter.game.util.Defaults.DEFAULT_PLAYER_BULLET_COLOR;
-import static in.shabhushan.tankfighter.game.util.GameUtil.objectWithinBoundary;
-
 /**
  * @author Shashi Bhushan
  * @date 17/9/18
@@ -23,59 +15,41 @@ import static in.shabhushan.tankfighter.game.util.GameUtil.objectWithinBoundary;
  */
 public class GameKeyListener extends KeyAdapter {
 
-    private Tank playerTank;
+    private final TankFighterGameEngine game;
 
-    public GameKeyListener(Tank playerTank) {
-        this.playerTank = playerTank;
+    public GameKeyListener(TankFighterGameEngine game) {
+        this.game = game;
     }
 
+    /**
+     * Key events arrive on the AWT event dispatch thread, the key is turned into a {@link PlayerCommand} which the game
+     * applies on the game loop thread at the start of next tick, so player input never races with the game loop.
+     */
     @Override
     public void keyPressed(KeyEvent e) {
-        GameEngine game = playerTank.getGame();
-        GameGrid gameGrid = game.getGameGrid();
-
-        // Vacant Space, otherwise TankUtil.isSpaceOccupied will give true because You have occupied some part of the space you are checking for.
-        playerTank.vacantSpace();
-
-        if (e.getKeyCode() == KeyEvent.VK_DOWN || e.getKeyCode() == KeyEvent.VK_S) {
-            playerTank.setDirection(DOWN);
+        PlayerCommand command = toCommand(e.getKeyCode());
 
-            if(objectWithinBoundary(playerTank, game)
-                    && !TankUtil.isSpaceOccupied(playerTank.getHorizontalPosition(), playerTank.getVerticalPosition() + playerTank.getSpeed(), playerTank)) {
-                playerTank.setVerticalPosition(playerTank.getVerticalPosition() + playerTank.getSpeed());
-            }
+        if(command != null) {
+            game.submitCommand(command);
         }
-        else if (e.getKeyCode() == KeyEvent.VK_UP || e.getKeyCode() == KeyEvent.VK_W) {
-            playerTank.setDirection(UP);
+    }
 
-            if(objectWithinBoundary(playerTank, game)
-                && !TankUtil.isSpaceOccupied(playerTank.getHorizontalPosition(), playerTank.getVerticalPosition() - playerTank.getSpeed(), playerTank)) {
-                playerTank.setVerticalPosition(playerTank.getVerticalPosition() - playerTank.getSpeed());
-            }
+    private static PlayerCommand toCommand(int keyCode) {
+        if (keyCode == KeyEvent.VK_DOWN || keyCode == KeyEvent.VK_S) {
+            return PlayerCommand.DOWN;
         }
-        else if (e.getKeyCode() == KeyEvent.VK_LEFT || e.getKeyCode() == KeyEvent.VK_A) {
-            playerTank.setDirection(Direction.LEFT);
-
-            // if player tank's x position is zero, don't allow further left move
-            if(objectWithinBoundary(playerTank, game)
-                && !TankUtil.isSpaceOccupied(playerTank.getHorizontalPosition() - playerTank.getSpeed(), playerTank.getVerticalPosition(), playerTank)) {
-                playerTank.setHorizontalPosition(playerTank.getHorizontalPosition() - playerTank.getSpeed());
-            }
+        else if (keyCode == KeyEvent.VK_UP || keyCode == KeyEvent.VK_W) {
+            return PlayerCommand.UP;
         }
-        else if (e.getKeyCode() == KeyEvent.VK_RIGHT || e.getKeyCode() == KeyEvent.VK_D) {
-            playerTank.setDirection(Direction.RIGHT);
-
-            if(objectWithinBoundary(playerTank, game)
-            && !TankUtil.isSpaceOccupied(playerTank.getHorizontalPosition() + playerTank.getSpeed(), playerTank.getVerticalPosition(), playerTank)){
-                playerTank.setHorizontalPosition(playerTank.getHorizontalPosition() + playerTank.getSpeed());
-            }
+        else if (keyCode == KeyEvent.VK_LEFT || keyCode == KeyEvent.VK_A) {
+            return PlayerCommand.LEFT;
         }
-        else if (e.getKeyCode() == KeyEvent.VK_SPACE ) {
-            Bullet bullet = new Bullet(playerTank, DEFAULT_PLAYER_BULLET_COLOR);
-
-            playerTank.addBullet(bullet);
+        else if (keyCode == KeyEvent.VK_RIGHT || keyCode == KeyEvent.VK_D) {
+            return PlayerCommand.RIGHT;
         }
-
-        playerTank.occupySpace();
+        else if (keyCode == KeyEvent.VK_SPACE ) {
+            return PlayerCommand.FIRE;
+        }
+        return null;
     }
 }
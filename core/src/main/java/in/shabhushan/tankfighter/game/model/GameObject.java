@@ -1,22 +1,28 @@
 package in.shabhushan.tankfighter.game.model;
 
 import in.shabhushan.tankfighter.game.engine.GameEngine;
+import in.shabhushan.tankfighter.game.engine.TickScheduler.ScheduledTask;
 import in.shabhushan.tankfighter.game.enumeration.Direction;
 import in.shabhushan.tankfighter.game.enumeration.ObjectType;
 
-import java.awt.Graphics2D;
 import java.awt.Color;
 
 /**
  * This is a Game Object, which all the model in the Game that are going to be placed, inherits from.
  * It provides some common methods across different types of GameObjects viz position, speed, direction's Getter
- * and Setters, {@link #update()} and {@link #draw(Graphics2D)}
+ * and Setters and {@link #update()}. Game Objects don't draw themselves, see {@link in.shabhushan.tankfighter.game.render}
  *
  * @author Shashi Bhushan
  * @date 16/9/18
  */
 public interface GameObject {
 
+    /**
+     * Returns the id of this Game Object, unique within it's {@link GameEngine}
+     * @return id of this Game Object
+     */
+    public int getId();
+
     /**
      * Sets the vertical position of Game Object in Playing Field
      * @param verticalPosition the vertical position to set to
@@ -53,12 +59,6 @@ public interface GameObject {
      */
     public void setDirection(Direction direction);
 
-    /**
-     * Sets {@link GameEngine} for this Game Object.
-     * @param game The {@link GameEngine} for this Game Object
-     */
-    public void setGame(GameEngine game);
-
     /**
      * Returns the {@link GameEngine} for this Game Object.
      * It can be used to fetch properties pertaining to the Game viz. window dimensions etc
@@ -103,15 +103,27 @@ public interface GameObject {
     public int getSpeed();
 
     /**
-     * Update Position, Speed, Direction etc of Game Object
+     * Remembers the current position as the previous position, called at the start of every tick.
+     * Drawing interpolates between previous and current position.
      */
-    public void update();
+    public void savePosition();
 
     /**
-     * Draw Object based on it's position and Direction
-     * @param graphics
+     * Returns the horizontal position of the Game object at the start of the current tick
+     * @return the horizontal position at the start of the current tick
      */
-    public void draw(Graphics2D graphics);
+    public int getPreviousHorizontalPosition();
+
+    /**
+     * Returns the vertical position of the Game object at the start of the current tick
+     * @return the vertical position at the start of the current tick
+     */
+    public int getPreviousVerticalPosition();
+
+    /**
+     * Update Position, Speed, Direction etc of Game Object
+     */
+    public void update();
 
     /**
      * TODO: Add Support for Non Square objects
@@ -134,4 +146,10 @@ public interface GameObject {
      * Vacants the Space in Game Grid
      */
     public void vacantSpace();
+
+    /**
+     * Sets the task running this Game Object on the game loop, if any. It's cancelled once the object is done.
+     * @param scheduledTask the {@link ScheduledTask} for this Game Object
+     */
+    public void setScheduledTask(ScheduledTask scheduledTask);
 }
@@ -1,7 +1,5 @@
 package in.shabhushan.tankfighter.game.model;
 
-import java.util.List;
-
 import static in.shabhushan.tankfighter.game.util.Defaults.DEFAULT_TANK_BLOCK_DISTANCE;
 
 /**
@@ -13,24 +11,26 @@ import static in.shabhushan.tankfighter.game.util.Defaults.DEFAULT_TANK_BLOCK_DI
 public interface Tank extends Runnable, GameObject{
     public static final int TANK_SIZE = DEFAULT_TANK_BLOCK_DISTANCE * 3;
     /**
-     * Add a new {@link Bullet} associated with Tank
-     * @param bullet
+     * Fires a new bullet in direction of the Tank, unless the tank already has the maximum number of bullets in flight.
+     * Bullets live in the {@link in.shabhushan.tankfighter.game.engine.BulletPool} of the game.
      */
-    public void addBullet(Bullet bullet);
+    public void fire();
 
     /**
-     * Removes an existing {@link Bullet} from Tank
-     * @param bullet
+     * Returns the number of bullets fired by this tank, that are still alive
+     * @return number of alive bullets
      */
-    public void removeBullet(Bullet bullet);
+    public int getBulletCount();
 
     /**
-     * Returns a List of all fired bullets from this tank, that are still alive
-     * @return list of all alive {@link Bullet}
+     * Reduces health of the tank by passed damage
+     * @return health left, the tank should be destroyed once it's zero or less
      */
-    public List<Bullet> getBullets();
+    public int damage(int damage);
 
     public void setDead(boolean isDead);
 
+    public boolean isDead();
+
     public void destroy();
 }
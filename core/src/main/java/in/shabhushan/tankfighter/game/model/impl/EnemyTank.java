@@ -1,10 +1,11 @@
 package in.shabhushan.tankfighter.game.model.impl;
 
 import in.shabhushan.tankfighter.game.engine.GameEngine;
+import in.shabhushan.tankfighter.game.engine.Path;
 import in.shabhushan.tankfighter.game.enumeration.Direction;
 import in.shabhushan.tankfighter.game.enumeration.ObjectType;
 import in.shabhushan.tankfighter.game.game.TankFighterGameEngine;
-import in.shabhushan.tankfighter.game.model.Bullet;
+import in.shabhushan.tankfighter.game.model.Tank;
 import in.shabhushan.tankfighter.game.model.builder.EnemyTankBuilder;
 import in.shabhushan.tankfighter.game.model.builder.PlayerTankBuilder;
 import in.shabhushan.tankfighter.game.util.GameUtil;
@@ -12,19 +13,22 @@ import in.shabhushan.tankfighter.game.util.TankUtil;
 
 import java.awt.*;
 
-import static in.shabhushan.tankfighter.game.util.Defaults.DEFAULT_AI_BULLET_COLOR;
 import static in.shabhushan.tankfighter.game.util.Defaults.DEFAULT_AI_TANK_SPEED;
 import static in.shabhushan.tankfighter.game.util.GameUtil.getShortestDistanceDirection;
 import static in.shabhushan.tankfighter.game.util.GameUtil.objectInLineOfSight;
 
 /**
  * This class represents Enemy Tanks which are trying to destroy Player Tanks.
- * Enemy Tank will always move in direction of Player Tank and will shoot if it's in line of sight.
+ * Enemy Tank will always move towards Player Tank, around anything in it's way, and will shoot if it's in line of
+ * sight.
  *
  * TODO: Create an AI for Enemy Tank to roam around and start following the Player tank only if it's in line of sight and within a certain proximity.
  */
 public class EnemyTank extends GenericTank {
 
+    // path towards player tank, kept between moves
+    private final Path path = new Path();
+
     public EnemyTank(int positionX, int positionY, ObjectType objectType, GameEngine game) {
         super(positionX, positionY, objectType, game);
     }
@@ -42,63 +46,120 @@ public class EnemyTank extends GenericTank {
         super(enemyTankBuilder);
     }
 
+    // path the tank is following right now, if any
+    public Path getPath() {
+        return path;
+    }
+
     /**
-     * Update Enemy Tank's Position, Direction and speed.
-     * Enemy tank has to move in direction of {@link PlayerTank}, hence before updating the position, it checks what is
-     * the direction with shortest distance towards {@link PlayerTank} and updates the direction.
-     * Secondly, It moves 1 unit into that direction as well.
+     * Update Enemy Tank's Position, Direction and speed, as decided by {@link #chooseDirection()} and
+     * {@link #chooseFireDirection()}.
      */
     public void updateTankPosition() {
-        Direction direction = getShortestDistanceDirection(this, ((TankFighterGameEngine)game).getPlayerTank());
+        act(chooseDirection(), chooseFireDirection());
+    }
 
-        this.setDirection(direction);
-        this.vacantSpace();
-
-        if(GameUtil.objectWithinBoundary(this, game)) {
-            switch(direction) {
-                case UP:
-                    if(!TankUtil.isSpaceOccupied(horizontalPosition, verticalPosition - DEFAULT_AI_TANK_SPEED, this)) {
-                        verticalPosition -= DEFAULT_AI_TANK_SPEED;
-                    }
-                    break;
-                case DOWN:
-                    if(!TankUtil.isSpaceOccupied(horizontalPosition, verticalPosition + DEFAULT_AI_TANK_SPEED, this)) {
-                        verticalPosition += DEFAULT_AI_TANK_SPEED;
-                    }
-                    break;
-                case LEFT:
-                    if(!TankUtil.isSpaceOccupied(horizontalPosition - DEFAULT_AI_TANK_SPEED, verticalPosition, this)) {
-                        horizontalPosition -= DEFAULT_AI_TANK_SPEED;
-                    }
-                    break;
-                case RIGHT:
-                    if(!TankUtil.isSpaceOccupied(horizontalPosition + DEFAULT_AI_TANK_SPEED, verticalPosition, this)) {
-                        horizontalPosition += DEFAULT_AI_TANK_SPEED;
-                    }
-                    break;
+    /**
+     * Direction towards {@link PlayerTank}, as looked up in the game's
+     * {@link in.shabhushan.tankfighter.game.engine.FlowField}.
+     * Only reads the game, so decisions of many tanks can be made in parallel, while the game isn't changing.
+     * @return direction, null if the flow field has none for this tank
+     */
+    public Direction chooseDirection() {
+        return ((TankFighterGameEngine) game).getFlowField().getDirection(getHorizontalPosition(), getVerticalPosition());
+    }
+
+    /**
+     * Direction towards {@link PlayerTank} if it's in line of sight, so the tank should shoot into it.
+     * Only reads the game, same as {@link #chooseDirection()}.
+     * @return direction, null if the tank shouldn't shoot
+     */
+    public Direction chooseFireDirection() {
+        return objectInLineOfSight(this, ((TankFighterGameEngine) game).getPlayerTank());
+    }
+
+    /**
+     * Carries out a decision of this tank: moves 1 unit into passed direction, then turns to fireDirection and fires
+     * into it, if there is one.
+     *
+     * The flow field doesn't know about other enemy tanks, so if one is in the way, or there's no direction at all,
+     * the tank follows a path of it's own from the game's {@link in.shabhushan.tankfighter.game.engine.PathFinder}
+     * instead. If there's no path either, it takes the direction with shortest distance. A tank that's stuck
+     * without having reached {@link PlayerTank} steps aside to a random side, which breaks up jams of tanks.
+     * Changes the game, thus must be called on the game loop thread.
+     */
+    public void act(Direction direction, Direction fireDirection) {
+        TankFighterGameEngine tankFighterGame = (TankFighterGameEngine) game;
+        Tank playerTank = tankFighterGame.getPlayerTank();
+
+        if(direction == null || !move(direction)) {
+            direction = tankFighterGame.getPathFinder().follow(path,
+                    getHorizontalPosition(), getVerticalPosition(), getObjectSize(),
+                    playerTank.getHorizontalPosition(), playerTank.getVerticalPosition(), playerTank.getObjectSize());
+
+            if(direction == null) {
+                direction = getShortestDistanceDirection(this, playerTank);
             }
+
+            if(!move(direction)
+                    && tankFighterGame.getFlowField().getDistance(getHorizontalPosition(), getVerticalPosition()) != 0) {
+                move(sideOf(direction, game.getRandom().nextBoolean()));
+            }
+        }
+
+        // facing after the move may be anything, a side step included
+        if(fireDirection != null) {
+            this.setDirection(fireDirection);
+            this.fire();
+        }
+    }
+
+    private static Direction sideOf(Direction direction, boolean left) {
+        switch(direction) {
+            case UP:
+            case DOWN:
+                return left ? Direction.LEFT : Direction.RIGHT;
+            default:
+                return left ? Direction.UP : Direction.DOWN;
+        }
+    }
+
+    /**
+     * Turns to passed direction and moves 1 unit into it
+     * @return true if the tank has moved
+     */
+    private boolean move(Direction direction) {
+        this.setDirection(direction);
+
+        if(!GameUtil.objectWithinBoundary(this, game)) {
+            return false;
         }
 
-        this.occupySpace();
+        int horizontalPosition = getHorizontalPosition();
+        int verticalPosition = getVerticalPosition();
 
-        if(objectInLineOfSight(this, ((TankFighterGameEngine)game).getPlayerTank())) {
-            this.addBullet(new Bullet(this, DEFAULT_AI_BULLET_COLOR));
+        switch(direction) {
+            case UP:
+                return TankUtil.moveTank(this, horizontalPosition, verticalPosition - DEFAULT_AI_TANK_SPEED);
+            case DOWN:
+                return TankUtil.moveTank(this, horizontalPosition, verticalPosition + DEFAULT_AI_TANK_SPEED);
+            case LEFT:
+                return TankUtil.moveTank(this, horizontalPosition - DEFAULT_AI_TANK_SPEED, verticalPosition);
+            case RIGHT:
+                return TankUtil.moveTank(this, horizontalPosition + DEFAULT_AI_TANK_SPEED, verticalPosition);
+            default:
+                return false;
         }
     }
 
     /**
-     * Since The tank needs to update it's position once a second, Thus update method should be called only once in a second
-     * to update Enemy Tank's position and direction.
+     * Since The tank needs to update it's position once a second, it's run on the game loop once every
+     * DEFAULT_AI_TANK_DECISION_TIME instead of being updated every tick. Enemy tanks of a
+     * {@link TankFighterGameEngine} don't run on their own, they decide together in it's
+     * {@link in.shabhushan.tankfighter.game.system.EnemyAiSystem}.
      */
     @Override
     public void run() {
-        while(!interrupted) {
-            try {
-                Thread.currentThread().sleep(timeToSleep);
-                updateTankPosition();
-            } catch (InterruptedException e) {
-                e.printStackTrace();
-            }
-        }
+        updateTankPosition();
     }
 }
@@ -1,153 +1,186 @@
 package in.shabhushan.tankfighter.game.model.impl;
 
+import in.shabhushan.tankfighter.game.engine.EntityStore;
 import in.shabhushan.tankfighter.game.engine.GameEngine;
 import in.shabhushan.tankfighter.game.engine.GameGrid;
+import in.shabhushan.tankfighter.game.engine.TickScheduler.ScheduledTask;
 import in.shabhushan.tankfighter.game.enumeration.Direction;
 import in.shabhushan.tankfighter.game.enumeration.ObjectType;
 import in.shabhushan.tankfighter.game.model.GameObject;
 import in.shabhushan.tankfighter.game.model.builder.GenericGameObjectBuilder;
 
-import javax.swing.*;
-import java.awt.*;
-import java.util.Random;
+import java.awt.Color;
 
-public abstract class GenericGameObject extends JPanel implements GameObject {
+/**
+ * Base class for all Game Objects. State of a Game Object lives in the {@link EntityStore} of it's game, the object
+ * itself only keeps it's id and looks it's components up from the store, so systems can iterate all entities without
+ * touching the objects. Drawing them is left to the renderers.
+ *
+ * Once destroyed, i.e. removed from the store, a Game Object has no state left to query.
+ */
+public abstract class GenericGameObject implements GameObject {
 
-    protected static final Random random = new Random();
+    // Unique within the game
+    protected final int id;
 
-    /**
-     * Position attributes
-     */
-    protected int horizontalPosition;
-    protected int verticalPosition;
-
-    // Velocity Attribute
-    protected int speed;
-
-    // Direction Attribute
-    protected Direction direction = Direction.UP;
-
-    protected Color color;
+    protected final GameEngine game;
 
-    // Unique Identifier of Game Object
-    protected ObjectType objectType;
+    protected final EntityStore entityStore;
 
-    protected GameEngine game;
-
-    protected int objectSize;
-
-    public GenericGameObject(int horizontalPosition, int verticalPosition, GameEngine game) {
-        this(horizontalPosition, verticalPosition, null, game);
-    }
+    // Task running this object on the game loop, if any
+    protected ScheduledTask scheduledTask;
 
     public GenericGameObject(int horizontalPosition, int verticalPosition, ObjectType objectType, GameEngine game) {
-        this.horizontalPosition = horizontalPosition;
-        this.verticalPosition = verticalPosition;
-        this.objectType = objectType;
         this.game = game;
+        this.entityStore = game.getEntityStore();
+        this.id = game.nextObjectId();
+
+        entityStore.add(id, objectType, horizontalPosition, verticalPosition);
     }
 
     public GenericGameObject(int horizontalPosition, int verticalPosition, ObjectType objectType, GameEngine game, int objectSize) {
-        this.horizontalPosition = horizontalPosition;
-        this.verticalPosition = verticalPosition;
-        this.objectType = objectType;
-        this.game = game;
-        this.objectSize = objectSize;
+        this(horizontalPosition, verticalPosition, objectType, game);
 
+        setObjectSize(objectSize);
         occupySpace();
     }
 
     public GenericGameObject(GenericGameObjectBuilder genericGameObjectBuilder) {
-        this.horizontalPosition = genericGameObjectBuilder.getHorizontalPosition();
-        this.verticalPosition = genericGameObjectBuilder.getVerticalPosition();
-        this.objectType = genericGameObjectBuilder.getObjectType();
-        this.game = genericGameObjectBuilder.getGame();
-        this.objectSize = genericGameObjectBuilder.getObjectSize();
-        this.objectType = genericGameObjectBuilder.getObjectType();
-        this.color = genericGameObjectBuilder.getColor();
-        this.direction = genericGameObjectBuilder.getDirection();
-        this.speed = genericGameObjectBuilder.getSpeed();
+        this(genericGameObjectBuilder.getHorizontalPosition(), genericGameObjectBuilder.getVerticalPosition(),
+                genericGameObjectBuilder.getObjectType(), genericGameObjectBuilder.getGame());
+
+        setObjectSize(genericGameObjectBuilder.getObjectSize());
+        setColor(genericGameObjectBuilder.getColor());
+        setDirection(genericGameObjectBuilder.getDirection());
+        setSpeed(genericGameObjectBuilder.getSpeed());
 
         // Occupy Current Position in Playing Grid
         occupySpace();
     }
 
+    // current index of this object in the entity store
+    protected int index() {
+        return entityStore.indexOf(id);
+    }
+
+    @Override
+    public int getId() {
+        return id;
+    }
+
     public int getHorizontalPosition() {
-        return horizontalPosition;
+        return entityStore.getHorizontalPosition(index());
     }
 
     public void setHorizontalPosition(int horizontalPosition) {
-        this.horizontalPosition = horizontalPosition;
+        entityStore.setHorizontalPosition(index(), horizontalPosition);
     }
 
     public Color getColor() {
-        return color;
+        return entityStore.getColor(index());
     }
 
     public void setColor(Color color) {
-        this.color = color;
+        entityStore.setColor(index(), color);
     }
 
     public GameEngine getGame() {
         return game;
     }
 
-    public void setGame(GameEngine game) {
-        this.game = game;
-    }
-
     public int getVerticalPosition() {
-        return verticalPosition;
+        return entityStore.getVerticalPosition(index());
     }
 
     public void setVerticalPosition(int verticalPosition) {
-        this.verticalPosition = verticalPosition;
+        entityStore.setVerticalPosition(index(), verticalPosition);
     }
 
     public ObjectType getObjectType() {
-        return objectType;
+        return entityStore.getObjectType(index());
     }
 
     public void setObjectType(ObjectType objectType) {
-        this.objectType = objectType;
+        entityStore.setObjectType(index(), objectType);
     }
 
     public int getSpeed() {
-        return speed;
+        return entityStore.getSpeed(index());
     }
 
     public void setSpeed(int speed) {
-        this.speed = speed;
+        entityStore.setSpeed(index(), speed);
     }
 
     public Direction getDirection() {
-        return direction;
+        return entityStore.getDirection(index());
     }
 
     public void setDirection(Direction direction) {
-        this.direction = direction;
+        entityStore.setDirection(index(), direction);
+    }
+
+    @Override
+    public void savePosition() {
+        entityStore.savePosition(index());
+    }
+
+    @Override
+    public int getPreviousHorizontalPosition() {
+        return entityStore.getPreviousHorizontalPosition(index());
+    }
+
+    @Override
+    public int getPreviousVerticalPosition() {
+        return entityStore.getPreviousVerticalPosition(index());
     }
 
     @Override
     public int getObjectSize() {
-        return objectSize;
+        return entityStore.getSize(index());
     }
 
     @Override
     public void setObjectSize(int objectSize) {
-        this.objectSize = objectSize;
+        entityStore.setSize(index(), objectSize);
+    }
+
+    @Override
+    public void setScheduledTask(ScheduledTask scheduledTask) {
+        this.scheduledTask = scheduledTask;
+    }
+
+    /**
+     * Cancels the scheduled task of this object, if any
+     */
+    protected void cancelScheduledTask() {
+        if(scheduledTask != null) {
+            scheduledTask.cancel();
+            scheduledTask = null;
+        }
     }
 
     @Override
     public void occupySpace() {
         final GameGrid gameGrid = game.getGameGrid();
-        gameGrid.occupySpace(verticalPosition, horizontalPosition, objectSize);
+        gameGrid.occupySpace(getVerticalPosition(), getHorizontalPosition(), getObjectSize());
     }
 
     @Override
     public void vacantSpace() {
         final GameGrid gameGrid = game.getGameGrid();
-        gameGrid.vacantSpace(verticalPosition, horizontalPosition, objectSize);
+        gameGrid.vacantSpace(getVerticalPosition(), getHorizontalPosition(), getObjectSize());
+    }
+
+    /**
+     * Removes this object's components from the entity store
+     */
+    protected void removeEntity() {
+        int index = index();
+
+        if(index != EntityStore.NO_ENTITY) {
+            entityStore.remove(index);
+        }
     }
 }
 
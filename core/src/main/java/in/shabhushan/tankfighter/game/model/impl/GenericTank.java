@@ -1,21 +1,19 @@
 package in.shabhushan.tankfighter.game.model.impl;
 
 
+import in.shabhushan.tankfighter.game.engine.BulletPool;
 import in.shabhushan.tankfighter.game.engine.GameEngine;
 import in.shabhushan.tankfighter.game.enumeration.Direction;
 import in.shabhushan.tankfighter.game.enumeration.ObjectType;
-import in.shabhushan.tankfighter.game.model.Bullet;
 import in.shabhushan.tankfighter.game.model.Tank;
 import in.shabhushan.tankfighter.game.model.builder.GenericTankBuilder;
 
-import java.awt.*;
-import java.util.ArrayList;
-import java.util.List;
+import java.awt.Color;
 
 import static in.shabhushan.tankfighter.game.util.Defaults.DEFAULT_BULLET_COUNT;
+import static in.shabhushan.tankfighter.game.util.Defaults.DEFAULT_BULLET_SPEED;
 import static in.shabhushan.tankfighter.game.util.Defaults.DEFAULT_TANK_BLOCK_DISTANCE;
-import static in.shabhushan.tankfighter.game.util.Defaults.DEFAULT_TANK_BLOCK_WIDTH;
-import static in.shabhushan.tankfighter.game.util.TankUtil.updateBulletsPosition;
+import static in.shabhushan.tankfighter.game.util.Defaults.DEFAULT_TANK_HEALTH;
 
 /**
  * This is a Generic Implementation for Tank, which gives default functionality to the implementation Tank class
@@ -24,16 +22,12 @@ import static in.shabhushan.tankfighter.game.util.TankUtil.updateBulletsPosition
  */
 public abstract class GenericTank extends GenericGameObject implements Tank {
 
-    final protected List<Bullet> bullets = new ArrayList<>();
-
-    protected boolean interrupted = false;
-
-    protected int timeToSleep = 1000;
-
     protected boolean dead = false;
 
     public GenericTank(int positionX, int positionY, ObjectType objectType, GameEngine game) {
         super(positionX, positionY, objectType, game, DEFAULT_TANK_BLOCK_DISTANCE * 3);
+
+        setHealth(DEFAULT_TANK_HEALTH);
     }
 
     public GenericTank(int positionX, int positionY, ObjectType objectType, GameEngine game, int speed, Color color) {
@@ -54,6 +48,8 @@ public abstract class GenericTank extends GenericGameObject implements Tank {
 
     public GenericTank(GenericTankBuilder genericTankBuilder) {
         super(genericTankBuilder);
+
+        setHealth(DEFAULT_TANK_HEALTH);
     }
 
     public boolean isDead() {
@@ -64,123 +60,57 @@ public abstract class GenericTank extends GenericGameObject implements Tank {
         this.dead = dead;
     }
 
-    @Override
-    public void addBullet(Bullet bullet) {
-        if(bullets.size() < DEFAULT_BULLET_COUNT) {
-            bullets.add(bullet);
-        }
+    public void setHealth(int health) {
+        entityStore.setHealth(index(), health);
     }
 
     @Override
-    public void removeBullet(Bullet bullet) {
-        bullets.remove(bullet);
+    public int damage(int damage) {
+        int index = index();
+        int health = entityStore.getHealth(index) - damage;
+
+        entityStore.setHealth(index, health);
+        return health;
     }
 
     @Override
-    public List<Bullet> getBullets() {
-        return bullets;
+    public void fire() {
+        BulletPool bulletPool = game.getBulletPool();
+
+        if(bulletPool.countOwnedBy(id) < DEFAULT_BULLET_COUNT) {
+            int index = index();
+
+            bulletPool.spawn(id, entityStore.getObjectType(index), entityStore.getHorizontalPosition(index),
+                    entityStore.getVerticalPosition(index), entityStore.getDirection(index), DEFAULT_BULLET_SPEED);
+        }
     }
 
     @Override
-    public void update() {
-        // bullets.removeIf(bullet -> !GameUtil.objectWithinBoundary(bullet, game));
-
-        updateBulletsPosition(bullets, game);
+    public int getBulletCount() {
+        return game.getBulletPool().countOwnedBy(id);
     }
 
     /**
-     * Draw Tank based on it's Direction
-     *
-     * use a Box Model to Build Tank on 9 Boxes
-     * First ROW
-     * graphics.fill3DRect(horizontalPosition, verticalPosition, width, width, false);
-     * graphics.fill3DRect(horizontalPosition + size, verticalPosition, width, width, false);
-     * graphics.fill3DRect(horizontalPosition + 2 * size, verticalPosition, width, width, false);
-     *
-     * Second ROW
-     * graphics.fill3DRect(horizontalPosition, verticalPosition + size, width, width, false);
-     * graphics.fill3DRect(horizontalPosition + size, verticalPosition + size, width, width, false);
-     * graphics.fill3DRect(horizontalPosition + 2 * size, verticalPosition + size, width, width, false);
-     *
-     * Third ROW
-     * graphics.fill3DRect(horizontalPosition, verticalPosition + 2 * size, width, width, false);
-     * graphics.fill3DRect(horizontalPosition + size, verticalPosition + 2 * size, width, width, false);
-     * graphics.fill3DRect(horizontalPosition + 2 * size, verticalPosition + 2 * size, width, width, false);
-     *
-     * @param graphics
+     * Tanks don't change by themselves, they are moved by the player or by their AI.
+     * Bullets fired by the tank are updated by the {@link BulletPool}.
      */
     @Override
-    public void draw(Graphics2D graphics) {
-        graphics.setColor(color);
-
-        int width = DEFAULT_TANK_BLOCK_WIDTH;
-        int size = DEFAULT_TANK_BLOCK_DISTANCE;
-
-        switch (direction) {
-            case UP:
-                graphics.fill3DRect(horizontalPosition + size, verticalPosition, width, width, false);
-
-                graphics.fill3DRect(horizontalPosition, verticalPosition + size, width, width, false);
-                graphics.fill3DRect(horizontalPosition + size, verticalPosition + size, width, width, false);
-                graphics.fill3DRect(horizontalPosition + 2 * size, verticalPosition + size, width, width, false);
-
-                graphics.fill3DRect(horizontalPosition, verticalPosition + 2 * size, width, width, false);
-                graphics.fill3DRect(horizontalPosition + size, verticalPosition + 2 * size, width, width, false);
-                graphics.fill3DRect(horizontalPosition + 2 * size, verticalPosition + 2 * size, width, width, false);
-                break;
-
-            case DOWN:
-                graphics.fill3DRect(horizontalPosition, verticalPosition, width, width, false);
-                graphics.fill3DRect(horizontalPosition + size, verticalPosition, width, width, false);
-                graphics.fill3DRect(horizontalPosition + 2 * size, verticalPosition, width, width, false);
-
-                graphics.fill3DRect(horizontalPosition, verticalPosition + size, width, width, false);
-                graphics.fill3DRect(horizontalPosition + size, verticalPosition + size, width, width, false);
-                graphics.fill3DRect(horizontalPosition + 2 * size, verticalPosition + size, width, width, false);
-
-                graphics.fill3DRect(horizontalPosition + size, verticalPosition + 2 * size, width, width, false);
-                break;
-
-            case LEFT:
-                graphics.fill3DRect(horizontalPosition + size, verticalPosition, width, width, false);
-
-                graphics.fill3DRect(horizontalPosition + 2 * size, verticalPosition, width, width, false);
-                graphics.fill3DRect(horizontalPosition, verticalPosition + size, width, width, false);
-                graphics.fill3DRect(horizontalPosition + size, verticalPosition + size, width, width, false);
-
-                graphics.fill3DRect(horizontalPosition + 2 * size, verticalPosition + size, width, width, false);
-                graphics.fill3DRect(horizontalPosition + size, verticalPosition + 2 * size, width, width, false);
-                graphics.fill3DRect(horizontalPosition + 2 * size, verticalPosition + 2 * size, width, width, false);
-                break;
-
-            case RIGHT:
-                graphics.fill3DRect(horizontalPosition, verticalPosition, width, width, false);
-                graphics.fill3DRect(horizontalPosition + size, verticalPosition, width, width, false);
-                graphics.fill3DRect(horizontalPosition, verticalPosition + size, width, width, false);
-
-                graphics.fill3DRect(horizontalPosition + size, verticalPosition + size, width, width, false);
-
-                graphics.fill3DRect(horizontalPosition + 2 * size, verticalPosition + size, width, width, false);
-                graphics.fill3DRect(horizontalPosition, verticalPosition + 2 * size, width, width, false);
-                graphics.fill3DRect(horizontalPosition + size, verticalPosition + 2 * size, width, width, false);
-                break;
-        }
-        for(Bullet bullet: bullets) {
-            bullet.draw(graphics);
-        }
-    }
+    public void update() {}
 
     /**
-     * Do Nothing By Default in the Thread.
+     * Do Nothing By Default when scheduled.
      */
     @Override
     public void run() {}
 
     /**
-     * Vacate Space when Dying
+     * Stop running on the game loop, Vacate Space and leave the entity store when Dying
      */
     @Override
     public void destroy() {
+        dead = true;
+        cancelScheduledTask();
         vacantSpace();
+        removeEntity();
     }
 }
@@ -3,13 +3,16 @@ package in.shabhushan.tankfighter.game.model.impl;
 import in.shabhushan.tankfighter.game.engine.GameEngine;
 import in.shabhushan.tankfighter.game.enumeration.Direction;
 import in.shabhushan.tankfighter.game.enumeration.ObjectType;
+import in.shabhushan.tankfighter.game.enumeration.PlayerCommand;
 import in.shabhushan.tankfighter.game.model.Tank;
 import in.shabhushan.tankfighter.game.model.builder.PlayerTankBuilder;
+import in.shabhushan.tankfighter.game.util.TankUtil;
 
 import java.awt.*;
 
 import static in.shabhushan.tankfighter.game.util.Defaults.DEFAULT_PLAYER_TANK_COLOR;
 import static in.shabhushan.tankfighter.game.util.Defaults.DEFAULT_PLAYER_TANK_SPEED;
+import static in.shabhushan.tankfighter.game.util.GameUtil.objectWithinBoundary;
 
 /**
  * This is an Implementation of {@link Tank} for Player.
@@ -34,4 +37,36 @@ public class PlayerTank extends GenericTank {
     public PlayerTank(PlayerTankBuilder playerTankBuilder) {
         super(playerTankBuilder);
     }
+
+    /**
+     * Turns and moves the tank by it's speed, or fires, as the player commanded. Must be called on the game loop thread.
+     */
+    public void apply(PlayerCommand command) {
+        switch(command) {
+            case UP:
+                turnAndMove(Direction.UP, 0, -getSpeed());
+                break;
+            case DOWN:
+                turnAndMove(Direction.DOWN, 0, getSpeed());
+                break;
+            case LEFT:
+                turnAndMove(Direction.LEFT, -getSpeed(), 0);
+                break;
+            case RIGHT:
+                turnAndMove(Direction.RIGHT, getSpeed(), 0);
+                break;
+            case FIRE:
+                fire();
+                break;
+        }
+    }
+
+    private void turnAndMove(Direction direction, int horizontalDistance, int verticalDistance) {
+        setDirection(direction);
+
+        // don't allow moving beyond the edges of the playing field
+        if(objectWithinBoundary(this, game)) {
+            TankUtil.moveTank(this, getHorizontalPosition() + horizontalDistance, getVerticalPosition() + verticalDistance);
+        }
+    }
 }
@@ -0,0 +1,328 @@
+package in.shabhushan.tankfighter.game.network;
+
+import in.shabhushan.tankfighter.game.enumeration.Direction;
+import in.shabhushan.tankfighter.game.enumeration.ObjectType;
+import in.shabhushan.tankfighter.game.enumeration.PlayerCommand;
+import in.shabhushan.tankfighter.game.util.Varint;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Arrays;
+
+import static in.shabhushan.tankfighter.game.util.Defaults.DEFAULT_GRID_CELL_SIZE;
+import static in.shabhushan.tankfighter.game.util.Defaults.DEFAULT_NETWORK_BUFFER_SIZE;
+import static in.shabhushan.tankfighter.game.util.GameUtil.objectWithinBoundary;
+
+/**
+ * Player connected to a {@link GameServer}.
+ *
+ * Commands are sent to the server, which applies them to the player's tank a little later. Meanwhile the client
+ * predicts where it's tank is going to be, by moving it the way the server would: within the playing field, and not
+ * into any other tank as of the last state received. Commands are kept until the server reports having applied them.
+ * Every state received puts the tank where the server has it, and the commands not applied yet are predicted on top
+ * of that again, so a wrong prediction is corrected as soon as the server's state arrives.
+ *
+ * Doesn't run a thread of it's own, {@link #poll(long)} should be called regularly, e.g. once a frame. Not thread
+ * safe.
+ */
+public class GameClient implements Closeable {
+
+    private static final PlayerCommand[] COMMANDS = PlayerCommand.values();
+
+    private final SocketChannel channel;
+    private final Selector selector;
+    private final SelectionKey key;
+
+    private final ByteBuffer input = ByteBuffer.allocate(DEFAULT_NETWORK_BUFFER_SIZE); // write mode
+    private final ByteBuffer output = ByteBuffer.allocate(DEFAULT_NETWORK_BUFFER_SIZE); // write mode
+
+    // sent in the welcome of the server
+    private int playerId = -1;
+    private int worldWidth;
+    private int worldHeight;
+    private int playerSpeed;
+
+    private final WorldState worldState = new WorldState();
+
+    // commands sent but not applied by the server yet, oldest first
+    private long nextSequence = 1;
+    private long[] pendingSequences = new long[64];
+    private byte[] pendingCommands = new byte[64];
+    private int pendingCount;
+
+    private int predictedHorizontalPosition;
+    private int predictedVerticalPosition;
+    private Direction predictedDirection = Direction.UP;
+
+    // states which put the tank somewhere else than predicted
+    private int corrections;
+
+    /**
+     * Connects to the server at passed address, blocking until connected
+     */
+    public GameClient(InetSocketAddress address) {
+        try {
+            channel = SocketChannel.open(address);
+            channel.configureBlocking(false);
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+
+            selector = Selector.open();
+            key = channel.register(selector, SelectionKey.OP_READ);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to connect to " + address, e);
+        }
+    }
+
+    /**
+     * Sends passed command to the server and predicts it's outcome right away
+     */
+    public void send(PlayerCommand command) {
+        if(output.remaining() < Protocol.LENGTH_BYTES + 1 + Varint.MAX_LONG_BYTES + 1) {
+            throw new IllegalStateException("Server isn't reading commands");
+        }
+        long sequence = nextSequence++;
+
+        int frame = Protocol.beginFrame(output, Protocol.INPUT);
+        Varint.putLong(output, sequence);
+        output.put((byte) command.ordinal());
+        Protocol.endFrame(output, frame);
+
+        if(pendingCount == pendingSequences.length) {
+            pendingSequences = Arrays.copyOf(pendingSequences, pendingCount * 2);
+            pendingCommands = Arrays.copyOf(pendingCommands, pendingCount * 2);
+        }
+        pendingSequences[pendingCount] = sequence;
+        pendingCommands[pendingCount] = (byte) command.ordinal();
+        pendingCount++;
+
+        if(isWelcomed()) {
+            predict(command);
+        }
+
+        flush();
+    }
+
+    /**
+     * Sends commands waiting to be sent and receives everything the server has sent meanwhile
+     * @param timeoutMilliseconds how long to wait for the server at most, zero to not wait at all
+     * @return number of states received
+     * @throws IllegalStateException if the server has closed the connection
+     */
+    public int poll(long timeoutMilliseconds) {
+        try {
+            if(timeoutMilliseconds > 0) {
+                selector.select(timeoutMilliseconds);
+            } else {
+                selector.selectNow();
+            }
+            selector.selectedKeys().clear();
+
+            flush();
+            if(channel.read(input) < 0) {
+                throw new IllegalStateException("Server has closed the connection");
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to reach server", e);
+        }
+
+        int states = 0;
+        input.flip();
+        try {
+            while(Protocol.hasFrame(input)) {
+                int length = input.getInt();
+                int end = input.position() + length;
+
+                byte type = input.get();
+                if(type == Protocol.WELCOME) {
+                    readWelcome();
+                } else if(type == Protocol.STATE) {
+                    readState();
+                    states++;
+                }
+                input.position(end);
+            }
+        } finally {
+            input.compact();
+        }
+        return states;
+    }
+
+    // welcomed by the server, thus knowing it's tank
+    public boolean isWelcomed() {
+        return playerId != -1;
+    }
+
+    // id of the player's tank in the server's game, -1 until welcomed
+    public int getPlayerId() {
+        return playerId;
+    }
+
+    /**
+     * State of the game as last received, the player's tank being where the server had it
+     */
+    public WorldState getWorldState() {
+        return worldState;
+    }
+
+    public int getPredictedHorizontalPosition() {
+        return predictedHorizontalPosition;
+    }
+
+    public int getPredictedVerticalPosition() {
+        return predictedVerticalPosition;
+    }
+
+    public Direction getPredictedDirection() {
+        return predictedDirection;
+    }
+
+    // commands sent which the server hasn't applied yet
+    public int getPendingCount() {
+        return pendingCount;
+    }
+
+    public int getCorrections() {
+        return corrections;
+    }
+
+    @Override
+    public void close() {
+        try {
+            channel.close();
+            selector.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to close connection", e);
+        }
+    }
+
+    private void readWelcome() {
+        playerId = Varint.getInt(input);
+        worldWidth = Varint.getInt(input);
+        worldHeight = Varint.getInt(input);
+        playerSpeed = Varint.getInt(input);
+    }
+
+    // takes the server's state and predicts commands it hasn't applied yet on top of it
+    private void readState() {
+        long tick = Varint.getLong(input);
+        long appliedSequence = Varint.getLong(input);
+        boolean gameFinished = input.get() != 0;
+
+        // nothing predicted before the first state
+        boolean predicted = worldState.getTick() != -1;
+        worldState.read(tick, gameFinished, input);
+
+        int applied = 0;
+        while(applied < pendingCount && pendingSequences[applied] <= appliedSequence) {
+            applied++;
+        }
+        pendingCount -= applied;
+        System.arraycopy(pendingSequences, applied, pendingSequences, 0, pendingCount);
+        System.arraycopy(pendingCommands, applied, pendingCommands, 0, pendingCount);
+
+        int index = worldState.indexOf(playerId);
+        if(index == -1) {
+            return;
+        }
+
+        int horizontalPosition = predictedHorizontalPosition;
+        int verticalPosition = predictedVerticalPosition;
+
+        predictedHorizontalPosition = worldState.getHorizontalPosition(index);
+        predictedVerticalPosition = worldState.getVerticalPosition(index);
+        predictedDirection = worldState.getDirection(index);
+        for(int pending = 0; pending < pendingCount; pending++) {
+            predict(COMMANDS[pendingCommands[pending]]);
+        }
+
+        if(predicted && (predictedHorizontalPosition != horizontalPosition || predictedVerticalPosition != verticalPosition)) {
+            corrections++;
+        }
+    }
+
+    // moves the predicted tank the way PlayerTank does on the server
+    private void predict(PlayerCommand command) {
+        switch(command) {
+            case UP:
+                predictMove(Direction.UP, 0, -playerSpeed);
+                break;
+            case DOWN:
+                predictMove(Direction.DOWN, 0, playerSpeed);
+                break;
+            case LEFT:
+                predictMove(Direction.LEFT, -playerSpeed, 0);
+                break;
+            case RIGHT:
+                predictMove(Direction.RIGHT, playerSpeed, 0);
+                break;
+            case FIRE:
+                break;
+        }
+    }
+
+    private void predictMove(Direction direction, int horizontalDistance, int verticalDistance) {
+        predictedDirection = direction;
+
+        if(!objectWithinBoundary(predictedHorizontalPosition, predictedVerticalPosition, direction, worldWidth, worldHeight)) {
+            return;
+        }
+
+        int horizontalPosition = predictedHorizontalPosition + horizontalDistance;
+        int verticalPosition = predictedVerticalPosition + verticalDistance;
+
+        if(!isBlocked(horizontalPosition, verticalPosition)) {
+            predictedHorizontalPosition = horizontalPosition;
+            predictedVerticalPosition = verticalPosition;
+        }
+    }
+
+    // whether the tank at passed position would share a grid cell with any other tank of the last state
+    private boolean isBlocked(int horizontalPosition, int verticalPosition) {
+        int self = worldState.indexOf(playerId);
+        if(self == -1) {
+            return false;
+        }
+        int size = worldState.getSize(self);
+
+        for(int index = 0; index < worldState.getEntityCount(); index++) {
+            if(index == self || worldState.getObjectType(index) == ObjectType.BOMB) {
+                continue;
+            }
+
+            if(cellsOverlap(horizontalPosition, size, worldState.getHorizontalPosition(index), worldState.getSize(index))
+                    && cellsOverlap(verticalPosition, size, worldState.getVerticalPosition(index), worldState.getSize(index))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean cellsOverlap(int position, int size, int otherPosition, int otherSize) {
+        int firstCell = Math.floorDiv(position, DEFAULT_GRID_CELL_SIZE);
+        int lastCell = Math.floorDiv(position + size - 1, DEFAULT_GRID_CELL_SIZE);
+        int otherFirstCell = Math.floorDiv(otherPosition, DEFAULT_GRID_CELL_SIZE);
+        int otherLastCell = Math.floorDiv(otherPosition + otherSize - 1, DEFAULT_GRID_CELL_SIZE);
+
+        return firstCell <= otherLastCell && otherFirstCell <= lastCell;
+    }
+
+    private void flush() {
+        output.flip();
+        try {
+            channel.write(output);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to reach server", e);
+        } finally {
+            output.compact();
+        }
+
+        key.interestOps(output.position() > 0 ? SelectionKey.OP_READ | SelectionKey.OP_WRITE : SelectionKey.OP_READ);
+    }
+}
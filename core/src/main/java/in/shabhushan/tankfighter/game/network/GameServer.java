@@ -0,0 +1,373 @@
+package in.shabhushan.tankfighter.game.network;
+
+import in.shabhushan.tankfighter.game.enumeration.PlayerCommand;
+import in.shabhushan.tankfighter.game.game.TankFighterGameEngine;
+import in.shabhushan.tankfighter.game.model.impl.PlayerTank;
+import in.shabhushan.tankfighter.game.util.Varint;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static in.shabhushan.tankfighter.game.util.Defaults.DEFAULT_NETWORK_BUFFER_SIZE;
+import static in.shabhushan.tankfighter.game.util.Defaults.DEFAULT_SERVER_INPUTS_PER_TICK;
+
+/**
+ * Authoritative server of a headless {@link TankFighterGameEngine}, players connect over TCP as {@link GameClient}s.
+ *
+ * A single thread runs the game loop and all connections: it waits on a Selector for connections and input until the
+ * next tick is due, then applies the input of every player, steps the game and sends it's state to every player. The
+ * game is thus only ever touched by that thread, no locking needed. Input stays in the connection's buffer until it's
+ * applied, at most DEFAULT_SERVER_INPUTS_PER_TICK commands per player and tick, so a player flooding the server with
+ * commands is held back by TCP. If a player can't keep up reading states, states are dropped for it until it can.
+ *
+ * The first player to connect controls the game's own player tank, the one enemy tanks chase, every other player gets
+ * a tank of it's own. Tanks of players who left are handed to players joining later.
+ */
+public class GameServer implements Runnable, Closeable {
+
+    private static final PlayerCommand[] COMMANDS = PlayerCommand.values();
+
+    // a connected player
+    private static final class Connection {
+        private final SocketChannel channel;
+        private final SelectionKey key;
+        private final PlayerTank playerTank;
+
+        private final ByteBuffer input = ByteBuffer.allocate(DEFAULT_NETWORK_BUFFER_SIZE); // write mode
+        private final ByteBuffer output = ByteBuffer.allocate(DEFAULT_NETWORK_BUFFER_SIZE); // write mode
+
+        // sequence of the last input applied
+        private long sequence;
+
+        private Connection(SocketChannel channel, SelectionKey key, PlayerTank playerTank) {
+            this.channel = channel;
+            this.key = key;
+            this.playerTank = playerTank;
+        }
+    }
+
+    private final TankFighterGameEngine game;
+
+    private final Selector selector;
+    private final ServerSocketChannel serverChannel;
+
+    private final List<Connection> connections = new ArrayList<>();
+    private final List<PlayerTank> freePlayerTanks = new ArrayList<>();
+
+    // entities and bullets of current tick, same for every player
+    private ByteBuffer state = ByteBuffer.allocate(DEFAULT_NETWORK_BUFFER_SIZE);
+
+    private final ExecutorService executorService = Executors.newSingleThreadExecutor();
+    private volatile boolean running;
+
+    /**
+     * Binds the server to passed address, port 0 binds to any free port
+     */
+    public GameServer(TankFighterGameEngine game, InetSocketAddress address) {
+        this.game = game;
+
+        try {
+            selector = Selector.open();
+            serverChannel = ServerSocketChannel.open();
+            serverChannel.bind(address);
+            serverChannel.configureBlocking(false);
+            serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to start server at " + address, e);
+        }
+
+        freePlayerTanks.add((PlayerTank) game.getPlayerTank());
+    }
+
+    public TankFighterGameEngine getGame() {
+        return game;
+    }
+
+    // port the server is listening at
+    public int getPort() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+    public void start() {
+        running = true;
+        executorService.execute(this);
+    }
+
+    /**
+     * Stops the server, waits for it's thread to end and closes all connections
+     */
+    @Override
+    public void close() {
+        running = false;
+        selector.wakeup();
+
+        executorService.shutdown();
+        try {
+            executorService.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        for(Connection connection: connections) {
+            closeQuietly(connection.channel);
+        }
+        connections.clear();
+        closeQuietly(serverChannel);
+        try {
+            selector.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to close server", e);
+        }
+    }
+
+    // number of players connected right now
+    public int getPlayerCount() {
+        return connections.size();
+    }
+
+    /**
+     * Game loop of the server, ticking at the game's tick rate
+     */
+    @Override
+    public void run() {
+        long timePerTick = TimeUnit.SECONDS.toNanos(1) / game.getTickRate();
+        long nextTick = System.nanoTime() + timePerTick;
+
+        try {
+            while(running) {
+                long wait = nextTick - System.nanoTime();
+                if(wait > 0) {
+                    selector.select(Math.max(1, TimeUnit.NANOSECONDS.toMillis(wait)));
+                } else {
+                    selector.selectNow();
+                }
+                handleSelectedKeys();
+
+                if(System.nanoTime() >= nextTick) {
+                    tick();
+                    nextTick += timePerTick;
+
+                    // fallen behind by more than a tick, drop the backlog
+                    if(System.nanoTime() - nextTick > timePerTick) {
+                        nextTick = System.nanoTime() + timePerTick;
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Server failed", e);
+        } catch (ClosedSelectorException e) {
+            // closed while stopping
+        }
+    }
+
+    private void handleSelectedKeys() throws IOException {
+        Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+
+        while(keys.hasNext()) {
+            SelectionKey key = keys.next();
+            keys.remove();
+
+            if(!key.isValid()) {
+                continue;
+            }
+
+            if(key.isAcceptable()) {
+                accept();
+                continue;
+            }
+
+            Connection connection = (Connection) key.attachment();
+            try {
+                if(key.isReadable()) {
+                    read(connection);
+                }
+                if(key.isValid() && key.isWritable()) {
+                    flush(connection);
+                }
+            } catch (IOException e) {
+                disconnect(connection);
+            }
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel = serverChannel.accept();
+        if(channel == null) {
+            return;
+        }
+
+        channel.configureBlocking(false);
+        channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+
+        // joining between two ticks, game can take another tank right away
+        PlayerTank playerTank = freePlayerTanks.isEmpty()
+                ? game.addPlayerTank() : freePlayerTanks.remove(freePlayerTanks.size() - 1);
+
+        SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+        Connection connection = new Connection(channel, key, playerTank);
+        key.attach(connection);
+        connections.add(connection);
+
+        int frame = Protocol.beginFrame(connection.output, Protocol.WELCOME);
+        Varint.putInt(connection.output, playerTank.getId());
+        Varint.putInt(connection.output, game.getWidth());
+        Varint.putInt(connection.output, game.getHeight());
+        Varint.putInt(connection.output, playerTank.getSpeed());
+        Protocol.endFrame(connection.output, frame);
+
+        flush(connection);
+    }
+
+    private void read(Connection connection) throws IOException {
+        if(connection.channel.read(connection.input) < 0) {
+            disconnect(connection);
+            return;
+        }
+
+        // input buffer full, stop reading until commands in it have been applied
+        if(!connection.input.hasRemaining()) {
+            connection.key.interestOps(connection.key.interestOps() & ~SelectionKey.OP_READ);
+        }
+    }
+
+    // writes as much output as the socket takes, waiting to write the rest once it takes more
+    private void flush(Connection connection) throws IOException {
+        connection.output.flip();
+        try {
+            connection.channel.write(connection.output);
+        } finally {
+            connection.output.compact();
+        }
+
+        int interestOps = connection.key.interestOps();
+        connection.key.interestOps(connection.output.position() > 0
+                ? interestOps | SelectionKey.OP_WRITE : interestOps & ~SelectionKey.OP_WRITE);
+    }
+
+    private void disconnect(Connection connection) {
+        connection.key.cancel();
+        closeQuietly(connection.channel);
+
+        connections.remove(connection);
+        freePlayerTanks.add(connection.playerTank);
+    }
+
+    private void tick() {
+        for(int index = 0; index < connections.size(); ) {
+            Connection connection = connections.get(index);
+
+            if(applyInput(connection)) {
+                index++;
+            } else {
+                disconnect(connection);
+            }
+        }
+
+        game.step();
+
+        writeState();
+        for(int index = 0; index < connections.size(); ) {
+            Connection connection = connections.get(index);
+
+            try {
+                sendState(connection);
+                index++;
+            } catch (IOException e) {
+                disconnect(connection);
+            }
+        }
+    }
+
+    /**
+     * Applies commands of passed player waiting in it's input buffer
+     * @return false if the player sent something malformed
+     */
+    private boolean applyInput(Connection connection) {
+        ByteBuffer input = connection.input;
+        input.flip();
+        try {
+            for(int applied = 0; applied < DEFAULT_SERVER_INPUTS_PER_TICK && Protocol.hasFrame(input); applied++) {
+                int length = input.getInt();
+                int end = input.position() + length;
+
+                if(input.get() != Protocol.INPUT) {
+                    return false;
+                }
+                long sequence = Varint.getLong(input);
+                int command = input.get();
+                // sequences start at 1 and only ever grow, anything else isn't from a well behaved client
+                if(sequence <= connection.sequence || command < 0 || COMMANDS.length <= command
+                        || input.position() != end) {
+                    return false;
+                }
+
+                game.applyCommand(connection.playerTank, COMMANDS[command]);
+                connection.sequence = sequence;
+            }
+        } catch (RuntimeException e) {
+            // malformed frame or varint
+            return false;
+        } finally {
+            input.compact();
+        }
+
+        connection.key.interestOps(connection.key.interestOps() | SelectionKey.OP_READ);
+        return true;
+    }
+
+    // state grows until it fits
+    private void writeState() {
+        while(true) {
+            state.clear();
+            try {
+                WorldState.write(game, state);
+                state.flip();
+                return;
+            } catch (BufferOverflowException e) {
+                state = ByteBuffer.allocate(state.capacity() * 2);
+            }
+        }
+    }
+
+    private void sendState(Connection connection) throws IOException {
+        ByteBuffer output = connection.output;
+
+        // player still hasn't read earlier states, it gets the next one instead
+        if(output.remaining() < Protocol.LENGTH_BYTES + Protocol.MAX_STATE_HEADER_BYTES + state.remaining()) {
+            return;
+        }
+
+        int frame = Protocol.beginFrame(output, Protocol.STATE);
+        Varint.putLong(output, game.getTick());
+        Varint.putLong(output, connection.sequence);
+        output.put((byte) (game.isGameFinished() ? 1 : 0));
+        output.put(state.duplicate());
+        Protocol.endFrame(output, frame);
+
+        flush(connection);
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        try {
+            closeable.close();
+        } catch (IOException e) {
+            // nothing left to do with it
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package in.shabhushan.tankfighter.game.network;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Messages between {@link GameServer} and {@link GameClient}.
+ *
+ * Every message is a frame of a 4 byte length, followed by a type byte and the payload, numbers in the payload being
+ * varints. A client sends {@link #INPUT} frames holding a sequence number and a player command, sequence numbers
+ * starting at 1 and growing with every input. The server welcomes a client with a {@link #WELCOME} frame holding the id of it's tank, the size of the playing field and the speed of
+ * player tanks, and sends a {@link #STATE} frame after every tick: tick, sequence of the last input of that client
+ * applied, whether the game has finished, then all entities and bullets.
+ */
+final class Protocol {
+
+    static final byte WELCOME = 1;
+    static final byte STATE = 2;
+    static final byte INPUT = 3;
+
+    static final int LENGTH_BYTES = Integer.BYTES;
+
+    // longest state header: type, tick, sequence and finished flag
+    static final int MAX_STATE_HEADER_BYTES = 1 + 10 + 10 + 1;
+
+    private Protocol() {}
+
+    /**
+     * Starts a frame of passed type
+     * @return position of the frame, to end it with
+     */
+    static int beginFrame(ByteBuffer buffer, byte type) {
+        int frame = buffer.position();
+        buffer.putInt(0);
+        buffer.put(type);
+        return frame;
+    }
+
+    static void endFrame(ByteBuffer buffer, int frame) {
+        buffer.putInt(frame, buffer.position() - frame - LENGTH_BYTES);
+    }
+
+    /**
+     * Whether a complete frame can be read from passed buffer, in read mode
+     * @throws IllegalStateException if the frame is too long to ever fit into the buffer
+     */
+    static boolean hasFrame(ByteBuffer buffer) {
+        if(buffer.remaining() < LENGTH_BYTES) {
+            return false;
+        }
+
+        int length = buffer.getInt(buffer.position());
+        if(length < 1 || buffer.capacity() < LENGTH_BYTES + length) {
+            throw new IllegalStateException("Malformed frame of " + length + " bytes");
+        }
+        return LENGTH_BYTES + length <= buffer.remaining();
+    }
+}
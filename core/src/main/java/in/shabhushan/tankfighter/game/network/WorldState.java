@@ -0,0 +1,181 @@
+package in.shabhushan.tankfighter.game.network;
+
+import in.shabhushan.tankfighter.game.engine.BulletPool;
+import in.shabhushan.tankfighter.game.engine.EntityStore;
+import in.shabhushan.tankfighter.game.engine.GameEngine;
+import in.shabhushan.tankfighter.game.enumeration.Direction;
+import in.shabhushan.tankfighter.game.enumeration.ObjectType;
+import in.shabhushan.tankfighter.game.util.Varint;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * State of the server's game as last received by a {@link GameClient}: tanks, bombs and bullets, kept in arrays like
+ * the engine keeps them. Arrays are reused between states, so receiving a state doesn't create any garbage.
+ */
+public class WorldState {
+
+    private static final Direction[] DIRECTIONS = Direction.values();
+    private static final ObjectType[] OBJECT_TYPES = ObjectType.values();
+
+    private long tick = -1;
+    private boolean gameFinished;
+
+    private int entityCount;
+    private int[] ids = new int[16];
+    private byte[] objectTypes = new byte[16];
+    private int[] horizontalPositions = new int[16];
+    private int[] verticalPositions = new int[16];
+    private byte[] directions = new byte[16];
+    private int[] sizes = new int[16];
+    private int[] healths = new int[16];
+
+    private int bulletCount;
+    private int[] bulletHorizontalPositions = new int[16];
+    private int[] bulletVerticalPositions = new int[16];
+    private byte[] bulletDirections = new byte[16];
+    private byte[] bulletOwnerTypes = new byte[16];
+
+    // writes entities and bullets of passed game, as read by read()
+    static void write(GameEngine game, ByteBuffer buffer) {
+        EntityStore entityStore = game.getEntityStore();
+
+        Varint.putInt(buffer, entityStore.size());
+        for(int index = 0; index < entityStore.size(); index++) {
+            Varint.putInt(buffer, entityStore.getId(index));
+            buffer.put((byte) entityStore.getObjectType(index).ordinal());
+            Varint.putSignedInt(buffer, entityStore.getHorizontalPosition(index));
+            Varint.putSignedInt(buffer, entityStore.getVerticalPosition(index));
+            buffer.put((byte) entityStore.getDirection(index).ordinal());
+            Varint.putInt(buffer, entityStore.getSize(index));
+            Varint.putSignedInt(buffer, entityStore.getHealth(index));
+        }
+
+        BulletPool bulletPool = game.getBulletPool();
+
+        Varint.putInt(buffer, bulletPool.size());
+        for(int index = 0; index < bulletPool.size(); index++) {
+            Varint.putSignedInt(buffer, bulletPool.getHorizontalPosition(index));
+            Varint.putSignedInt(buffer, bulletPool.getVerticalPosition(index));
+            buffer.put((byte) bulletPool.getDirection(index).ordinal());
+            buffer.put((byte) bulletPool.getOwnerType(index).ordinal());
+        }
+    }
+
+    // reads entities and bullets as written by write(), tick and finished flag are read by the client
+    void read(long tick, boolean gameFinished, ByteBuffer buffer) {
+        this.tick = tick;
+        this.gameFinished = gameFinished;
+
+        entityCount = Varint.getInt(buffer);
+        if(ids.length < entityCount) {
+            int capacity = Math.max(entityCount, ids.length * 2);
+            ids = Arrays.copyOf(ids, capacity);
+            objectTypes = Arrays.copyOf(objectTypes, capacity);
+            horizontalPositions = Arrays.copyOf(horizontalPositions, capacity);
+            verticalPositions = Arrays.copyOf(verticalPositions, capacity);
+            directions = Arrays.copyOf(directions, capacity);
+            sizes = Arrays.copyOf(sizes, capacity);
+            healths = Arrays.copyOf(healths, capacity);
+        }
+        for(int index = 0; index < entityCount; index++) {
+            ids[index] = Varint.getInt(buffer);
+            objectTypes[index] = buffer.get();
+            horizontalPositions[index] = Varint.getSignedInt(buffer);
+            verticalPositions[index] = Varint.getSignedInt(buffer);
+            directions[index] = buffer.get();
+            sizes[index] = Varint.getInt(buffer);
+            healths[index] = Varint.getSignedInt(buffer);
+        }
+
+        bulletCount = Varint.getInt(buffer);
+        if(bulletHorizontalPositions.length < bulletCount) {
+            int capacity = Math.max(bulletCount, bulletHorizontalPositions.length * 2);
+            bulletHorizontalPositions = Arrays.copyOf(bulletHorizontalPositions, capacity);
+            bulletVerticalPositions = Arrays.copyOf(bulletVerticalPositions, capacity);
+            bulletDirections = Arrays.copyOf(bulletDirections, capacity);
+            bulletOwnerTypes = Arrays.copyOf(bulletOwnerTypes, capacity);
+        }
+        for(int index = 0; index < bulletCount; index++) {
+            bulletHorizontalPositions[index] = Varint.getSignedInt(buffer);
+            bulletVerticalPositions[index] = Varint.getSignedInt(buffer);
+            bulletDirections[index] = buffer.get();
+            bulletOwnerTypes[index] = buffer.get();
+        }
+    }
+
+    // tick of the server's game this state is of, -1 before the first state
+    public long getTick() {
+        return tick;
+    }
+
+    public boolean isGameFinished() {
+        return gameFinished;
+    }
+
+    public int getEntityCount() {
+        return entityCount;
+    }
+
+    /**
+     * Index of the entity with passed id
+     * @return index, -1 if there's no such entity in this state
+     */
+    public int indexOf(int id) {
+        for(int index = 0; index < entityCount; index++) {
+            if(ids[index] == id) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    public int getId(int index) {
+        return ids[index];
+    }
+
+    public ObjectType getObjectType(int index) {
+        return OBJECT_TYPES[objectTypes[index]];
+    }
+
+    public int getHorizontalPosition(int index) {
+        return horizontalPositions[index];
+    }
+
+    public int getVerticalPosition(int index) {
+        return verticalPositions[index];
+    }
+
+    public Direction getDirection(int index) {
+        return DIRECTIONS[directions[index]];
+    }
+
+    public int getSize(int index) {
+        return sizes[index];
+    }
+
+    public int getHealth(int index) {
+        return healths[index];
+    }
+
+    public int getBulletCount() {
+        return bulletCount;
+    }
+
+    public int getBulletHorizontalPosition(int index) {
+        return bulletHorizontalPositions[index];
+    }
+
+    public int getBulletVerticalPosition(int index) {
+        return bulletVerticalPositions[index];
+    }
+
+    public Direction getBulletDirection(int index) {
+        return DIRECTIONS[bulletDirections[index]];
+    }
+
+    public ObjectType getBulletOwnerType(int index) {
+        return OBJECT_TYPES[bulletOwnerTypes[index]];
+    }
+}
@@ -0,0 +1,41 @@
+package in.shabhushan.tankfighter.game.render;
+
+import in.shabhushan.tankfighter.game.engine.EntityStore;
+import in.shabhushan.tankfighter.game.system.BombSystem;
+
+import java.awt.Graphics2D;
+
+import static in.shabhushan.tankfighter.game.util.Defaults.DEFAULT_TANK_OBJECT_SIZE;
+
+/**
+ * Draws Bombs, a Bomb has 3 images which are displayed one by one as it's frame counts down.
+ *
+ * The images are loaded into a {@link SpriteAtlas} when the renderer is created, i.e. before the game starts, so the
+ * first explosion is drawn as fast as any later one.
+ */
+public class BombRenderer implements EntityRenderer {
+
+    private final BombSystem bombSystem;
+
+    private final SpriteAtlas sprites = SpriteAtlas.load(DEFAULT_TANK_OBJECT_SIZE, DEFAULT_TANK_OBJECT_SIZE,
+            "/bomb_1.gif", "/bomb_2.gif", "/bomb_3.gif");
+
+    public BombRenderer(BombSystem bombSystem) {
+        this.bombSystem = bombSystem;
+    }
+
+    /**
+     * Draws an image based on how much time is left to die for the Bomb at passed index
+     */
+    @Override
+    public void draw(Graphics2D graphics, EntityStore entityStore, int index, float interpolation) {
+        sprites.draw(graphics, bombSystem.getFrame(index),
+                EntityRenderer.horizontalPosition(entityStore, index, interpolation),
+                EntityRenderer.verticalPosition(entityStore, index, interpolation));
+    }
+
+    @Override
+    public int getAppearance(EntityStore entityStore, int index) {
+        return bombSystem.getFrame(index);
+    }
+}
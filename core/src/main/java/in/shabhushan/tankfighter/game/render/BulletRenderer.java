@@ -0,0 +1,90 @@
+package in.shabhushan.tankfighter.game.render;
+
+import in.shabhushan.tankfighter.game.engine.BulletPool;
+import in.shabhushan.tankfighter.game.engine.DirtyRegions;
+import in.shabhushan.tankfighter.game.enumeration.Direction;
+import in.shabhushan.tankfighter.game.enumeration.ObjectType;
+
+import java.awt.Graphics2D;
+
+import static in.shabhushan.tankfighter.game.util.Defaults.*;
+
+/**
+ * Draws all bullets of a {@link BulletPool}, colored by the type of tank which fired them.
+ */
+public class BulletRenderer {
+
+    /**
+     * Draws all bullets in view of passed camera, interpolated between their previous and current position.
+     * Bullets are only a single rectangle each, checking them one by one is as cheap as looking them up in an index.
+     */
+    public void draw(Graphics2D graphics, BulletPool bulletPool, float interpolation, Camera camera) {
+        for(int index = 0; index < bulletPool.size(); index++) {
+            Direction direction = bulletPool.getDirection(index);
+            int horizontalPosition = horizontalPosition(bulletPool, index, interpolation) + horizontalOffset(direction);
+            int verticalPosition = verticalPosition(bulletPool, index, interpolation) + verticalOffset(direction);
+
+            if(!camera.isVisible(horizontalPosition, verticalPosition, DEFAULT_BULLET_BLOCK_WIDTH, DEFAULT_BULLET_BLOCK_WIDTH)) {
+                continue;
+            }
+
+            graphics.setColor(bulletPool.getOwnerType(index) == ObjectType.PLAYER_TANK
+                    ? DEFAULT_PLAYER_BULLET_COLOR : DEFAULT_AI_BULLET_COLOR);
+
+            graphics.fill3DRect(horizontalPosition, verticalPosition,
+                    DEFAULT_BULLET_BLOCK_WIDTH, DEFAULT_BULLET_BLOCK_WIDTH, false);
+        }
+    }
+
+    /**
+     * Reports bounds of all bullets in view, relative to the camera. Bullets are volatile as they have no id.
+     */
+    public void collectBounds(DirtyRegions dirtyRegions, BulletPool bulletPool, float interpolation, Camera camera) {
+        for(int index = 0; index < bulletPool.size(); index++) {
+            Direction direction = bulletPool.getDirection(index);
+            int horizontalPosition = horizontalPosition(bulletPool, index, interpolation) + horizontalOffset(direction);
+            int verticalPosition = verticalPosition(bulletPool, index, interpolation) + verticalOffset(direction);
+
+            if(camera.isVisible(horizontalPosition, verticalPosition, DEFAULT_BULLET_BLOCK_WIDTH, DEFAULT_BULLET_BLOCK_WIDTH)) {
+                dirtyRegions.add(DirtyRegions.VOLATILE, 0,
+                        horizontalPosition - camera.getHorizontalPosition(), verticalPosition - camera.getVerticalPosition(),
+                        DEFAULT_BULLET_BLOCK_WIDTH, DEFAULT_BULLET_BLOCK_WIDTH);
+            }
+        }
+    }
+
+    private static int horizontalPosition(BulletPool bulletPool, int index, float interpolation) {
+        return EntityRenderer.interpolate(bulletPool.getPreviousHorizontalPosition(index),
+                bulletPool.getHorizontalPosition(index), interpolation);
+    }
+
+    private static int verticalPosition(BulletPool bulletPool, int index, float interpolation) {
+        return EntityRenderer.interpolate(bulletPool.getPreviousVerticalPosition(index),
+                bulletPool.getVerticalPosition(index), interpolation);
+    }
+
+    // a bullet is drawn at the barrel of the tank, which depends on direction of the bullet
+    private static int horizontalOffset(Direction direction) {
+        switch(direction) {
+            case UP:
+            case DOWN:
+                return DEFAULT_BULLET_BLOCK_DISTANCE;
+            case RIGHT:
+                return 2 * DEFAULT_TANK_BLOCK_DISTANCE;
+            default:
+                return 0;
+        }
+    }
+
+    private static int verticalOffset(Direction direction) {
+        switch(direction) {
+            case DOWN:
+                return 2 * DEFAULT_TANK_BLOCK_DISTANCE;
+            case LEFT:
+            case RIGHT:
+                return DEFAULT_BULLET_BLOCK_DISTANCE;
+            default:
+                return 0;
+        }
+    }
+}
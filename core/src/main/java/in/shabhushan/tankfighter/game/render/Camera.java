@@ -0,0 +1,71 @@
+package in.shabhushan.tankfighter.game.render;
+
+import java.awt.Dimension;
+
+/**
+ * View on a part of the playing field, of the size of the canvas.
+ * The camera is kept centered on a point, e.g. the player's tank, without ever showing anything beyond the edges of
+ * the playing field.
+ */
+public class Camera {
+
+    private final int width;
+    private final int height;
+
+    private final int worldWidth;
+    private final int worldHeight;
+
+    // top left corner of the view, in world coordinates
+    private int horizontalPosition;
+    private int verticalPosition;
+
+    public Camera(Dimension resolution, Dimension worldSize) {
+        this.width = (int) resolution.getWidth();
+        this.height = (int) resolution.getHeight();
+        this.worldWidth = (int) worldSize.getWidth();
+        this.worldHeight = (int) worldSize.getHeight();
+    }
+
+    /**
+     * Centers the view on passed point, as far as the edges of the playing field allow
+     * @return true if the view has moved
+     */
+    public boolean follow(int centerHorizontalPosition, int centerVerticalPosition) {
+        int newHorizontalPosition = clamp(centerHorizontalPosition - width / 2, worldWidth - width);
+        int newVerticalPosition = clamp(centerVerticalPosition - height / 2, worldHeight - height);
+
+        boolean moved = newHorizontalPosition != horizontalPosition || newVerticalPosition != verticalPosition;
+
+        horizontalPosition = newHorizontalPosition;
+        verticalPosition = newVerticalPosition;
+        return moved;
+    }
+
+    /**
+     * Whether passed rectangle, in world coordinates, is at least partly in view
+     */
+    public boolean isVisible(int horizontalPosition, int verticalPosition, int width, int height) {
+        return horizontalPosition < this.horizontalPosition + this.width && this.horizontalPosition < horizontalPosition + width
+                && verticalPosition < this.verticalPosition + this.height && this.verticalPosition < verticalPosition + height;
+    }
+
+    public int getHorizontalPosition() {
+        return horizontalPosition;
+    }
+
+    public int getVerticalPosition() {
+        return verticalPosition;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    private static int clamp(int position, int maximum) {
+        return Math.max(0, Math.min(position, maximum));
+    }
+}
@@ -0,0 +1,45 @@
+package in.shabhushan.tankfighter.game.render;
+
+import in.shabhushan.tankfighter.game.engine.EntityStore;
+
+import java.awt.Graphics2D;
+
+/**
+ * Draws a single kind of entity from an {@link EntityStore}.
+ */
+public interface EntityRenderer {
+
+    /**
+     * Draw Entity at passed index based on it's position and Direction
+     * @param graphics graphics to draw onto
+     * @param entityStore store holding the entity
+     * @param index index of the entity in the store
+     * @param interpolation fraction of a tick elapsed since the last simulated tick
+     */
+    public void draw(Graphics2D graphics, EntityStore entityStore, int index, float interpolation);
+
+    /**
+     * Value which changes whenever the entity at passed index looks different, apart from it's position
+     */
+    public int getAppearance(EntityStore entityStore, int index);
+
+    /**
+     * Horizontal position to draw passed entity at, interpolated between it's previous and current position
+     */
+    public static int horizontalPosition(EntityStore entityStore, int index, float interpolation) {
+        return interpolate(entityStore.getPreviousHorizontalPosition(index), entityStore.getHorizontalPosition(index),
+                interpolation);
+    }
+
+    /**
+     * Vertical position to draw passed entity at, interpolated between it's previous and current position
+     */
+    public static int verticalPosition(EntityStore entityStore, int index, float interpolation) {
+        return interpolate(entityStore.getPreviousVerticalPosition(index), entityStore.getVerticalPosition(index),
+                interpolation);
+    }
+
+    public static int interpolate(int previous, int current, float interpolation) {
+        return previous + Math.round((current - previous) * interpolation);
+    }
+}
@@ -0,0 +1,99 @@
+package in.shabhushan.tankfighter.game.render;
+
+import javax.imageio.ImageIO;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.GraphicsEnvironment;
+import java.awt.RenderingHints;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URL;
+
+/**
+ * Frames of an animation, laid out side by side in a single image.
+ *
+ * Frames are read with ImageIO, which decodes them completely before returning, and scaled once to the size they're
+ * drawn at. The atlas image is compatible with the default screen, so drawing a frame is a single unscaled blit and
+ * Java2D can keep the atlas in video memory.
+ */
+public class SpriteAtlas {
+
+    private final BufferedImage atlas;
+    private final int frameWidth;
+    private final int frameHeight;
+    private final int frameCount;
+
+    private SpriteAtlas(BufferedImage atlas, int frameWidth, int frameHeight, int frameCount) {
+        this.atlas = atlas;
+        this.frameWidth = frameWidth;
+        this.frameHeight = frameHeight;
+        this.frameCount = frameCount;
+    }
+
+    /**
+     * Loads passed class path resources as frames of an atlas, in the order passed
+     * @param frameWidth width every frame is scaled to
+     * @param frameHeight height every frame is scaled to
+     */
+    public static SpriteAtlas load(int frameWidth, int frameHeight, String... resources) {
+        BufferedImage atlas = createImage(frameWidth * resources.length, frameHeight);
+
+        Graphics2D graphics = atlas.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+
+            for(int frame = 0; frame < resources.length; frame++) {
+                graphics.drawImage(read(resources[frame]), frame * frameWidth, 0, frameWidth, frameHeight, null);
+            }
+        } finally {
+            graphics.dispose();
+        }
+
+        return new SpriteAtlas(atlas, frameWidth, frameHeight, resources.length);
+    }
+
+    /**
+     * Draws passed frame with it's top left corner at passed position
+     */
+    public void draw(Graphics2D graphics, int frame, int horizontalPosition, int verticalPosition) {
+        int sourceHorizontalPosition = frame * frameWidth;
+
+        graphics.drawImage(atlas,
+                horizontalPosition, verticalPosition, horizontalPosition + frameWidth, verticalPosition + frameHeight,
+                sourceHorizontalPosition, 0, sourceHorizontalPosition + frameWidth, frameHeight, null);
+    }
+
+    public int getFrameCount() {
+        return frameCount;
+    }
+
+    private static BufferedImage read(String resource) {
+        URL url = SpriteAtlas.class.getResource(resource);
+        if(url == null) {
+            throw new IllegalStateException("Missing sprite " + resource);
+        }
+
+        try {
+            BufferedImage image = ImageIO.read(url);
+            if(image == null) {
+                throw new IllegalStateException("Unreadable sprite " + resource);
+            }
+            return image;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read sprite " + resource, e);
+        }
+    }
+
+    // plain image on a headless machine, there is no screen to be compatible with
+    private static BufferedImage createImage(int width, int height) {
+        if(GraphicsEnvironment.isHeadless()) {
+            return new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        }
+
+        GraphicsConfiguration configuration =
+                GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice().getDefaultConfiguration();
+        return configuration.createCompatibleImage(width, height, Transparency.TRANSLUCENT);
+    }
+}
@@ -0,0 +1,90 @@
+package in.shabhushan.tankfighter.game.render;
+
+import in.shabhushan.tankfighter.game.enumeration.Direction;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.Image;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Pre-rendered sprites per (color, direction), so an object drawn out of many primitives costs a single drawImage
+ * per frame.
+ *
+ * A sprite is painted once, the first time it's needed, into an image compatible with the graphics it is drawn on,
+ * which lets Java2D keep it in video memory. Objects changing their color simply get the sprite of the new color, and
+ * sprites of every color drawn so far are kept, which suits the few fixed colors objects of the game are drawn in.
+ * All sprites are painted again if the graphics device changes.
+ */
+public class SpriteCache {
+
+    /**
+     * Paints a sprite at origin of passed graphics
+     */
+    public interface Painter {
+        public void paint(Graphics2D graphics, Color color, Direction direction);
+    }
+
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    private final int width;
+    private final int height;
+    private final Painter painter;
+
+    // sprites of a color, indexed by direction ordinal
+    private final Map<Color, Image[]> sprites = new HashMap<>();
+
+    // configuration the cached sprites are compatible with
+    private GraphicsConfiguration configuration;
+
+    public SpriteCache(int width, int height, Painter painter) {
+        this.width = width;
+        this.height = height;
+        this.painter = painter;
+    }
+
+    /**
+     * Returns the sprite of passed color and direction, painting it if it isn't cached yet
+     * @param graphics graphics the sprite is going to be drawn on
+     */
+    public Image getSprite(Graphics2D graphics, Color color, Direction direction) {
+        GraphicsConfiguration deviceConfiguration = graphics.getDeviceConfiguration();
+        if(deviceConfiguration != configuration) {
+            sprites.clear();
+            configuration = deviceConfiguration;
+        }
+
+        Image[] colorSprites = sprites.get(color);
+        if(colorSprites == null) {
+            colorSprites = new Image[DIRECTIONS.length];
+            sprites.put(color, colorSprites);
+        }
+
+        Image sprite = colorSprites[direction.ordinal()];
+        if(sprite == null) {
+            sprite = paintSprite(color, direction);
+            colorSprites[direction.ordinal()] = sprite;
+        }
+
+        return sprite;
+    }
+
+    private Image paintSprite(Color color, Direction direction) {
+        BufferedImage sprite = configuration != null
+                ? configuration.createCompatibleImage(width, height, Transparency.BITMASK)
+                : new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+
+        Graphics2D spriteGraphics = sprite.createGraphics();
+        try {
+            painter.paint(spriteGraphics, color, direction);
+        } finally {
+            spriteGraphics.dispose();
+        }
+
+        return sprite;
+    }
+}
@@ -0,0 +1,154 @@
+package in.shabhushan.tankfighter.game.render;
+
+import in.shabhushan.tankfighter.game.engine.DirtyRegions;
+import in.shabhushan.tankfighter.game.engine.EntityStore;
+import in.shabhushan.tankfighter.game.engine.Renderer;
+import in.shabhushan.tankfighter.game.enumeration.ObjectType;
+import in.shabhushan.tankfighter.game.game.TankFighterGameEngine;
+import in.shabhushan.tankfighter.game.model.Tank;
+
+import java.awt.Graphics2D;
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Draws a {@link TankFighterGameEngine}: tanks first, then bombs and bullets on top of them.
+ *
+ * Only the part of the playing field seen by the {@link Camera} is drawn, the camera following the player's tank.
+ * Tanks and bombs in view are looked up in the entity index of the game, so drawing doesn't get slower with the size
+ * of the playing field.
+ */
+public class TankFighterRenderer implements Renderer {
+
+    private final TankFighterGameEngine game;
+
+    private final Camera camera;
+
+    private final TankRenderer tankRenderer = new TankRenderer();
+    private final BombRenderer bombRenderer;
+    private final BulletRenderer bulletRenderer = new BulletRenderer();
+
+    // ids of entities in view, collected for current frame
+    private int[] visibleEntities = new int[64];
+    private int visibleCount;
+    private final IntConsumer visibleEntityCollector = this::addVisibleEntity;
+
+    public TankFighterRenderer(TankFighterGameEngine game) {
+        this.game = game;
+        this.camera = new Camera(game.getResolution(), game.getWorldSize());
+        this.bombRenderer = new BombRenderer(game.getBombSystem());
+    }
+
+    public Camera getCamera() {
+        return camera;
+    }
+
+    @Override
+    public void draw(Graphics2D graphics, float interpolation) {
+        EntityStore entityStore = game.getEntityStore();
+
+        followPlayer(interpolation);
+        collectVisibleEntities();
+
+        graphics.translate(-camera.getHorizontalPosition(), -camera.getVerticalPosition());
+        try {
+            for(int visible = 0; visible < visibleCount; visible++) {
+                int index = visibleIndex(entityStore, visible);
+
+                if(index != EntityStore.NO_ENTITY && entityStore.getObjectType(index) != ObjectType.BOMB) {
+                    tankRenderer.draw(graphics, entityStore, index, interpolation);
+                }
+            }
+
+            for(int visible = 0; visible < visibleCount; visible++) {
+                int index = visibleIndex(entityStore, visible);
+
+                if(index != EntityStore.NO_ENTITY && entityStore.getObjectType(index) == ObjectType.BOMB) {
+                    bombRenderer.draw(graphics, entityStore, index, interpolation);
+                }
+            }
+
+            bulletRenderer.draw(graphics, game.getBulletPool(), interpolation, camera);
+        } finally {
+            graphics.translate(camera.getHorizontalPosition(), camera.getVerticalPosition());
+        }
+    }
+
+    /**
+     * Tanks and bombs in view are reported by their entity id, they are drawn as squares of their size.
+     * Everything is dirty when the camera has moved.
+     */
+    @Override
+    public boolean collectBounds(DirtyRegions dirtyRegions, float interpolation) {
+        EntityStore entityStore = game.getEntityStore();
+
+        if(followPlayer(interpolation)) {
+            dirtyRegions.invalidate();
+        }
+        collectVisibleEntities();
+
+        for(int visible = 0; visible < visibleCount; visible++) {
+            int index = visibleIndex(entityStore, visible);
+            if(index == EntityStore.NO_ENTITY) {
+                continue;
+            }
+
+            int size = entityStore.getSize(index);
+            int appearance = entityStore.getObjectType(index) == ObjectType.BOMB
+                    ? bombRenderer.getAppearance(entityStore, index) : tankRenderer.getAppearance(entityStore, index);
+
+            dirtyRegions.add(entityStore.getId(index), appearance,
+                    EntityRenderer.horizontalPosition(entityStore, index, interpolation) - camera.getHorizontalPosition(),
+                    EntityRenderer.verticalPosition(entityStore, index, interpolation) - camera.getVerticalPosition(),
+                    size, size);
+        }
+
+        bulletRenderer.collectBounds(dirtyRegions, game.getBulletPool(), interpolation, camera);
+        return true;
+    }
+
+    // centers camera on the player's tank as it is drawn, returns true if the camera has moved
+    private boolean followPlayer(float interpolation) {
+        Tank playerTank = game.getPlayerTank();
+
+        int horizontalPosition = EntityRenderer.interpolate(playerTank.getPreviousHorizontalPosition(),
+                playerTank.getHorizontalPosition(), interpolation);
+        int verticalPosition = EntityRenderer.interpolate(playerTank.getPreviousVerticalPosition(),
+                playerTank.getVerticalPosition(), interpolation);
+
+        return camera.follow(horizontalPosition + playerTank.getObjectSize() / 2,
+                verticalPosition + playerTank.getObjectSize() / 2);
+    }
+
+    private void collectVisibleEntities() {
+        visibleCount = 0;
+        game.getEntityIndex().queryKeys(camera.getHorizontalPosition(), camera.getVerticalPosition(),
+                camera.getWidth(), camera.getHeight(), visibleEntityCollector);
+    }
+
+    private void addVisibleEntity(int id) {
+        if(visibleCount == visibleEntities.length) {
+            visibleEntities = Arrays.copyOf(visibleEntities, visibleCount * 2);
+        }
+        visibleEntities[visibleCount++] = id;
+    }
+
+    // index in entity store of a visible entity, NO_ENTITY if it's not in the store or merely hashed close to the view
+    private int visibleIndex(EntityStore entityStore, int visible) {
+        int index = entityStore.indexOf(visibleEntities[visible]);
+
+        if(index != EntityStore.NO_ENTITY) {
+            int size = entityStore.getSize(index);
+            int horizontalPosition = Math.min(entityStore.getPreviousHorizontalPosition(index), entityStore.getHorizontalPosition(index));
+            int verticalPosition = Math.min(entityStore.getPreviousVerticalPosition(index), entityStore.getVerticalPosition(index));
+            int width = Math.abs(entityStore.getHorizontalPosition(index) - entityStore.getPreviousHorizontalPosition(index)) + size;
+            int height = Math.abs(entityStore.getVerticalPosition(index) - entityStore.getPreviousVerticalPosition(index)) + size;
+
+            if(!camera.isVisible(horizontalPosition, verticalPosition, width, height)) {
+                return EntityStore.NO_ENTITY;
+            }
+        }
+
+        return index;
+    }
+}
@@ -0,0 +1,124 @@
+package in.shabhushan.tankfighter.game.render;
+
+import in.shabhushan.tankfighter.game.engine.EntityStore;
+import in.shabhushan.tankfighter.game.enumeration.Direction;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Image;
+import java.util.Objects;
+
+import static in.shabhushan.tankfighter.game.util.Defaults.DEFAULT_TANK_BLOCK_DISTANCE;
+import static in.shabhushan.tankfighter.game.util.Defaults.DEFAULT_TANK_BLOCK_WIDTH;
+import static in.shabhushan.tankfighter.game.util.Defaults.DEFAULT_TANK_OBJECT_SIZE;
+
+/**
+ * Draws Tanks in their color, facing their direction.
+ * Each tank is blitted from a cached sprite instead of being drawn block by block every frame.
+ */
+public class TankRenderer implements EntityRenderer {
+
+    private final SpriteCache sprites = new SpriteCache(DEFAULT_TANK_OBJECT_SIZE, DEFAULT_TANK_OBJECT_SIZE,
+            TankRenderer::paintTank);
+
+    /**
+     * Draws the Tank at passed index as a single sprite of it's color and direction
+     * @param graphics graphics to draw onto
+     * @param entityStore store holding the tank
+     * @param index index of the tank in the store
+     * @param interpolation fraction of a tick elapsed since the last simulated tick
+     */
+    @Override
+    public void draw(Graphics2D graphics, EntityStore entityStore, int index, float interpolation) {
+        Image sprite = sprites.getSprite(graphics, entityStore.getColor(index), entityStore.getDirection(index));
+
+        graphics.drawImage(sprite, EntityRenderer.horizontalPosition(entityStore, index, interpolation),
+                EntityRenderer.verticalPosition(entityStore, index, interpolation), null);
+    }
+
+    @Override
+    public int getAppearance(EntityStore entityStore, int index) {
+        return 31 * Objects.hashCode(entityStore.getColor(index)) + entityStore.getDirection(index).ordinal();
+    }
+
+    /**
+     * Paint Tank based on it's Direction
+     *
+     * use a Box Model to Build Tank on 9 Boxes
+     * First ROW
+     * graphics.fill3DRect(horizontalPosition, verticalPosition, width, width, false);
+     * graphics.fill3DRect(horizontalPosition + size, verticalPosition, width, width, false);
+     * graphics.fill3DRect(horizontalPosition + 2 * size, verticalPosition, width, width, false);
+     *
+     * Second ROW
+     * graphics.fill3DRect(horizontalPosition, verticalPosition + size, width, width, false);
+     * graphics.fill3DRect(horizontalPosition + size, verticalPosition + size, width, width, false);
+     * graphics.fill3DRect(horizontalPosition + 2 * size, verticalPosition + size, width, width, false);
+     *
+     * Third ROW
+     * graphics.fill3DRect(horizontalPosition, verticalPosition + 2 * size, width, width, false);
+     * graphics.fill3DRect(horizontalPosition + size, verticalPosition + 2 * size, width, width, false);
+     * graphics.fill3DRect(horizontalPosition + 2 * size, verticalPosition + 2 * size, width, width, false);
+     *
+     * @param graphics graphics of the sprite to paint onto
+     */
+    private static void paintTank(Graphics2D graphics, Color color, Direction direction) {
+        graphics.setColor(color);
+
+        int width = DEFAULT_TANK_BLOCK_WIDTH;
+        int size = DEFAULT_TANK_BLOCK_DISTANCE;
+
+        int horizontalPosition = 0;
+        int verticalPosition = 0;
+
+        switch (direction) {
+            case UP:
+                graphics.fill3DRect(horizontalPosition + size, verticalPosition, width, width, false);
+
+                graphics.fill3DRect(horizontalPosition, verticalPosition + size, width, width, false);
+                graphics.fill3DRect(horizontalPosition + size, verticalPosition + size, width, width, false);
+                graphics.fill3DRect(horizontalPosition + 2 * size, verticalPosition + size, width, width, false);
+
+                graphics.fill3DRect(horizontalPosition, verticalPosition + 2 * size, width, width, false);
+                graphics.fill3DRect(horizontalPosition + size, verticalPosition + 2 * size, width, width, false);
+                graphics.fill3DRect(horizontalPosition + 2 * size, verticalPosition + 2 * size, width, width, false);
+                break;
+
+            case DOWN:
+                graphics.fill3DRect(horizontalPosition, verticalPosition, width, width, false);
+                graphics.fill3DRect(horizontalPosition + size, verticalPosition, width, width, false);
+                graphics.fill3DRect(horizontalPosition + 2 * size, verticalPosition, width, width, false);
+
+                graphics.fill3DRect(horizontalPosition, verticalPosition + size, width, width, false);
+                graphics.fill3DRect(horizontalPosition + size, verticalPosition + size, width, width, false);
+                graphics.fill3DRect(horizontalPosition + 2 * size, verticalPosition + size, width, width, false);
+
+                graphics.fill3DRect(horizontalPosition + size, verticalPosition + 2 * size, width, width, false);
+                break;
+
+            case LEFT:
+                graphics.fill3DRect(horizontalPosition + size, verticalPosition, width, width, false);
+
+                graphics.fill3DRect(horizontalPosition + 2 * size, verticalPosition, width, width, false);
+                graphics.fill3DRect(horizontalPosition, verticalPosition + size, width, width, false);
+                graphics.fill3DRect(horizontalPosition + size, verticalPosition + size, width, width, false);
+
+                graphics.fill3DRect(horizontalPosition + 2 * size, verticalPosition + size, width, width, false);
+                graphics.fill3DRect(horizontalPosition + size, verticalPosition + 2 * size, width, width, false);
+                graphics.fill3DRect(horizontalPosition + 2 * size, verticalPosition + 2 * size, width, width, false);
+                break;
+
+            case RIGHT:
+                graphics.fill3DRect(horizontalPosition, verticalPosition, width, width, false);
+                graphics.fill3DRect(horizontalPosition + size, verticalPosition, width, width, false);
+                graphics.fill3DRect(horizontalPosition, verticalPosition + size, width, width, false);
+
+                graphics.fill3DRect(horizontalPosition + size, verticalPosition + size, width, width, false);
+
+                graphics.fill3DRect(horizontalPosition + 2 * size, verticalPosition + size, width, width, false);
+                graphics.fill3DRect(horizontalPosition, verticalPosition + 2 * size, width, width, false);
+                graphics.fill3DRect(horizontalPosition + size, verticalPosition + 2 * size, width, width, false);
+                break;
+        }
+    }
+}
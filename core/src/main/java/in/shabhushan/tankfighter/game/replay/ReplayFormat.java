@@ -0,0 +1,21 @@
+package in.shabhushan.tankfighter.game.replay;
+
+/**
+ * Layout of a replay file, shared by {@link ReplayWriter} and {@link ReplayReader}.
+ *
+ * Header: magic, version, resolution and world size as varints, then the 8 byte seed of the game.
+ * Records: a varint holding the ticks passed since the previous record, shifted left by {@link #COMMAND_BITS}, or-ed
+ * with the ordinal of the player command applied in that tick. A session ends with an {@link #END} record followed by
+ * the 8 byte state hash of the game at that tick, a file without one was cut short.
+ */
+final class ReplayFormat {
+
+    static final int MAGIC = 0x54465250; // "TFRP"
+    static final int VERSION = 1;
+
+    static final int COMMAND_BITS = 3;
+    static final int COMMAND_MASK = (1 << COMMAND_BITS) - 1;
+    static final int END = COMMAND_MASK;
+
+    private ReplayFormat() {}
+}
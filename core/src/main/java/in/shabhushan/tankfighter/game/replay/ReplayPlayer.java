@@ -0,0 +1,163 @@
+package in.shabhushan.tankfighter.game.replay;
+
+import in.shabhushan.tankfighter.game.game.TankFighterGameEngine;
+import in.shabhushan.tankfighter.game.snapshot.Snapshot;
+import in.shabhushan.tankfighter.game.snapshot.SnapshotDecoder;
+import in.shabhushan.tankfighter.game.snapshot.SnapshotEncoder;
+
+import java.io.Closeable;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static in.shabhushan.tankfighter.game.util.Defaults.DEFAULT_SNAPSHOT_KEYFRAME_INTERVAL;
+import static in.shabhushan.tankfighter.game.util.Defaults.DEFAULT_SNAPSHOT_TICKS;
+
+/**
+ * Plays a replay, seeking to any tick of it.
+ *
+ * The game is created from the seed and sizes in the replay's header and stepped with the recorded commands. A
+ * snapshot is taken of the game as it starts and every snapshotTicks ticks after, along with the position in the
+ * replay, no matter whether the game is stepped by the player while seeking or by it's game loop. To seek, the game is
+ * put back into the last snapshot before the tick sought, backward or forward, and stepped from there. The game is
+ * restored in place, so it can be rendered while being played.
+ *
+ * Not thread safe. If the game is running on it's game loop, seeking must be done on the game loop thread, e.g. via
+ * {@link TankFighterGameEngine#invokeLater(Runnable)}.
+ */
+public class ReplayPlayer implements Closeable {
+
+    // snapshot of the game and where the replay was at when it was taken
+    private static final class Checkpoint {
+        private final Snapshot snapshot;
+        private final ReplayReader.Mark mark;
+
+        private Checkpoint(Snapshot snapshot, ReplayReader.Mark mark) {
+            this.snapshot = snapshot;
+            this.mark = mark;
+        }
+    }
+
+    private final ReplayReader replayReader;
+    private final TankFighterGameEngine game;
+
+    private final int snapshotTicks;
+    private final SnapshotEncoder snapshotEncoder = new SnapshotEncoder(DEFAULT_SNAPSHOT_KEYFRAME_INTERVAL);
+    private final SnapshotDecoder snapshotDecoder = new SnapshotDecoder();
+    private final List<Checkpoint> checkpoints = new ArrayList<>();
+
+    public ReplayPlayer(Path file) {
+        this(file, DEFAULT_SNAPSHOT_TICKS);
+    }
+
+    /**
+     * @param snapshotTicks ticks between two snapshots to seek to
+     */
+    public ReplayPlayer(Path file, int snapshotTicks) {
+        this.snapshotTicks = Math.max(1, snapshotTicks);
+
+        replayReader = new ReplayReader(file);
+        game = new TankFighterGameEngine(replayReader.getResolution(), replayReader.getWorldSize(), replayReader.getSeed());
+        game.setReplayReader(replayReader);
+
+        takeCheckpoint();
+        game.setTickListener(this::takeCheckpoint);
+    }
+
+    public TankFighterGameEngine getGame() {
+        return game;
+    }
+
+    public long getTick() {
+        return game.getTick();
+    }
+
+    /**
+     * Puts the game into it's state at passed tick, or the tick it finished in if that's earlier
+     */
+    public void seek(long tick) {
+        Checkpoint checkpoint = findCheckpoint(tick);
+        if(checkpoint != null && (tick < game.getTick() || game.getTick() < checkpoint.snapshot.getTick())) {
+            restore(checkpoint);
+        }
+
+        while(game.getTick() < tick && !game.isGameFinished()) {
+            game.step();
+        }
+    }
+
+    /**
+     * Plays the rest of the replay, up to the tick the recorded session ended in
+     * @return true if the game ended up in the state it was recorded in, or the replay has no state to check against
+     */
+    public boolean playToEnd() {
+        while(replayReader.hasNext() && !game.isGameFinished()) {
+            seek(replayReader.peekTick() + 1);
+        }
+        seek(replayReader.peekTick());
+
+        return !replayReader.getRecordedStateHash().isPresent()
+                || replayReader.getRecordedStateHash().getAsLong() == game.stateHash();
+    }
+
+    // encoded size of all snapshots taken, in bytes
+    public long getSnapshotSize() {
+        long size = 0;
+        for(Checkpoint checkpoint: checkpoints) {
+            size += checkpoint.snapshot.getSize();
+        }
+        return size;
+    }
+
+    @Override
+    public void close() {
+        replayReader.close();
+    }
+
+    // snapshot of the game in between two ticks, once every snapshotTicks ticks not seen before
+    private void takeCheckpoint() {
+        long lastCheckpointTick = checkpoints.isEmpty() ? -1 : checkpoints.get(checkpoints.size() - 1).snapshot.getTick();
+        if(game.getTick() % snapshotTicks == 0 && game.getTick() > lastCheckpointTick) {
+            checkpoints.add(new Checkpoint(snapshotEncoder.encode(game), replayReader.mark()));
+        }
+    }
+
+    // last checkpoint at or before passed tick
+    private Checkpoint findCheckpoint(long tick) {
+        int low = 0;
+        int high = checkpoints.size() - 1;
+        int found = -1;
+
+        while(low <= high) {
+            int middle = (low + high) >>> 1;
+            if(checkpoints.get(middle).snapshot.getTick() <= tick) {
+                found = middle;
+                low = middle + 1;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return found == -1 ? null : checkpoints.get(found);
+    }
+
+    // decodes snapshots up to passed checkpoint, from the keyframe before it or from the snapshot decoded last
+    private void restore(Checkpoint checkpoint) {
+        Snapshot snapshot = checkpoint.snapshot;
+
+        if(snapshotDecoder.getTick() != snapshot.getTick()) {
+            int last = checkpoints.indexOf(checkpoint);
+            int first = last;
+            while(!checkpoints.get(first).snapshot.isKeyframe()
+                    && checkpoints.get(first).snapshot.getPreviousTick() != snapshotDecoder.getTick()) {
+                first--;
+            }
+
+            for(int index = first; index <= last; index++) {
+                snapshotDecoder.decode(checkpoints.get(index).snapshot);
+            }
+        }
+
+        snapshotDecoder.restore(game);
+        replayReader.reset(checkpoint.mark);
+    }
+}
@@ -0,0 +1,221 @@
+package in.shabhushan.tankfighter.game.replay;
+
+import in.shabhushan.tankfighter.game.enumeration.PlayerCommand;
+import in.shabhushan.tankfighter.game.util.Varint;
+
+import java.awt.Dimension;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.OptionalLong;
+
+import static in.shabhushan.tankfighter.game.replay.ReplayFormat.*;
+import static in.shabhushan.tankfighter.game.util.Defaults.DEFAULT_REPLAY_BUFFER_SIZE;
+
+/**
+ * Reads the commands of a replay file back in order, see {@link ReplayFormat} for the layout.
+ *
+ * The file is streamed through a direct buffer which is refilled from the file channel as records are consumed, so
+ * replays of any length are read in constant memory. The next record is always read ahead, {@link #peekTick()} tells
+ * when the next command is due. Should only be used from a single thread, normally the game loop thread.
+ */
+public class ReplayReader implements Closeable {
+
+    /**
+     * Position of a record in the replay, to go back to it via {@link #reset(Mark)}
+     */
+    public static final class Mark {
+        private final long position; // in the file
+        private final long previousTick; // tick of the record before, the record's tick is relative to it
+
+        private Mark(long position, long previousTick) {
+            this.position = position;
+            this.previousTick = previousTick;
+        }
+    }
+
+    private static final PlayerCommand[] COMMANDS = PlayerCommand.values();
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(DEFAULT_REPLAY_BUFFER_SIZE);
+
+    private final Dimension resolution;
+    private final Dimension worldSize;
+    private final long seed;
+
+    // file position of the first record
+    private final long recordsStart;
+
+    // file position of the first byte in the buffer
+    private long bufferPosition;
+
+    // record read ahead, and where it was read from
+    private long nextPosition;
+    private long previousTick;
+    private long nextTick;
+    private PlayerCommand nextCommand; // null once at end of the session
+    private OptionalLong recordedStateHash = OptionalLong.empty();
+
+    public ReplayReader(Path file) {
+        try {
+            channel = FileChannel.open(file, StandardOpenOption.READ);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to open replay " + file, e);
+        }
+
+        buffer.limit(0);
+        fill();
+
+        if(buffer.remaining() < Integer.BYTES || buffer.getInt() != MAGIC) {
+            close();
+            throw new IllegalStateException(file + " is not a replay");
+        }
+        int version = Varint.getInt(buffer);
+        if(version != VERSION) {
+            close();
+            throw new IllegalStateException("Unsupported replay version " + version + " of " + file);
+        }
+        resolution = new Dimension(Varint.getInt(buffer), Varint.getInt(buffer));
+        worldSize = new Dimension(Varint.getInt(buffer), Varint.getInt(buffer));
+        seed = buffer.getLong();
+
+        recordsStart = bufferPosition + buffer.position();
+
+        readAhead();
+    }
+
+    public Dimension getResolution() {
+        return resolution;
+    }
+
+    public Dimension getWorldSize() {
+        return worldSize;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Tick the next command is due in, or tick the session ended in if {@link #hasNext()} is false
+     */
+    public long peekTick() {
+        return nextTick;
+    }
+
+    public boolean hasNext() {
+        return nextCommand != null;
+    }
+
+    /**
+     * Returns next command and reads ahead the record after it
+     */
+    public PlayerCommand next() {
+        if(nextCommand == null) {
+            throw new IllegalStateException("Replay has ended");
+        }
+
+        PlayerCommand command = nextCommand;
+        readAhead();
+        return command;
+    }
+
+    /**
+     * State hash of the game at the end of the session, empty if the replay hasn't been read till the end yet, or was
+     * cut short
+     */
+    public OptionalLong getRecordedStateHash() {
+        return recordedStateHash;
+    }
+
+    /**
+     * Goes back to the first command of the replay
+     */
+    public void rewind() {
+        reset(new Mark(recordsStart, 0));
+    }
+
+    /**
+     * Position of the next record, i.e. the one {@link #peekTick()} is about
+     */
+    public Mark mark() {
+        return new Mark(nextPosition, previousTick);
+    }
+
+    /**
+     * Goes back, or forward, to the record at passed mark, taken from this reader
+     */
+    public void reset(Mark mark) {
+        try {
+            channel.position(mark.position);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to seek in replay", e);
+        }
+        bufferPosition = mark.position;
+        buffer.clear();
+        buffer.limit(0);
+
+        nextTick = mark.previousTick;
+        recordedStateHash = OptionalLong.empty();
+        readAhead();
+    }
+
+    @Override
+    public void close() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to close replay", e);
+        }
+    }
+
+    private void readAhead() {
+        if(buffer.remaining() < Varint.MAX_LONG_BYTES + Long.BYTES) {
+            fill();
+        }
+        nextPosition = bufferPosition + buffer.position();
+        previousTick = nextTick;
+
+        // file cut short, session ends with the last complete command
+        long record;
+        try {
+            record = Varint.getLong(buffer);
+        } catch (BufferUnderflowException e) {
+            nextCommand = null;
+            return;
+        }
+        nextTick += record >>> COMMAND_BITS;
+
+        int value = (int) (record & COMMAND_MASK);
+        if(value == END) {
+            nextCommand = null;
+            if(buffer.remaining() >= Long.BYTES) {
+                recordedStateHash = OptionalLong.of(buffer.getLong());
+            }
+        } else if(value < COMMANDS.length) {
+            nextCommand = COMMANDS[value];
+        } else {
+            throw new IllegalStateException("Unknown command " + value + " in replay");
+        }
+    }
+
+    // moves unread bytes to the start of the buffer and reads as much of the file as fits after them
+    private void fill() {
+        bufferPosition += buffer.position();
+        buffer.compact();
+        try {
+            while(buffer.hasRemaining() && channel.read(buffer) > 0) {
+                // keep reading until buffer is full or file has ended
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to read replay", e);
+        } finally {
+            buffer.flip();
+        }
+    }
+}
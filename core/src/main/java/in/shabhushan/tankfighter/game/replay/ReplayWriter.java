@@ -0,0 +1,108 @@
+package in.shabhushan.tankfighter.game.replay;
+
+import in.shabhushan.tankfighter.game.enumeration.PlayerCommand;
+import in.shabhushan.tankfighter.game.util.Varint;
+
+import java.awt.Dimension;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static in.shabhushan.tankfighter.game.replay.ReplayFormat.*;
+import static in.shabhushan.tankfighter.game.util.Defaults.DEFAULT_REPLAY_BUFFER_SIZE;
+
+/**
+ * Records the commands of a player into a replay file, see {@link ReplayFormat} for the layout.
+ *
+ * Records are collected in a direct buffer and written to the file channel whenever it fills up, so recording a
+ * command doesn't touch the disk most of the time. Should only be used from the game loop thread.
+ */
+public class ReplayWriter implements Closeable {
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(DEFAULT_REPLAY_BUFFER_SIZE);
+
+    private long lastTick;
+    private boolean finished;
+
+    /**
+     * Creates or overwrites passed file with the header of a game
+     */
+    public ReplayWriter(Path file, Dimension resolution, Dimension worldSize, long seed) {
+        try {
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to create replay " + file, e);
+        }
+
+        buffer.putInt(MAGIC);
+        Varint.putInt(buffer, VERSION);
+        Varint.putInt(buffer, resolution.width);
+        Varint.putInt(buffer, resolution.height);
+        Varint.putInt(buffer, worldSize.width);
+        Varint.putInt(buffer, worldSize.height);
+        buffer.putLong(seed);
+    }
+
+    /**
+     * Records passed command as applied in passed tick, ticks must not decrease between two calls
+     */
+    public void write(long tick, PlayerCommand command) {
+        putRecord(tick, command.ordinal());
+    }
+
+    /**
+     * Ends the session at passed tick, recording the state hash of the game to check playback against
+     */
+    public void finish(long tick, long stateHash) {
+        if(finished) {
+            return;
+        }
+        putRecord(tick, END);
+        buffer.putLong(stateHash);
+        finished = true;
+    }
+
+    /**
+     * Writes buffered records to the file
+     */
+    public void flush() {
+        buffer.flip();
+        try {
+            while(buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to write replay", e);
+        } finally {
+            buffer.clear();
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            flush();
+        } finally {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Unable to close replay", e);
+            }
+        }
+    }
+
+    private void putRecord(long tick, int value) {
+        if(buffer.remaining() < Varint.MAX_LONG_BYTES + Long.BYTES) {
+            flush();
+        }
+
+        Varint.putLong(buffer, (tick - lastTick) << COMMAND_BITS | value);
+        lastTick = tick;
+    }
+}
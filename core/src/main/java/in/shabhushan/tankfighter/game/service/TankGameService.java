@@ -6,5 +6,46 @@ package in.shabhushan.tankfighter.game.service;
  */
 public interface TankGameService {
     public void startGame();
+
+    /**
+     * Starts a game, recording the player's commands into passed replay file. Files are passed by their path, as
+     * that's what the shell can pass.
+     */
+    public void startGame(String replayFile);
+
     public void stopGame();
+
+    /**
+     * Simulates a game without any display, as fast as possible.
+     * @param ticks maximum number of game ticks to simulate
+     * @return number of ticks simulated before the game finished
+     */
+    public int simulateGame(int ticks);
+
+    /**
+     * Plays a recorded game back on screen
+     * @param speed how fast to play, 1 being the speed it was recorded at
+     */
+    public void replayGame(String replayFile, double speed);
+
+    /**
+     * Moves the game being replayed on screen to passed tick, backward or forward
+     */
+    public void seekReplay(long tick);
+
+    /**
+     * Plays a recorded game back without any display, as fast as possible.
+     * @return true if the game ended up in the same state as when it was recorded
+     */
+    public boolean simulateReplay(String replayFile);
+
+    /**
+     * Starts an authoritative game server without any display, players connect to it over TCP
+     * @param port port to listen at, 0 for any free port
+     * @return port the server is listening at
+     * @throws IllegalStateException if a server is running already, it has to be stopped first
+     */
+    public int startServer(int port);
+
+    public void stopServer();
 }
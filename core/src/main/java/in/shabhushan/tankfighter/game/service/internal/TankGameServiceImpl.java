@@ -1,12 +1,25 @@
 package in.shabhushan.tankfighter.game.service.internal;
 
+import in.shabhushan.tankfighter.game.engine.GameCanvas;
 import in.shabhushan.tankfighter.game.game.TankFighterGameEngine;
 import in.shabhushan.tankfighter.game.listener.GameKeyListener;
+import in.shabhushan.tankfighter.game.network.GameServer;
+import in.shabhushan.tankfighter.game.render.TankFighterRenderer;
+import in.shabhushan.tankfighter.game.replay.ReplayPlayer;
+import in.shabhushan.tankfighter.game.replay.ReplayWriter;
 import in.shabhushan.tankfighter.game.service.TankGameService;
 
 import javax.swing.*;
 import java.awt.*;
+import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
+import java.net.InetSocketAddress;
+import java.nio.file.Paths;
+
+import static in.shabhushan.tankfighter.game.util.Defaults.DEFAULT_DIRTY_REGION_RENDERING;
+import static in.shabhushan.tankfighter.game.util.Defaults.DEFAULT_RANDOM_SEED;
+import static in.shabhushan.tankfighter.game.util.Defaults.DEFAULT_SIMULATION_RESOLUTION;
+import static in.shabhushan.tankfighter.game.util.Defaults.DEFAULT_WORLD_SCALE;
 
 /**
  * @author Shashi Bhushan
@@ -16,27 +29,123 @@ public class TankGameServiceImpl implements TankGameService {
 
     JFrame gameFrame;
     private TankFighterGameEngine tankFighterGameEngine;
+    private ReplayPlayer replayPlayer; // set while a game is replayed
+    private GameServer gameServer;
+
+    // longest time to wait for the game loop to finish up when the window is closed
+    private static final long STOP_TIMEOUT = 1000;
 
     @Override
     public void startGame() {
-        gameFrame = new JFrame();
+        startGame(null);
+    }
 
+    @Override
+    public void startGame(String replayFile) {
         Toolkit defaultToolkit = Toolkit.getDefaultToolkit();
         Dimension screenSize = defaultToolkit.getScreenSize();
 
-        tankFighterGameEngine = new TankFighterGameEngine(screenSize);
+        Dimension worldSize = new Dimension(screenSize.width * DEFAULT_WORLD_SCALE, screenSize.height * DEFAULT_WORLD_SCALE);
+
+        tankFighterGameEngine = new TankFighterGameEngine(screenSize, worldSize, DEFAULT_RANDOM_SEED);
+        if(replayFile != null) {
+            tankFighterGameEngine.setReplayWriter(
+                    new ReplayWriter(Paths.get(replayFile), screenSize, worldSize, tankFighterGameEngine.getSeed()));
+        }
+
+        showGame();
+        gameFrame.addKeyListener(new GameKeyListener(tankFighterGameEngine));
+        tankFighterGameEngine.start();
+    }
+
+    @Override
+    public void replayGame(String replayFile, double speed) {
+        replayPlayer = new ReplayPlayer(Paths.get(replayFile));
+
+        tankFighterGameEngine = replayPlayer.getGame();
+        tankFighterGameEngine.setSpeed(speed);
+
+        showGame();
+        tankFighterGameEngine.start();
+    }
+
+    @Override
+    public void seekReplay(long tick) {
+        ReplayPlayer player = replayPlayer;
+        if(player == null) {
+            throw new IllegalStateException("No game is being replayed");
+        }
+
+        player.getGame().invokeLater(() -> player.seek(tick));
+    }
+
+    private void showGame() {
+        gameFrame = new JFrame();
         gameFrame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
-        gameFrame.add(tankFighterGameEngine);
+
+        // let the game loop finish, e.g. writing the replay, before the application exits
+        gameFrame.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent e) {
+                if(tankFighterGameEngine != null) {
+                    tankFighterGameEngine.stopAndWait(STOP_TIMEOUT);
+                }
+            }
+        });
+
+        GameCanvas gameCanvas = new GameCanvas(tankFighterGameEngine, new TankFighterRenderer(tankFighterGameEngine));
+        gameCanvas.setDirtyRegionRendering(DEFAULT_DIRTY_REGION_RENDERING);
+        gameFrame.add(gameCanvas);
         gameFrame.pack();
         gameFrame.setVisible(true);
-        gameFrame.addKeyListener(new GameKeyListener(tankFighterGameEngine.getPlayerTank()));
-        tankFighterGameEngine.start();
+    }
+
+    @Override
+    public int simulateGame(int ticks) {
+        TankFighterGameEngine headlessGameEngine = new TankFighterGameEngine(DEFAULT_SIMULATION_RESOLUTION);
+
+        return headlessGameEngine.simulate(ticks);
+    }
+
+    @Override
+    public boolean simulateReplay(String replayFile) {
+        try (ReplayPlayer replayPlayer = new ReplayPlayer(Paths.get(replayFile))) {
+            return replayPlayer.playToEnd();
+        }
+    }
+
+    @Override
+    public int startServer(int port) {
+        if(gameServer != null) {
+            throw new IllegalStateException("Server is running already at port " + gameServer.getPort());
+        }
+
+        Dimension worldSize = new Dimension(DEFAULT_SIMULATION_RESOLUTION.width * DEFAULT_WORLD_SCALE,
+                DEFAULT_SIMULATION_RESOLUTION.height * DEFAULT_WORLD_SCALE);
 
+        gameServer = new GameServer(new TankFighterGameEngine(DEFAULT_SIMULATION_RESOLUTION, worldSize),
+                new InetSocketAddress(port));
+        gameServer.start();
+
+        return gameServer.getPort();
+    }
+
+    @Override
+    public void stopServer() {
+        if(gameServer != null) {
+            gameServer.close();
+            gameServer = null;
+        }
     }
 
     @Override
     public void stopGame() {
-        tankFighterGameEngine.stop();
+        tankFighterGameEngine.stopAndWait(STOP_TIMEOUT);
+
+        if(replayPlayer != null) {
+            replayPlayer.close();
+            replayPlayer = null;
+        }
 
         tankFighterGameEngine = null;
         gameFrame.dispatchEvent(new WindowEvent(gameFrame, WindowEvent.WINDOW_CLOSING));
@@ -0,0 +1,99 @@
+package in.shabhushan.tankfighter.game.snapshot;
+
+import in.shabhushan.tankfighter.game.util.Varint;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Encodes a state as the bytes that changed against a previous state.
+ *
+ * Both states are xor-ed, bytes which didn't change come out as zero. The result is written as the length of the
+ * state, followed by runs of a varint count of zero bytes to skip, a varint count of literal bytes and the literal
+ * xor-ed bytes. Zeros at the end aren't written at all. Literal runs only end at {@link #MIN_ZERO_RUN} zeros in a row,
+ * so single unchanged bytes in the middle of a changed value don't cost a run each.
+ */
+final class DeltaCodec {
+
+    private static final int MIN_ZERO_RUN = 4;
+
+    private DeltaCodec() {}
+
+    /**
+     * @param base previous state, bytes beyond baseLength count as zero
+     * @param state state to encode
+     * @param output buffer to write to, must hold at least {@link #maxEncodedLength(int)} bytes
+     */
+    static void encode(byte[] base, int baseLength, byte[] state, int length, ByteBuffer output) {
+        Varint.putInt(output, length);
+
+        int position = 0;
+        while(position < length) {
+            int zeroRunStart = position;
+            while(position < length && xor(base, baseLength, state, position) == 0) {
+                position++;
+            }
+            if(position == length) {
+                break;
+            }
+
+            int literalStart = position;
+            int literalEnd = position;
+            int zeros = 0;
+            while(position < length && zeros < MIN_ZERO_RUN) {
+                if(xor(base, baseLength, state, position) == 0) {
+                    zeros++;
+                } else {
+                    zeros = 0;
+                    literalEnd = position + 1;
+                }
+                position++;
+            }
+            position = literalEnd;
+
+            Varint.putInt(output, literalStart - zeroRunStart);
+            Varint.putInt(output, literalEnd - literalStart);
+            for(int index = literalStart; index < literalEnd; index++) {
+                output.put(xor(base, baseLength, state, index));
+            }
+        }
+    }
+
+    /**
+     * Reads the length of the encoded state, the first thing {@link #encode} writes
+     */
+    static int decodeLength(ByteBuffer input) {
+        return Varint.getInt(input);
+    }
+
+    /**
+     * Turns passed previous state into the encoded one, in place
+     * @param state previous state, must be able to hold length bytes
+     * @param length length of the encoded state, as read by {@link #decodeLength(ByteBuffer)}
+     */
+    static void decode(byte[] state, int stateLength, int length, ByteBuffer input) {
+        // bytes beyond previous state count as zero
+        if(stateLength < length) {
+            Arrays.fill(state, stateLength, length, (byte) 0);
+        }
+
+        int position = 0;
+        while(input.hasRemaining()) {
+            position += Varint.getInt(input);
+
+            int literalLength = Varint.getInt(input);
+            for(int index = 0; index < literalLength; index++) {
+                state[position++] ^= input.get();
+            }
+        }
+    }
+
+    // worst case: a single literal byte between each run of zeros, with a varint of at most 5 bytes for each count
+    static int maxEncodedLength(int length) {
+        return 5 + length + 10 * (length / (MIN_ZERO_RUN + 1) + 1);
+    }
+
+    private static byte xor(byte[] base, int baseLength, byte[] state, int index) {
+        return (byte) (index < baseLength ? state[index] ^ base[index] : state[index]);
+    }
+}
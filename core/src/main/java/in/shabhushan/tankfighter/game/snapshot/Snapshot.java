@@ -0,0 +1,41 @@
+package in.shabhushan.tankfighter.game.snapshot;
+
+/**
+ * State of a game at a tick, as encoded by a {@link SnapshotEncoder}.
+ *
+ * A keyframe holds the whole state, any other snapshot only the changes since the snapshot encoded before it, so it
+ * can only be decoded right after that one.
+ */
+public final class Snapshot {
+
+    private final long tick;
+    private final long previousTick; // tick of the snapshot this one is a delta against, -1 for keyframes
+    private final byte[] data;
+
+    Snapshot(long tick, long previousTick, byte[] data) {
+        this.tick = tick;
+        this.previousTick = previousTick;
+        this.data = data;
+    }
+
+    public long getTick() {
+        return tick;
+    }
+
+    public long getPreviousTick() {
+        return previousTick;
+    }
+
+    public boolean isKeyframe() {
+        return previousTick == -1;
+    }
+
+    // encoded size in bytes
+    public int getSize() {
+        return data.length;
+    }
+
+    byte[] getData() {
+        return data;
+    }
+}
@@ -0,0 +1,56 @@
+package in.shabhushan.tankfighter.game.snapshot;
+
+import in.shabhushan.tankfighter.game.engine.GameEngine;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Decodes snapshots taken by a {@link SnapshotEncoder} and puts games back into their state.
+ *
+ * Decoding starts at a keyframe, every snapshot after it is applied on top of the state decoded last, in the order
+ * they were taken.
+ */
+public class SnapshotDecoder {
+
+    private byte[] state = new byte[0];
+    private int length;
+    private long tick = -1;
+
+    /**
+     * Decodes passed snapshot
+     * @throws IllegalStateException if it's neither a keyframe nor the snapshot taken right after the one decoded last
+     */
+    public void decode(Snapshot snapshot) {
+        if(!snapshot.isKeyframe() && snapshot.getPreviousTick() != tick) {
+            throw new IllegalStateException("Snapshot of tick " + snapshot.getTick() + " needs the one of tick "
+                    + snapshot.getPreviousTick() + " decoded first");
+        }
+
+        ByteBuffer input = ByteBuffer.wrap(snapshot.getData());
+        int newLength = DeltaCodec.decodeLength(input);
+
+        if(state.length < newLength) {
+            state = Arrays.copyOf(state, newLength);
+        }
+        DeltaCodec.decode(state, snapshot.isKeyframe() ? 0 : length, newLength, input);
+
+        length = newLength;
+        tick = snapshot.getTick();
+    }
+
+    // tick of the snapshot decoded last, -1 if none
+    public long getTick() {
+        return tick;
+    }
+
+    /**
+     * Puts passed game into the state decoded last, see {@link GameEngine#readState(ByteBuffer)}
+     */
+    public void restore(GameEngine game) {
+        if(tick == -1) {
+            throw new IllegalStateException("No snapshot decoded yet");
+        }
+        game.readState(ByteBuffer.wrap(state, 0, length));
+    }
+}
@@ -0,0 +1,92 @@
+package in.shabhushan.tankfighter.game.snapshot;
+
+import in.shabhushan.tankfighter.game.engine.GameEngine;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import static in.shabhushan.tankfighter.game.util.Defaults.DEFAULT_SNAPSHOT_BUFFER_SIZE;
+
+/**
+ * Takes snapshots of a game, each one encoded as delta against the one taken before it.
+ *
+ * The state written by {@link GameEngine#writeState(ByteBuffer)} has fixed width fields, and large parts of it, like
+ * the grid, are always at the same place in it. Between two snapshots most of it stays the same, so a delta is a small
+ * fraction of the whole state. Every keyframeInterval snapshots a keyframe is taken, so decoding a snapshot never
+ * needs more than that many snapshots before it.
+ *
+ * Buffers are reused between snapshots, only the encoded snapshot is allocated.
+ */
+public class SnapshotEncoder {
+
+    private final int keyframeInterval;
+
+    private ByteBuffer state = ByteBuffer.allocate(DEFAULT_SNAPSHOT_BUFFER_SIZE);
+    private byte[] previousState = new byte[0];
+    private int previousLength;
+    private long previousTick = -1;
+
+    private ByteBuffer encoded = ByteBuffer.allocate(0);
+
+    // snapshots taken since last keyframe
+    private int deltas;
+
+    /**
+     * @param keyframeInterval one in this many snapshots holds the whole state
+     */
+    public SnapshotEncoder(int keyframeInterval) {
+        this.keyframeInterval = Math.max(1, keyframeInterval);
+    }
+
+    /**
+     * Takes a snapshot of passed game, which must be between two ticks and ahead of the previous snapshot
+     */
+    public Snapshot encode(GameEngine game) {
+        writeState(game);
+
+        boolean keyframe = previousTick == -1 || deltas + 1 >= keyframeInterval;
+        int length = state.position();
+
+        int maxEncodedLength = DeltaCodec.maxEncodedLength(length);
+        if(encoded.capacity() < maxEncodedLength) {
+            encoded = ByteBuffer.allocate(maxEncodedLength);
+        }
+        encoded.clear();
+        DeltaCodec.encode(previousState, keyframe ? 0 : previousLength, state.array(), length, encoded);
+
+        Snapshot snapshot = new Snapshot(game.getTick(), keyframe ? -1 : previousTick,
+                Arrays.copyOf(encoded.array(), encoded.position()));
+
+        if(previousState.length < length) {
+            previousState = new byte[state.capacity()];
+        }
+        System.arraycopy(state.array(), 0, previousState, 0, length);
+        previousLength = length;
+        previousTick = game.getTick();
+        deltas = keyframe ? 0 : deltas + 1;
+
+        return snapshot;
+    }
+
+    /**
+     * Forgets the previous snapshot, the next one is a keyframe
+     */
+    public void reset() {
+        previousTick = -1;
+        previousLength = 0;
+    }
+
+    // state buffer grows until the whole state fits
+    private void writeState(GameEngine game) {
+        while(true) {
+            state.clear();
+            try {
+                game.writeState(state);
+                return;
+            } catch (BufferOverflowException e) {
+                state = ByteBuffer.allocate(state.capacity() * 2);
+            }
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package in.shabhushan.tankfighter.game.system;
+
+import in.shabhushan.tankfighter.game.engine.EntityStore;
+import in.shabhushan.tankfighter.game.engine.GameEngine;
+import in.shabhushan.tankfighter.game.enumeration.ObjectType;
+
+import static in.shabhushan.tankfighter.game.util.Defaults.DEFAULT_BOMB_FRAMES;
+import static in.shabhushan.tankfighter.game.util.Defaults.DEFAULT_BOMB_FRAME_TIME;
+import static in.shabhushan.tankfighter.game.util.Defaults.DEFAULT_TANK_OBJECT_SIZE;
+
+/**
+ * Bombs are placed where a tank is destroyed, they display their frames one by one and disappear afterwards.
+ *
+ * A Bomb is just an entity in the {@link EntityStore}, it's health being the number of ticks it has left to live.
+ */
+public class BombSystem {
+
+    private final GameEngine game;
+    private final EntityStore entityStore;
+
+    // ticks each frame of a bomb is displayed
+    private final int frameTicks;
+
+    public BombSystem(GameEngine game) {
+        this.game = game;
+        this.entityStore = game.getEntityStore();
+        this.frameTicks = game.millisecondsToTicks(DEFAULT_BOMB_FRAME_TIME);
+    }
+
+    /**
+     * Places a new Bomb at passed position
+     * @return id of the bomb entity
+     */
+    public int spawn(int horizontalPosition, int verticalPosition) {
+        int id = game.nextObjectId();
+        int index = entityStore.add(id, ObjectType.BOMB, horizontalPosition, verticalPosition);
+
+        entityStore.setSize(index, DEFAULT_TANK_OBJECT_SIZE);
+        entityStore.setHealth(index, frameTicks * DEFAULT_BOMB_FRAMES);
+
+        return id;
+    }
+
+    /**
+     * Ages all bombs by a tick, removing the ones that have displayed all their frames
+     */
+    public void update() {
+        for(int index = 0; index < entityStore.size(); ) {
+            if(entityStore.getObjectType(index) != ObjectType.BOMB) {
+                index++;
+                continue;
+            }
+
+            int health = entityStore.getHealth(index) - 1;
+
+            if(health <= 0) {
+                // last entity takes it's index, hence don't move to next index
+                entityStore.remove(index);
+            } else {
+                entityStore.setHealth(index, health);
+                index++;
+            }
+        }
+    }
+
+    /**
+     * Frame of the bomb at passed index to display, counts down from DEFAULT_BOMB_FRAMES - 1 to zero
+     */
+    public int getFrame(int index) {
+        return (entityStore.getHealth(index) - 1) / frameTicks;
+    }
+}
@@ -0,0 +1,71 @@
+package in.shabhushan.tankfighter.game.system;
+
+import in.shabhushan.tankfighter.game.enumeration.Direction;
+import in.shabhushan.tankfighter.game.game.TankFighterGameEngine;
+import in.shabhushan.tankfighter.game.model.Tank;
+import in.shabhushan.tankfighter.game.model.impl.EnemyTank;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static in.shabhushan.tankfighter.game.util.Defaults.DEFAULT_AI_PARALLEL_THRESHOLD;
+
+/**
+ * Lets all enemy tanks decide and act, once every decision time.
+ *
+ * Deciding happens in two phases. First every tank makes it's decision (direction to move and to fire into) looking at
+ * the game as it is, which only reads the game, hence decisions of many tanks are made in parallel on the common
+ * ForkJoinPool. Then the decisions are carried out one by one on the game loop thread, in the order of the tanks in
+ * their handler: a tank moving into space claimed by a tank before it in the same round finds it occupied, and looks
+ * for another way. The outcome is thus the same no matter how many threads made the decisions.
+ */
+public class EnemyAiSystem implements Runnable {
+
+    private final TankFighterGameEngine game;
+
+    // decisions of current round, per index of tank in enemy tanks
+    private Direction[] directions = new Direction[64];
+    private Direction[] fireDirections = new Direction[64];
+
+    public EnemyAiSystem(TankFighterGameEngine game) {
+        this.game = game;
+    }
+
+    /**
+     * Runs a round of decisions, scheduled on the game loop once every decision time
+     */
+    @Override
+    public void run() {
+        List<Tank> enemyTanks = game.getEnemyTanks();
+        int size = enemyTanks.size();
+
+        if(directions.length < size) {
+            directions = new Direction[Math.max(size, directions.length * 2)];
+            fireDirections = new Direction[directions.length];
+        }
+
+        // few tanks decide faster than the pool can hand out their work
+        if(size < DEFAULT_AI_PARALLEL_THRESHOLD) {
+            for(int index = 0; index < size; index++) {
+                decide(enemyTanks, index);
+            }
+        } else {
+            IntStream.range(0, size).parallel().forEach(index -> decide(enemyTanks, index));
+        }
+
+        for(int index = 0; index < size; index++) {
+            ((EnemyTank) enemyTanks.get(index)).act(directions[index], fireDirections[index]);
+        }
+
+        Arrays.fill(directions, 0, size, null);
+        Arrays.fill(fireDirections, 0, size, null);
+    }
+
+    private void decide(List<Tank> enemyTanks, int index) {
+        EnemyTank enemyTank = (EnemyTank) enemyTanks.get(index);
+
+        directions[index] = enemyTank.chooseDirection();
+        fireDirections[index] = enemyTank.chooseFireDirection();
+    }
+}
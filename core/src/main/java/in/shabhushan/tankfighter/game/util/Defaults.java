@@ -10,6 +10,18 @@ public final class Defaults {
     public static final int DEFAULT_TANK_BLOCK_WIDTH = 9;
     public static final int DEFAULT_TANK_BLOCK_DISTANCE = 10;
     public static final int DEFAULT_TANK_OBJECT_SIZE = DEFAULT_TANK_BLOCK_DISTANCE * 3;
+    public static final int DEFAULT_TANK_HEALTH = 1; // bullets a tank survives is one less than this
+
+    // AI tanks move by block distance, so their footprints are always aligned to cells. Player tanks move by
+    // DEFAULT_PLAYER_TANK_SPEED, which isn't a multiple of it: half the time their footprint straddles one more cell
+    // each way and blocks 40 instead of 30 pixels. Finer cells would take that away, but path finding and the flow
+    // field take a cell to be a move of an AI tank.
+    public static final int DEFAULT_GRID_CELL_SIZE = DEFAULT_TANK_BLOCK_DISTANCE;
+    public static final int DEFAULT_GRID_LOCK_STRIPES = 16;
+
+    // Spatial hash cells of 64 pixels, a tank touches at most 4 cells
+    public static final int DEFAULT_SPATIAL_HASH_CELL_SHIFT = 6;
+    public static final int DEFAULT_SPATIAL_HASH_BUCKETS = 4096;
 
     public static final int DEFAULT_BULLET_BLOCK_WIDTH = 6;
     public static final int DEFAULT_BULLET_BLOCK_DISTANCE = 12;
@@ -21,11 +33,51 @@ public final class Defaults {
     public static final int DEFAULT_AI_TANK_NUMBER = 10;
     public static final Color DEFAULT_AI_TANK_COLOR = Color.BLACK;
     public static final int DEFAULT_AI_TANK_SPEED = 10;
+    public static final int DEFAULT_AI_TANK_DECISION_TIME = 1000; // milliseconds between two moves of an AI tank
+    public static final int DEFAULT_AI_PARALLEL_THRESHOLD = 64; // AI tanks below this number decide on game loop alone
+
+    // AI tanks find their way along paths of grid cells, a path step is as long as a move of an AI tank
+    public static final int DEFAULT_PATH_EXPANSIONS_PER_TICK = 20000;
+    public static final int DEFAULT_PATH_SEARCH_EXPANSIONS = 4000;
+    public static final int DEFAULT_PATH_REPLAN_DISTANCE = 3; // cells the target may move before a path is planned again
+    public static final int DEFAULT_PATH_REPAIR_LOOKAHEAD = 8;
+    public static final int DEFAULT_PATH_REPAIR_EXPANSIONS = 500;
+    public static final int DEFAULT_FLOW_FIELD_TICKS = 30; // ticks between two updates of the flow field to the player
+
+    public static final int DEFAULT_BOMB_FRAME_TIME = 200; // milliseconds each image of a bomb is displayed
+    public static final int DEFAULT_BOMB_FRAMES = 3;
 
     public static final Color DEFAULT_AI_BULLET_COLOR = Color.RED;
     public static final Color DEFAULT_PLAYER_BULLET_COLOR = Color.BLUE;
     public static final int DEFAULT_BULLET_SPEED = 20;
     public static final int DEFAULT_BULLET_COUNT = 5;
+    public static final int DEFAULT_BULLET_POOL_CAPACITY = 256;
 
     public static final int DEFAULT_FRAME_RATE = 60;
+    public static final int DEFAULT_TICK_RATE = 60;
+    public static final int DEFAULT_MAX_TICKS_PER_FRAME = 5;
+    public static final int DEFAULT_SCHEDULER_WHEEL_SIZE = 512;
+
+    // repaint only changed regions of the screen instead of whole frames
+    public static final boolean DEFAULT_DIRTY_REGION_RENDERING = false;
+    public static final int DEFAULT_DIRTY_REGIONS = 32;
+
+    // playing field is this many screens wide and high, the view scrolls along with the player
+    public static final int DEFAULT_WORLD_SCALE = 3;
+
+    public static final long DEFAULT_RANDOM_SEED = 0x5eedL;
+
+    public static final int DEFAULT_REPLAY_BUFFER_SIZE = 64 * 1024; // bytes of a replay buffered in memory
+
+    // replays keep a snapshot every this many ticks to seek in, every few snapshots holding the whole state
+    public static final int DEFAULT_SNAPSHOT_TICKS = 600;
+    public static final int DEFAULT_SNAPSHOT_KEYFRAME_INTERVAL = 10;
+    public static final int DEFAULT_SNAPSHOT_BUFFER_SIZE = 64 * 1024; // initial size, grows as needed
+
+    // authoritative game server, players connect over TCP
+    public static final int DEFAULT_SERVER_PORT = 7357;
+    public static final int DEFAULT_SERVER_INPUTS_PER_TICK = 2; // commands of a single player applied per tick at most
+    public static final int DEFAULT_NETWORK_BUFFER_SIZE = 64 * 1024; // bytes buffered per connection and direction
+
+    public static final Dimension DEFAULT_SIMULATION_RESOLUTION = new Dimension(1920, 1080);
 }
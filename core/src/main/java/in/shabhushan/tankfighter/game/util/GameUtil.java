@@ -1,8 +1,9 @@
 package in.shabhushan.tankfighter.game.util;
 
+import in.shabhushan.tankfighter.game.engine.BulletPool;
 import in.shabhushan.tankfighter.game.engine.GameEngine;
+import in.shabhushan.tankfighter.game.engine.GameGrid;
 import in.shabhushan.tankfighter.game.enumeration.Direction;
-import in.shabhushan.tankfighter.game.model.Bullet;
 import in.shabhushan.tankfighter.game.model.GameObject;
 import in.shabhushan.tankfighter.game.model.Tank;
 
@@ -11,27 +12,38 @@ import static in.shabhushan.tankfighter.game.enumeration.Direction.*;
 public final class GameUtil {
 
     public static final boolean objectWithinBoundary(GameObject gameObject, GameEngine game) {
+        return objectWithinBoundary(gameObject.getHorizontalPosition(), gameObject.getVerticalPosition(),
+                gameObject.getDirection(), game);
+    }
+
+    public static final boolean objectWithinBoundary(int horizontalPosition, int verticalPosition, Direction direction, GameEngine game) {
+        return objectWithinBoundary(horizontalPosition, verticalPosition, direction, game.getWidth(), game.getHeight());
+    }
+
+    // same check for a playing field of passed size, e.g. on a client which only knows the size of the server's game
+    public static final boolean objectWithinBoundary(int horizontalPosition, int verticalPosition, Direction direction,
+                                                     int width, int height) {
         boolean withoutBoundary = false;
 
-        switch (gameObject.getDirection()) {
+        switch (direction) {
             // for UP and LEFT, check only if position is greater than zero
             case UP:
-                if(0 < gameObject.getVerticalPosition()) {
+                if(0 < verticalPosition) {
                     withoutBoundary = true;
                 }
                 break;
             case DOWN:
-                if(gameObject.getVerticalPosition() < game.getHeight() - 33 ) {
+                if(verticalPosition < height - 33 ) {
                     withoutBoundary = true;
                 }
                 break;
             case LEFT:
-                if(0 < gameObject.getHorizontalPosition()) {
+                if(0 < horizontalPosition) {
                     withoutBoundary = true;
                 }
                 break;
             case RIGHT:
-                if(gameObject.getHorizontalPosition() < game.getWidth() - 33 ) {
+                if(horizontalPosition < width - 33 ) {
                     withoutBoundary = true;
                 }
                 break;
@@ -66,20 +78,111 @@ public final class GameUtil {
         return direction;
     }
 
-    public static final boolean objectInLineOfSight(GameObject enemyTank, GameObject playerTank) {
-        return Math.abs(enemyTank.getHorizontalPosition() - playerTank.getHorizontalPosition()) < 20
-                || Math.abs(enemyTank.getVerticalPosition() - playerTank.getVerticalPosition()) < 20;
+    /**
+     * Checks whether playerTank can be shot at from enemyTank: both have to be in a line along a row or a column, as
+     * that's how bullets fly, and no occupied cell of the game grid may lie between them.
+     * Only reads the grid, without locking it.
+     * @return direction enemyTank has to fire into to hit playerTank, null if playerTank isn't in line of sight
+     */
+    public static final Direction objectInLineOfSight(GameObject enemyTank, GameObject playerTank) {
+        int horizontalDistance = enemyTank.getHorizontalPosition() - playerTank.getHorizontalPosition();
+        int verticalDistance = enemyTank.getVerticalPosition() - playerTank.getVerticalPosition();
+
+        GameGrid gameGrid = enemyTank.getGame().getGameGrid();
+
+        // cells strictly between the tanks, along the row or column through the middle of enemy tank
+        if(Math.abs(verticalDistance) < 20) {
+            GameObject left = horizontalDistance < 0 ? enemyTank : playerTank;
+            GameObject right = horizontalDistance < 0 ? playerTank : enemyTank;
+            int row = gameGrid.toCell(enemyTank.getVerticalPosition() + enemyTank.getObjectSize() / 2);
+
+            if(isLineOccupied(gameGrid, row, gameGrid.toCell(left.getHorizontalPosition() + left.getObjectSize() - 1) + 1,
+                    row, gameGrid.toCell(right.getHorizontalPosition()) - 1)) {
+                return null;
+            }
+            return horizontalDistance < 0 ? RIGHT : LEFT;
+        }
+
+        if(Math.abs(horizontalDistance) < 20) {
+            GameObject top = verticalDistance < 0 ? enemyTank : playerTank;
+            GameObject bottom = verticalDistance < 0 ? playerTank : enemyTank;
+            int column = gameGrid.toCell(enemyTank.getHorizontalPosition() + enemyTank.getObjectSize() / 2);
+
+            if(isLineOccupied(gameGrid, gameGrid.toCell(top.getVerticalPosition() + top.getObjectSize() - 1) + 1, column,
+                    gameGrid.toCell(bottom.getVerticalPosition()) - 1, column)) {
+                return null;
+            }
+            return verticalDistance < 0 ? DOWN : UP;
+        }
+
+        return null;
     }
 
-    public static final boolean isTankHitByBullet(Tank tank, Bullet bullet) {
+    // nothing lies between tanks which are touching or overlapping, i.e. the line is empty
+    private static boolean isLineOccupied(GameGrid gameGrid, int fromRow, int fromColumn, int toRow, int toColumn) {
+        if(toRow < fromRow || toColumn < fromColumn) {
+            return false;
+        }
+
+        return gameGrid.isLineOccupied(fromRow, fromColumn, toRow, toColumn);
+    }
+
+    /**
+     * Checks whether bullet has hit the tank anywhere along the path it moved in the last tick, i.e. from it's previous
+     * to it's current position. Checking only the current position lets fast bullets tunnel through tanks, as they
+     * may move further than the size of a tank in one tick.
+     */
+    public static final boolean isTankHitByBullet(Tank tank, BulletPool bulletPool, int bullet) {
         int tankHorizontalPosition = tank.getHorizontalPosition();
         int tankVerticalPosition = tank.getVerticalPosition();
 
-        int bulletHorizontalPosition = bullet.getHorizontalPosition();
-        int bulletVerticalPosition = bullet.getVerticalPosition();
+        return segmentIntersectsBox(
+                bulletPool.getPreviousHorizontalPosition(bullet), bulletPool.getPreviousVerticalPosition(bullet),
+                bulletPool.getHorizontalPosition(bullet), bulletPool.getVerticalPosition(bullet),
+                tankHorizontalPosition, tankVerticalPosition,
+                tankHorizontalPosition + Tank.TANK_SIZE, tankVerticalPosition + Tank.TANK_SIZE);
+    }
+
+    /**
+     * Slab test of a line segment against an axis aligned box, box boundaries included.
+     * The segment is clipped against the box one axis at a time, it intersects the box if some part of it is left.
+     */
+    public static boolean segmentIntersectsBox(int startHorizontal, int startVertical, int endHorizontal, int endVertical,
+                                               int minHorizontal, int minVertical, int maxHorizontal, int maxVertical) {
+        double enter = 0;
+        double exit = 1;
+
+        int horizontalDistance = endHorizontal - startHorizontal;
+        if(horizontalDistance == 0) {
+            if(!withinRange(minHorizontal, maxHorizontal, startHorizontal)) {
+                return false;
+            }
+        } else {
+            double first = (double) (minHorizontal - startHorizontal) / horizontalDistance;
+            double second = (double) (maxHorizontal - startHorizontal) / horizontalDistance;
+
+            enter = Math.max(enter, Math.min(first, second));
+            exit = Math.min(exit, Math.max(first, second));
+            if(exit < enter) {
+                return false;
+            }
+        }
+
+        int verticalDistance = endVertical - startVertical;
+        if(verticalDistance == 0) {
+            return withinRange(minVertical, maxVertical, startVertical);
+        }
+
+        double first = (double) (minVertical - startVertical) / verticalDistance;
+        double second = (double) (maxVertical - startVertical) / verticalDistance;
+
+        enter = Math.max(enter, Math.min(first, second));
+        exit = Math.min(exit, Math.max(first, second));
+        return enter <= exit;
+    }
 
-        // if bullet is within tank's horizontal or vertical position
-        return objectWithinTankBoundary(tankHorizontalPosition, bulletHorizontalPosition) && objectWithinTankBoundary(tankVerticalPosition, bulletVerticalPosition);
+    private static boolean withinRange(int min, int max, int position) {
+        return min <= position && position <= max;
     }
 
     public static boolean objectWithinTankBoundary(int tankPositionCoordinate, int bulletPositionCoordinate) {
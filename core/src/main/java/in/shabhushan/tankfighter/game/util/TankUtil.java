@@ -1,31 +1,31 @@
 package in.shabhushan.tankfighter.game.util;
 
-import in.shabhushan.tankfighter.game.engine.GameEngine;
 import in.shabhushan.tankfighter.game.engine.GameGrid;
-import in.shabhushan.tankfighter.game.model.Bullet;
 import in.shabhushan.tankfighter.game.model.Tank;
 
-import java.util.List;
-import java.util.ListIterator;
-
 public class TankUtil {
-    public static void updateBulletsPosition(List<Bullet> bullets, GameEngine game) {
-        ListIterator<Bullet> bulletListIterator = bullets.listIterator();
-        while(bulletListIterator.hasNext()) {
-            Bullet bullet = bulletListIterator.next();
-
-            // Remove Last Bullet if it exceeds boundary
-            if(!GameUtil.objectWithinBoundary(bullet, game)) {
-                bulletListIterator.remove();
-            }
-
-            bullet.update();
-        }
-    }
-
     public static boolean isSpaceOccupied(int newHorizontalPosition, int newVerticalPosition, Tank self) {
         GameGrid gameGrid = self.getGame().getGameGrid();
 
         return gameGrid.isSpaceOccupied(newVerticalPosition, newHorizontalPosition, self.getObjectSize());
     }
+
+    /**
+     * Moves tank to passed position if it's not occupied by anything else. Checking and claiming the new position in
+     * Game Grid is atomic, so two tanks moving concurrently can never end up on the same space.
+     *
+     * @return true if tank has been moved
+     */
+    public static boolean moveTank(Tank tank, int newHorizontalPosition, int newVerticalPosition) {
+        GameGrid gameGrid = tank.getGame().getGameGrid();
+
+        if(gameGrid.moveSpace(tank.getVerticalPosition(), tank.getHorizontalPosition(),
+                newVerticalPosition, newHorizontalPosition, tank.getObjectSize())) {
+            tank.setHorizontalPosition(newHorizontalPosition);
+            tank.setVerticalPosition(newVerticalPosition);
+            return true;
+        }
+
+        return false;
+    }
 }
@@ -0,0 +1,52 @@
+package in.shabhushan.tankfighter.game.util;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Variable length encoding of non negative numbers, seven bits per byte with the high bit set on all but the last
+ * byte. Small numbers, like ticks between two inputs, take a single byte.
+ */
+public final class Varint {
+
+    public static final int MAX_LONG_BYTES = 10;
+
+    private Varint() {}
+
+    public static void putLong(ByteBuffer buffer, long value) {
+        while((value & ~0x7fL) != 0) {
+            buffer.put((byte) (value & 0x7f | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    public static long getLong(ByteBuffer buffer) {
+        long value = 0;
+        for(int shift = 0; shift < 64; shift += 7) {
+            byte b = buffer.get();
+            value |= (long) (b & 0x7f) << shift;
+            if(b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalStateException("Malformed varint");
+    }
+
+    public static void putInt(ByteBuffer buffer, int value) {
+        putLong(buffer, value & 0xffffffffL);
+    }
+
+    public static int getInt(ByteBuffer buffer) {
+        return (int) getLong(buffer);
+    }
+
+    // zigzag encoded, so small negative numbers take few bytes as well
+    public static void putSignedInt(ByteBuffer buffer, int value) {
+        putInt(buffer, (value << 1) ^ (value >> 31));
+    }
+
+    public static int getSignedInt(ByteBuffer buffer) {
+        int value = getInt(buffer);
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
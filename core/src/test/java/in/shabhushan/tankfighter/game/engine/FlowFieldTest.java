@@ -0,0 +1,48 @@
+package in.shabhushan.tankfighter.game.engine;
+
+import in.shabhushan.tankfighter.game.enumeration.Direction;
+import org.junit.Test;
+
+import java.awt.*;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class FlowFieldTest {
+
+    private static final int CELL_SIZE = 10;
+    private static final int TANK_SIZE = 30;
+
+    /**
+     * Grid of 100 columns, 2 words per row, and 10 rows. A wall in column 64, the first column of the second word,
+     * leaves only the bottom row of nodes open for movers of 3 by 3 cells.
+     */
+    @Test
+    public void distancesLeadAroundWallAcrossWordBoundary() {
+        GameGrid gameGrid = new GameGrid(new Dimension(1000, 100), CELL_SIZE);
+        gameGrid.occupySpace(0, 640, 70, CELL_SIZE);
+
+        // target in the top right corner, movers touch it from column 87 or row 3
+        FlowField flowField = new FlowField(gameGrid, TANK_SIZE);
+        flowField.update(900, 0, TANK_SIZE);
+
+        assertEquals(0, flowField.getDistance(870, 0));
+        assertEquals(0, flowField.getDistance(900, 30));
+        assertEquals(22, flowField.getDistance(650, 0));
+
+        // down to row 7, through below the wall, up to row 3
+        assertEquals(37, flowField.getDistance(610, 0));
+        assertEquals(98, flowField.getDistance(0, 0));
+        assertEquals(28, flowField.getDistance(630, 70));
+
+        // footprint would overlap the wall, or stick out of the grid
+        assertEquals(FlowField.UNREACHABLE, flowField.getDistance(620, 0));
+        assertEquals(FlowField.UNREACHABLE, flowField.getDistance(640, 60));
+        assertEquals(FlowField.UNREACHABLE, flowField.getDistance(980, 50));
+        assertEquals(FlowField.UNREACHABLE, flowField.getDistance(0, 80));
+
+        assertEquals(Direction.DOWN, flowField.getDirection(610, 0));
+        assertEquals(Direction.RIGHT, flowField.getDirection(630, 70));
+        assertNull(flowField.getDirection(870, 0));
+    }
+}
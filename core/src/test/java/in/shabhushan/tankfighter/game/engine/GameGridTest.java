@@ -0,0 +1,279 @@
+package in.shabhushan.tankfighter.game.engine;
+
+import org.junit.Test;
+
+import java.awt.*;
+import java.util.Random;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class GameGridTest {
+
+    private static final int CELL_SIZE = 10;
+    private static final int TANK_SIZE = 30;
+    private static final int FIELD_SIZE = 200;
+
+    private static final int TANKS = 16;
+    private static final int ROUNDS = 2000;
+    private static final int MOVES = 20000;
+
+    @Test
+    public void moveSpaceIsBlockedByAnotherObject() {
+        GameGrid gameGrid = new GameGrid(new Dimension(FIELD_SIZE, FIELD_SIZE), CELL_SIZE);
+
+        assertTrue(gameGrid.tryOccupySpace(0, 0, TANK_SIZE));
+        assertTrue(gameGrid.tryOccupySpace(0, 40, TANK_SIZE));
+        assertFalse(gameGrid.tryOccupySpace(0, 20, TANK_SIZE));
+
+        // moving right by a block overlaps the other tank, moving down doesn't
+        assertFalse(gameGrid.moveSpace(0, 0, 0, 20, TANK_SIZE));
+        assertTrue(gameGrid.isSpaceOccupied(0, 0, TANK_SIZE));
+        assertTrue(gameGrid.moveSpace(0, 0, 10, 0, TANK_SIZE));
+        assertFalse(gameGrid.isSpaceOccupied(0, 0, 10, TANK_SIZE));
+        assertTrue(gameGrid.isSpaceOccupied(10, 0, TANK_SIZE));
+    }
+
+    /**
+     * Rectangles across columns 60 to 70 span the first two words of each row
+     */
+    @Test
+    public void spaceIsOccupiedAcrossWordBoundary() {
+        // 100 columns, 2 words per row
+        GameGrid gameGrid = new GameGrid(new Dimension(1000, 100), CELL_SIZE);
+
+        gameGrid.occupySpace(10, 600, 20, 110);
+        for(int column = 58; column < 73; column++) {
+            boolean occupied = 60 <= column && column <= 70;
+            assertEquals("column " + column, occupied, gameGrid.isCellOccupied(1, column));
+            assertEquals("column " + column, occupied, gameGrid.isCellOccupied(2, column));
+            assertFalse(gameGrid.isCellOccupied(3, column));
+        }
+        assertEquals(0xfL, gameGrid.getCells(1, 0) >>> 60);
+        assertEquals(0x7fL, gameGrid.getCells(1, 64));
+
+        assertTrue(gameGrid.isSpaceOccupied(10, 630, 10, 10));
+        assertTrue(gameGrid.isSpaceOccupied(10, 700, 10, 10));
+        assertFalse(gameGrid.isSpaceOccupied(10, 710, 10, 50));
+        assertFalse(gameGrid.isSpaceOccupied(10, 0, 10, 600));
+        assertFalse(gameGrid.tryOccupySpace(0, 690, TANK_SIZE));
+
+        // vacating the part in the second word leaves the first one alone
+        gameGrid.vacantSpace(10, 640, 20, 70);
+        assertTrue(gameGrid.isSpaceOccupied(10, 600, 20, 40));
+        assertFalse(gameGrid.isSpaceOccupied(10, 640, 20, 70));
+
+        gameGrid.vacantSpace(10, 600, 20, 110);
+        assertFalse(gameGrid.isSpaceOccupied(0, 0, 100, 1000));
+    }
+
+    @Test
+    public void spaceIsMovedAcrossWordBoundary() {
+        GameGrid gameGrid = new GameGrid(new Dimension(1000, 100), CELL_SIZE);
+
+        assertTrue(gameGrid.tryOccupySpace(0, 610, TANK_SIZE));
+        assertTrue(gameGrid.tryOccupySpace(0, 700, TANK_SIZE));
+
+        // columns 61 to 63 move to 62 to 64
+        assertTrue(gameGrid.moveSpace(0, 610, 0, 620, TANK_SIZE));
+        assertFalse(gameGrid.isCellOccupied(0, 61));
+        assertTrue(gameGrid.isCellOccupied(0, 64));
+
+        // 65 to 67 is free, 68 to 70 is not
+        assertTrue(gameGrid.moveSpace(0, 620, 0, 650, TANK_SIZE));
+        assertFalse(gameGrid.moveSpace(0, 650, 0, 680, TANK_SIZE));
+        assertTrue(gameGrid.isSpaceOccupied(0, 650, TANK_SIZE));
+        assertFalse(gameGrid.isSpaceOccupied(0, 600, 30, 50));
+        assertTrue(gameGrid.isSpaceOccupied(0, 700, TANK_SIZE));
+    }
+
+    /**
+     * A tank off by half a cell, as player tanks are after an odd number of moves, occupies every cell it touches
+     */
+    @Test
+    public void unalignedFootprintOccupiesCellsItTouches() {
+        GameGrid gameGrid = new GameGrid(new Dimension(FIELD_SIZE, FIELD_SIZE), CELL_SIZE);
+
+        assertTrue(gameGrid.tryOccupySpace(15, 45, TANK_SIZE));
+
+        for(int row = 0; row < 7; row++) {
+            for(int column = 3; column < 9; column++) {
+                boolean touched = 1 <= row && row <= 4 && 4 <= column && column <= 7;
+                assertEquals("cell " + row + ", " + column, touched, gameGrid.isCellOccupied(row, column));
+            }
+        }
+
+        // tanks right next to it don't fit until they are past the cells it straddles
+        assertFalse(gameGrid.tryOccupySpace(15, 75, TANK_SIZE));
+        assertTrue(gameGrid.tryOccupySpace(15, 80, TANK_SIZE));
+        assertFalse(gameGrid.tryOccupySpace(45, 45, TANK_SIZE));
+        assertTrue(gameGrid.tryOccupySpace(50, 45, TANK_SIZE));
+    }
+
+    @Test
+    public void lineIsCheckedAcrossWordBoundary() {
+        // 100 columns, 2 words per row
+        GameGrid gameGrid = new GameGrid(new Dimension(1000, 100), CELL_SIZE);
+
+        assertFalse(gameGrid.isLineOccupied(5, 0, 5, 99));
+
+        gameGrid.occupySpace(50, 640, CELL_SIZE);
+        assertTrue(gameGrid.isLineOccupied(5, 0, 5, 99));
+        assertTrue(gameGrid.isLineOccupied(5, 99, 5, 60));
+        assertTrue(gameGrid.isLineOccupied(5, 64, 5, 64));
+        assertFalse(gameGrid.isLineOccupied(5, 0, 5, 63));
+        assertFalse(gameGrid.isLineOccupied(5, 65, 5, 99));
+        assertFalse(gameGrid.isLineOccupied(4, 0, 4, 99));
+
+        gameGrid.vacantSpace(50, 640, CELL_SIZE);
+        gameGrid.occupySpace(50, 630, CELL_SIZE);
+        assertTrue(gameGrid.isLineOccupied(5, 10, 5, 70));
+        assertFalse(gameGrid.isLineOccupied(5, 64, 5, 70));
+    }
+
+    /**
+     * All tanks try to move at the same time in every round, after each round no two tanks may overlap.
+     */
+    @Test
+    public void concurrentMovesNeverOverlap() throws Exception {
+        GameGrid gameGrid = new GameGrid(new Dimension(FIELD_SIZE, FIELD_SIZE), CELL_SIZE);
+        int[][] positions = placeTanks(gameGrid);
+
+        CyclicBarrier roundStart = new CyclicBarrier(TANKS + 1);
+        CyclicBarrier roundEnd = new CyclicBarrier(TANKS + 1);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        Thread[] movers = new Thread[TANKS];
+        for(int tank = 0; tank < TANKS; tank++) {
+            final int[] position = positions[tank];
+            final Random random = new Random(tank);
+
+            movers[tank] = new Thread(() -> {
+                try {
+                    for(int round = 0; round < ROUNDS; round++) {
+                        roundStart.await();
+                        moveRandomly(gameGrid, position, random);
+                        roundEnd.await();
+                    }
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                }
+            });
+            movers[tank].start();
+        }
+
+        for(int round = 0; round < ROUNDS; round++) {
+            roundStart.await();
+            roundEnd.await();
+
+            assertNoOverlap(positions);
+        }
+
+        for(Thread mover: movers) {
+            mover.join();
+        }
+        assertNull(failure.get());
+        assertOccupiedCells(gameGrid, positions);
+    }
+
+    /**
+     * Tanks move freely without any coordination, no update of the grid may get lost.
+     */
+    @Test
+    public void concurrentMovesKeepGridConsistent() throws Exception {
+        GameGrid gameGrid = new GameGrid(new Dimension(FIELD_SIZE, FIELD_SIZE), CELL_SIZE);
+        int[][] positions = placeTanks(gameGrid);
+
+        Thread[] movers = new Thread[TANKS];
+        for(int tank = 0; tank < TANKS; tank++) {
+            final int[] position = positions[tank];
+            final Random random = new Random(tank);
+
+            movers[tank] = new Thread(() -> {
+                for(int move = 0; move < MOVES; move++) {
+                    moveRandomly(gameGrid, position, random);
+                }
+            });
+            movers[tank].start();
+        }
+
+        for(Thread mover: movers) {
+            mover.join();
+        }
+
+        assertNoOverlap(positions);
+        assertOccupiedCells(gameGrid, positions);
+    }
+
+    // places tanks in rows with a block gap between them, returns {vertical, horizontal} position of each tank
+    private static int[][] placeTanks(GameGrid gameGrid) {
+        int[][] positions = new int[TANKS][];
+        int perRow = FIELD_SIZE / (TANK_SIZE + CELL_SIZE);
+
+        for(int tank = 0; tank < TANKS; tank++) {
+            int verticalPosition = (tank / perRow) * (TANK_SIZE + CELL_SIZE);
+            int horizontalPosition = (tank % perRow) * (TANK_SIZE + CELL_SIZE);
+
+            assertTrue(gameGrid.tryOccupySpace(verticalPosition, horizontalPosition, TANK_SIZE));
+            positions[tank] = new int[]{verticalPosition, horizontalPosition};
+        }
+
+        return positions;
+    }
+
+    private static void moveRandomly(GameGrid gameGrid, int[] position, Random random) {
+        int verticalPosition = position[0];
+        int horizontalPosition = position[1];
+
+        switch (random.nextInt(4)) {
+            case 0: verticalPosition -= CELL_SIZE; break;
+            case 1: verticalPosition += CELL_SIZE; break;
+            case 2: horizontalPosition -= CELL_SIZE; break;
+            default: horizontalPosition += CELL_SIZE; break;
+        }
+
+        if(verticalPosition < 0 || FIELD_SIZE - TANK_SIZE < verticalPosition
+                || horizontalPosition < 0 || FIELD_SIZE - TANK_SIZE < horizontalPosition) {
+            return;
+        }
+
+        if(gameGrid.moveSpace(position[0], position[1], verticalPosition, horizontalPosition, TANK_SIZE)) {
+            position[0] = verticalPosition;
+            position[1] = horizontalPosition;
+        }
+    }
+
+    private static void assertNoOverlap(int[][] positions) {
+        for(int first = 0; first < positions.length; first++) {
+            for(int second = first + 1; second < positions.length; second++) {
+                boolean overlaps = Math.abs(positions[first][0] - positions[second][0]) < TANK_SIZE
+                        && Math.abs(positions[first][1] - positions[second][1]) < TANK_SIZE;
+
+                assertFalse("Tank " + first + " overlaps tank " + second, overlaps);
+            }
+        }
+    }
+
+    // exactly the cells below the tanks are occupied
+    private static void assertOccupiedCells(GameGrid gameGrid, int[][] positions) {
+        int occupiedCells = 0;
+        for(int row = 0; row < gameGrid.getRows(); row++) {
+            for(int column = 0; column < gameGrid.getColumns(); column++) {
+                if(gameGrid.isCellOccupied(row, column)) {
+                    occupiedCells++;
+                }
+            }
+        }
+
+        int cellsPerTank = (TANK_SIZE / CELL_SIZE) * (TANK_SIZE / CELL_SIZE);
+        assertEquals(positions.length * cellsPerTank, occupiedCells);
+
+        for(int[] position: positions) {
+            assertTrue(gameGrid.isSpaceOccupied(position[0], position[1], TANK_SIZE));
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package in.shabhushan.tankfighter.game.engine;
+
+import in.shabhushan.tankfighter.game.enumeration.Direction;
+import org.junit.Test;
+
+import java.awt.*;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class PathFinderTest {
+
+    private static final int CELL_SIZE = 10;
+    private static final int FIELD_SIZE = 200; // 20 x 20 cells
+    private static final int EXPANSIONS = 10000;
+
+    // mover of a single cell starts at the left edge, target sits at the right edge of the same row
+    private static final int MOVER_HORIZONTAL_POSITION = 0;
+    private static final int TARGET_HORIZONTAL_POSITION = 190;
+    private static final int VERTICAL_POSITION = 100;
+
+    @Test
+    public void pathLeadsAroundWall() {
+        GameGrid gameGrid = new GameGrid(new Dimension(FIELD_SIZE, FIELD_SIZE), CELL_SIZE);
+        PathFinder pathFinder = new PathFinder(gameGrid, EXPANSIONS, EXPANSIONS, 3, 8, 500);
+
+        // wall across column 10, open only in the last two rows
+        gameGrid.occupySpace(0, 100, 180, CELL_SIZE);
+
+        Path path = new Path();
+        int[] position = {MOVER_HORIZONTAL_POSITION, VERTICAL_POSITION};
+
+        // down 8 rows to get below the wall, across 18 columns, up 7 rows to touch the target at it's corner
+        assertEquals(33, walk(gameGrid, pathFinder, path, position));
+        assertFalse(path.isPartial());
+        assertEquals(180, position[0]);
+        assertEquals(110, position[1]);
+    }
+
+    @Test
+    public void searchOutOfBudgetGivesPartialPath() {
+        GameGrid gameGrid = new GameGrid(new Dimension(FIELD_SIZE, FIELD_SIZE), CELL_SIZE);
+        PathFinder pathFinder = new PathFinder(gameGrid, 20, 10, 3, 8, 500);
+
+        Path path = new Path();
+        assertEquals(Direction.RIGHT, follow(pathFinder, path, MOVER_HORIZONTAL_POSITION, VERTICAL_POSITION));
+        assertTrue(path.isPartial());
+        assertTrue(path.getLength() < 18);
+
+        // second search spends the rest of the budget, after that no search runs in this tick
+        assertNotNull(follow(pathFinder, new Path(), MOVER_HORIZONTAL_POSITION, VERTICAL_POSITION + 50));
+        assertEquals(0, pathFinder.getRemainingExpansions());
+        assertNull(follow(pathFinder, new Path(), MOVER_HORIZONTAL_POSITION, VERTICAL_POSITION - 50));
+
+        pathFinder.resetBudget();
+        assertNotNull(follow(pathFinder, new Path(), MOVER_HORIZONTAL_POSITION, VERTICAL_POSITION - 50));
+    }
+
+    @Test
+    public void blockedPathIsRepaired() {
+        GameGrid gameGrid = new GameGrid(new Dimension(FIELD_SIZE, FIELD_SIZE), CELL_SIZE);
+        PathFinder pathFinder = new PathFinder(gameGrid, EXPANSIONS, EXPANSIONS, 3, 8, 500);
+
+        Path path = new Path();
+        assertEquals(Direction.RIGHT, follow(pathFinder, path, MOVER_HORIZONTAL_POSITION, VERTICAL_POSITION));
+        int length = path.getLength();
+        int goal = path.getGoal();
+
+        // cell right in front of the mover gets blocked, the path steps around it
+        gameGrid.occupySpace(VERTICAL_POSITION, MOVER_HORIZONTAL_POSITION + CELL_SIZE, CELL_SIZE);
+        Direction direction = follow(pathFinder, path, MOVER_HORIZONTAL_POSITION, VERTICAL_POSITION);
+
+        assertTrue(direction == Direction.UP || direction == Direction.DOWN);
+        assertEquals(length + 2, path.getLength());
+        assertEquals(goal, path.getGoal());
+
+        int[] position = {MOVER_HORIZONTAL_POSITION, VERTICAL_POSITION};
+        assertEquals(length + 1, walk(gameGrid, pathFinder, path, position));
+        assertEquals(180, position[0]);
+    }
+
+    private static Direction follow(PathFinder pathFinder, Path path, int horizontalPosition, int verticalPosition) {
+        return pathFinder.follow(path, horizontalPosition, verticalPosition, CELL_SIZE,
+                TARGET_HORIZONTAL_POSITION, VERTICAL_POSITION, CELL_SIZE);
+    }
+
+    // moves the mover along it's path until it touches the target, checking every step is free, returns the steps
+    private static int walk(GameGrid gameGrid, PathFinder pathFinder, Path path, int[] position) {
+        int steps = 0;
+
+        for(Direction direction = follow(pathFinder, path, position[0], position[1]); direction != null;
+                direction = follow(pathFinder, path, position[0], position[1])) {
+            switch(direction) {
+                case UP: position[1] -= CELL_SIZE; break;
+                case DOWN: position[1] += CELL_SIZE; break;
+                case LEFT: position[0] -= CELL_SIZE; break;
+                default: position[0] += CELL_SIZE; break;
+            }
+            steps++;
+
+            assertFalse(gameGrid.isSpaceOccupied(position[1], position[0], CELL_SIZE));
+            assertTrue("too many steps", steps <= FIELD_SIZE);
+        }
+        return steps;
+    }
+}
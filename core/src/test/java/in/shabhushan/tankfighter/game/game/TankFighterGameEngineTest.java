@@ -0,0 +1,96 @@
+package in.shabhushan.tankfighter.game.game;
+
+import in.shabhushan.tankfighter.game.snapshot.Snapshot;
+import in.shabhushan.tankfighter.game.snapshot.SnapshotDecoder;
+import in.shabhushan.tankfighter.game.snapshot.SnapshotEncoder;
+import org.junit.Test;
+
+import static in.shabhushan.tankfighter.game.game.TestGames.SEED;
+import static in.shabhushan.tankfighter.game.game.TestGames.newGame;
+import static in.shabhushan.tankfighter.game.game.TestGames.play;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class TankFighterGameEngineTest {
+
+    private static final int TICKS = 3000;
+
+    /**
+     * Two games with the same seed and the same player input have to be in the same state after every tick
+     */
+    @Test
+    public void sameSeedAndInputPlayOutTheSame() {
+        TankFighterGameEngine game = newGame();
+        TankFighterGameEngine replay = newGame();
+
+        assertEquals(game.stateHash(), replay.stateHash());
+
+        for(int tick = 0; tick < TICKS; tick++) {
+            play(game, tick);
+            play(replay, tick);
+
+            game.step();
+            replay.step();
+
+            assertEquals("state differs after tick " + tick, game.stateHash(), replay.stateHash());
+        }
+    }
+
+    /**
+     * Games with different seeds don't play out the same, even with the same player input
+     */
+    @Test
+    public void differentSeedsPlayOutDifferently() {
+        TankFighterGameEngine game = newGame();
+        TankFighterGameEngine other = newGame(SEED + 1);
+
+        for(int tick = 0; tick < TICKS; tick++) {
+            play(game, tick);
+            play(other, tick);
+
+            game.step();
+            other.step();
+
+            assertFalse("same state after tick " + tick, game.stateHash() == other.stateHash());
+        }
+    }
+
+    /**
+     * A fresh game put into the state of a snapshot has to play on exactly like the game the snapshot was taken of
+     */
+    @Test
+    public void restoredSnapshotPlaysOutTheSame() {
+        TankFighterGameEngine game = newGame();
+        SnapshotEncoder snapshotEncoder = new SnapshotEncoder(3);
+
+        Snapshot snapshot = null;
+        SnapshotDecoder snapshotDecoder = new SnapshotDecoder();
+        for(int tick = 0; tick < TICKS / 2; tick++) {
+            if(tick % 500 == 0) {
+                snapshot = snapshotEncoder.encode(game);
+                snapshotDecoder.decode(snapshot);
+            }
+            play(game, tick);
+            game.step();
+        }
+        assertFalse(snapshot.isKeyframe());
+
+        TankFighterGameEngine restored = newGame();
+        snapshotDecoder.restore(restored);
+        while(restored.getTick() < game.getTick()) {
+            play(restored, restored.getTick());
+            restored.step();
+        }
+        assertEquals(game.stateHash(), restored.stateHash());
+
+        for(int tick = TICKS / 2; tick < TICKS; tick++) {
+            play(game, tick);
+            play(restored, tick);
+
+            game.step();
+            restored.step();
+
+            assertEquals("state differs after tick " + tick, game.stateHash(), restored.stateHash());
+        }
+    }
+}
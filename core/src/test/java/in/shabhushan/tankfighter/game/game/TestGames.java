@@ -0,0 +1,40 @@
+package in.shabhushan.tankfighter.game.game;
+
+import in.shabhushan.tankfighter.game.enumeration.PlayerCommand;
+
+import java.awt.*;
+
+/**
+ * Games and player input shared by the tests, so all of them play on the same playing field
+ */
+public final class TestGames {
+
+    public static final Dimension RESOLUTION = new Dimension(1280, 720);
+    public static final Dimension WORLD_SIZE = new Dimension(2560, 1440);
+
+    public static final long SEED = 42;
+
+    private TestGames() {
+    }
+
+    public static TankFighterGameEngine newGame() {
+        return newGame(SEED);
+    }
+
+    public static TankFighterGameEngine newGame(long seed) {
+        return new TankFighterGameEngine(RESOLUTION, WORLD_SIZE, seed);
+    }
+
+    /**
+     * Player input for passed tick: player goes round in a square, firing every now and then. Submitted the way the
+     * keyboard does, so it's recorded when the game records a replay.
+     */
+    public static void play(TankFighterGameEngine game, long tick) {
+        if(tick % 10 == 0) {
+            game.submitCommand(PlayerCommand.values()[(int) (tick / 200) % 4]);
+        }
+        if(tick % 30 == 0) {
+            game.submitCommand(PlayerCommand.FIRE);
+        }
+    }
+}
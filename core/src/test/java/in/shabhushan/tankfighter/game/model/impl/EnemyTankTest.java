@@ -0,0 +1,47 @@
+package in.shabhushan.tankfighter.game.model.impl;
+
+import in.shabhushan.tankfighter.game.engine.BulletPool;
+import in.shabhushan.tankfighter.game.enumeration.Direction;
+import in.shabhushan.tankfighter.game.game.TankFighterGameEngine;
+import in.shabhushan.tankfighter.game.util.TankUtil;
+import org.junit.Test;
+
+import static in.shabhushan.tankfighter.game.game.TestGames.newGame;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class EnemyTankTest {
+
+    /**
+     * An enemy tank straight above the player tank, which side steps to the left, still fires down at the player
+     */
+    @Test
+    public void firesOnlyTowardsVisiblePlayer() {
+        TankFighterGameEngine game = newGame();
+        EnemyTank enemyTank = (EnemyTank) game.getEnemyTanks().get(0);
+        EnemyTank blockingTank = (EnemyTank) game.getEnemyTanks().get(1);
+        BulletPool bulletPool = game.getBulletPool();
+
+        int horizontalPosition = game.getPlayerTank().getHorizontalPosition();
+        int verticalPosition = game.getPlayerTank().getVerticalPosition();
+
+        assertTrue(TankUtil.moveTank(enemyTank, horizontalPosition, verticalPosition - 120));
+        assertTrue(TankUtil.moveTank(blockingTank, horizontalPosition + 200, verticalPosition - 60));
+
+        Direction fireDirection = enemyTank.chooseFireDirection();
+        assertEquals(Direction.DOWN, fireDirection);
+
+        enemyTank.act(Direction.LEFT, fireDirection);
+        assertEquals(1, bulletPool.countOwnedBy(enemyTank.getId()));
+        assertEquals(Direction.DOWN, bulletPool.getDirection(bulletPool.size() - 1));
+
+        // another tank in between hides the player
+        assertTrue(TankUtil.moveTank(enemyTank, horizontalPosition, verticalPosition - 120));
+        assertTrue(TankUtil.moveTank(blockingTank, horizontalPosition, verticalPosition - 60));
+
+        assertNull(enemyTank.chooseFireDirection());
+        enemyTank.act(Direction.LEFT, enemyTank.chooseFireDirection());
+        assertEquals(1, bulletPool.countOwnedBy(enemyTank.getId()));
+    }
+}
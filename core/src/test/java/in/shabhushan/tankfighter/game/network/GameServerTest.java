@@ -0,0 +1,176 @@
+package in.shabhushan.tankfighter.game.network;
+
+import in.shabhushan.tankfighter.game.engine.BulletPool;
+import in.shabhushan.tankfighter.game.enumeration.Direction;
+import in.shabhushan.tankfighter.game.enumeration.ObjectType;
+import in.shabhushan.tankfighter.game.enumeration.PlayerCommand;
+import in.shabhushan.tankfighter.game.game.TankFighterGameEngine;
+import in.shabhushan.tankfighter.game.model.Tank;
+import org.junit.Test;
+
+import java.awt.*;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+import static in.shabhushan.tankfighter.game.game.TestGames.newGame;
+import static in.shabhushan.tankfighter.game.util.Defaults.DEFAULT_BULLET_SPEED;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class GameServerTest {
+
+    private static final int CLIENTS = 3;
+    private static final int MOVES = 10;
+    private static final long TIMEOUT = 10000;
+
+    // client i moves into the direction at index i, away from the enemy tanks above the players
+    private static final PlayerCommand[] MOVE_COMMANDS = {PlayerCommand.DOWN, PlayerCommand.LEFT, PlayerCommand.RIGHT};
+
+    /**
+     * Clients connected to the same server each control a tank of their own, predict where it goes and end up where
+     * the server has put it, as seen by every client
+     */
+    @Test
+    public void clientsPredictWhatServerApplies() {
+        TankFighterGameEngine game = newGame();
+
+        try (GameServer gameServer = new GameServer(game, new InetSocketAddress(InetAddress.getLoopbackAddress(), 0))) {
+            gameServer.start();
+
+            List<GameClient> clients = new ArrayList<>();
+            try {
+                for(int index = 0; index < CLIENTS; index++) {
+                    clients.add(new GameClient(new InetSocketAddress(InetAddress.getLoopbackAddress(), gameServer.getPort())));
+                }
+
+                // everyone sees the tanks of all players
+                await(clients, client -> client.isWelcomed() && countPlayerTanks(client.getWorldState()) == CLIENTS);
+                assertEquals(CLIENTS, clients.stream().mapToInt(GameClient::getPlayerId).distinct().count());
+
+                List<Point> starts = new ArrayList<>();
+                for(GameClient client: clients) {
+                    starts.add(new Point(client.getPredictedHorizontalPosition(), client.getPredictedVerticalPosition()));
+                }
+
+                for(int move = 0; move < MOVES; move++) {
+                    for(int index = 0; index < CLIENTS; index++) {
+                        clients.get(index).send(MOVE_COMMANDS[index]);
+                    }
+                    for(GameClient client: clients) {
+                        client.poll(5);
+                    }
+                }
+
+                // server has applied every command, prediction agrees with the server
+                await(clients, client -> client.getPendingCount() == 0);
+                for(int index = 0; index < CLIENTS; index++) {
+                    GameClient client = clients.get(index);
+                    WorldState worldState = client.getWorldState();
+                    int self = worldState.indexOf(client.getPlayerId());
+
+                    assertEquals(worldState.getHorizontalPosition(self), client.getPredictedHorizontalPosition());
+                    assertEquals(worldState.getVerticalPosition(self), client.getPredictedVerticalPosition());
+                    assertFalse("tank of client " + index + " hasn't moved", starts.get(index).equals(
+                            new Point(client.getPredictedHorizontalPosition(), client.getPredictedVerticalPosition())));
+                }
+
+                // and every client sees every other player where that player predicted to be
+                await(clients, client -> {
+                    for(GameClient other: clients) {
+                        int index = client.getWorldState().indexOf(other.getPlayerId());
+                        if(client.getWorldState().getHorizontalPosition(index) != other.getPredictedHorizontalPosition()
+                                || client.getWorldState().getVerticalPosition(index) != other.getPredictedVerticalPosition()) {
+                            return false;
+                        }
+                    }
+                    return true;
+                });
+                assertEquals(CLIENTS, gameServer.getPlayerCount());
+            } finally {
+                clients.forEach(GameClient::close);
+            }
+        }
+    }
+
+    /**
+     * Enemy bullets hit the tanks of players who joined later just like the first player's tank
+     */
+    @Test
+    public void enemyBulletHitsSecondPlayer() throws Exception {
+        TankFighterGameEngine game = newGame();
+
+        try (GameServer gameServer = new GameServer(game, new InetSocketAddress(InetAddress.getLoopbackAddress(), 0))) {
+            gameServer.start();
+
+            List<GameClient> clients = new ArrayList<>();
+            try {
+                for(int index = 0; index < 2; index++) {
+                    clients.add(new GameClient(new InetSocketAddress(InetAddress.getLoopbackAddress(), gameServer.getPort())));
+                }
+                await(clients, client -> client.isWelcomed() && countPlayerTanks(client.getWorldState()) == 2);
+
+                // bullet flies up into the second player's tank from below, in a column nothing else fires along
+                CompletableFuture<Boolean> hit = new CompletableFuture<>();
+                game.invokeLater(() -> {
+                    Tank playerTank = game.getPlayerTanks().get(1);
+                    int shooter = game.getEnemyTanks().get(0).getId();
+                    int horizontalPosition = playerTank.getHorizontalPosition() + 13;
+                    int verticalPosition = playerTank.getVerticalPosition();
+
+                    BulletPool bulletPool = game.getBulletPool();
+                    bulletPool.spawn(shooter, ObjectType.ENEMY_TANK, horizontalPosition, verticalPosition + 200,
+                            Direction.UP, DEFAULT_BULLET_SPEED);
+
+                    game.setTickListener(() -> {
+                        for(int bullet = 0; bullet < bulletPool.size(); bullet++) {
+                            if(bulletPool.getOwner(bullet) == shooter
+                                    && bulletPool.getHorizontalPosition(bullet) == horizontalPosition) {
+                                if(bulletPool.getVerticalPosition(bullet) < verticalPosition) {
+                                    hit.complete(false); // flew through the tank
+                                }
+                                return;
+                            }
+                        }
+                        hit.complete(true);
+                    });
+                });
+
+                assertTrue(hit.get(TIMEOUT, TimeUnit.MILLISECONDS));
+            } finally {
+                clients.forEach(GameClient::close);
+            }
+        }
+    }
+
+    // polls all clients until passed condition holds for every one of them
+    private static void await(List<GameClient> clients, Predicate<GameClient> condition) {
+        long deadline = System.currentTimeMillis() + TIMEOUT;
+
+        while(System.currentTimeMillis() < deadline) {
+            for(GameClient client: clients) {
+                client.poll(5);
+            }
+            if(clients.stream().allMatch(condition)) {
+                return;
+            }
+        }
+        fail("timed out waiting for clients");
+    }
+
+    private static int countPlayerTanks(WorldState worldState) {
+        int count = 0;
+        for(int index = 0; index < worldState.getEntityCount(); index++) {
+            if(worldState.getObjectType(index) == ObjectType.PLAYER_TANK) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,113 @@
+package in.shabhushan.tankfighter.game.replay;
+
+import in.shabhushan.tankfighter.game.enumeration.PlayerCommand;
+import in.shabhushan.tankfighter.game.game.TankFighterGameEngine;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static in.shabhushan.tankfighter.game.game.TestGames.RESOLUTION;
+import static in.shabhushan.tankfighter.game.game.TestGames.SEED;
+import static in.shabhushan.tankfighter.game.game.TestGames.WORLD_SIZE;
+import static in.shabhushan.tankfighter.game.game.TestGames.newGame;
+import static in.shabhushan.tankfighter.game.game.TestGames.play;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ReplayPlayerTest {
+
+    private static final int TICKS = 3000;
+    private static final int SNAPSHOT_TICKS = 500;
+
+    @Test
+    public void playbackEndsInRecordedState() throws IOException {
+        Path file = Files.createTempFile("replay", ".tfr");
+        try {
+            record(file);
+
+            try(ReplayPlayer replayPlayer = new ReplayPlayer(file, SNAPSHOT_TICKS)) {
+                assertTrue(replayPlayer.playToEnd());
+                assertEquals(TICKS, replayPlayer.getTick());
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * Seeking backward restores a snapshot, seeking forward from there steps the game, both have to end up in the
+     * state the recorded game was in at that tick
+     */
+    @Test
+    public void seekingMatchesRecordedGame() throws IOException {
+        Path file = Files.createTempFile("replay", ".tfr");
+        try {
+            long[] stateHashes = record(file);
+
+            try(ReplayPlayer replayPlayer = new ReplayPlayer(file, SNAPSHOT_TICKS)) {
+                for(long tick: new long[]{2500, 700, 1800, 1799, 0, TICKS}) {
+                    replayPlayer.seek(tick);
+
+                    assertEquals(tick, replayPlayer.getTick());
+                    assertEquals("state differs at tick " + tick, stateHashes[(int) tick], replayPlayer.getGame().stateHash());
+                }
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * The game loop steps the game on it's own, seeking back has to find the snapshots taken meanwhile
+     */
+    @Test
+    public void seekingBackAfterGameLoopSteps() throws IOException {
+        Path file = Files.createTempFile("replay", ".tfr");
+        try {
+            long[] stateHashes = record(file);
+
+            try(ReplayPlayer replayPlayer = new ReplayPlayer(file, SNAPSHOT_TICKS)) {
+                TankFighterGameEngine game = replayPlayer.getGame();
+                for(int tick = 0; tick < 1800; tick++) {
+                    game.step();
+                }
+
+                for(long tick: new long[]{100, 1200, 0}) {
+                    replayPlayer.seek(tick);
+
+                    assertEquals(tick, replayPlayer.getTick());
+                    assertEquals("state differs at tick " + tick, stateHashes[(int) tick], game.stateHash());
+                }
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * Records a session of a game played through {@link TankFighterGameEngine#submitCommand(PlayerCommand)}
+     * @return state hash of the game at every tick
+     */
+    private static long[] record(Path file) {
+        TankFighterGameEngine game = newGame();
+        ReplayWriter replayWriter = new ReplayWriter(file, RESOLUTION, WORLD_SIZE, SEED);
+        game.setReplayWriter(replayWriter);
+
+        long[] stateHashes = new long[TICKS + 1];
+        stateHashes[0] = game.stateHash();
+
+        for(int tick = 0; tick < TICKS; tick++) {
+            play(game, tick);
+            game.step();
+            stateHashes[tick + 1] = game.stateHash();
+        }
+
+        // as the game loop does once it has stopped
+        replayWriter.finish(game.getTick(), game.stateHash());
+        replayWriter.close();
+
+        return stateHashes;
+    }
+}
@@ -0,0 +1,102 @@
+package in.shabhushan.tankfighter.game.replay;
+
+import in.shabhushan.tankfighter.game.enumeration.PlayerCommand;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static in.shabhushan.tankfighter.game.game.TestGames.RESOLUTION;
+import static in.shabhushan.tankfighter.game.game.TestGames.SEED;
+import static in.shabhushan.tankfighter.game.game.TestGames.WORLD_SIZE;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ReplayReaderTest {
+
+    @Test
+    public void readsCommandsAndStateHash() throws IOException {
+        Path file = Files.createTempFile("replay", ".tfr");
+        try {
+            write(file, true);
+
+            try(ReplayReader replayReader = new ReplayReader(file)) {
+                assertEquals(RESOLUTION, replayReader.getResolution());
+                assertEquals(WORLD_SIZE, replayReader.getWorldSize());
+                assertEquals(SEED, replayReader.getSeed());
+
+                assertCommands(replayReader);
+                assertEquals(2000L, replayReader.peekTick());
+                assertEquals(0x1234L, replayReader.getRecordedStateHash().getAsLong());
+
+                replayReader.rewind();
+                assertCommands(replayReader);
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * A replay torn within it's last record, e.g. by a crash while writing, ends with the last complete command
+     */
+    @Test
+    public void fileCutWithinRecordEndsSession() throws IOException {
+        Path file = Files.createTempFile("replay", ".tfr");
+        try {
+            // command at tick 1000 takes a varint of 2 bytes, of which only the first is left
+            write(file, false);
+            truncateLastByte(file);
+
+            try(ReplayReader replayReader = new ReplayReader(file)) {
+                assertTrue(replayReader.hasNext());
+                assertEquals(PlayerCommand.UP, replayReader.next());
+                assertEquals(PlayerCommand.FIRE, replayReader.next());
+                assertFalse(replayReader.hasNext());
+                assertFalse(replayReader.getRecordedStateHash().isPresent());
+            }
+
+            // state hash cut short
+            write(file, true);
+            truncateLastByte(file);
+
+            try(ReplayReader replayReader = new ReplayReader(file)) {
+                assertCommands(replayReader);
+                assertFalse(replayReader.getRecordedStateHash().isPresent());
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static void write(Path file, boolean finish) {
+        try(ReplayWriter replayWriter = new ReplayWriter(file, RESOLUTION, WORLD_SIZE, SEED)) {
+            replayWriter.write(0, PlayerCommand.UP);
+            replayWriter.write(1, PlayerCommand.FIRE);
+            replayWriter.write(1000, PlayerCommand.LEFT);
+            if(finish) {
+                replayWriter.finish(2000, 0x1234L);
+            }
+        }
+    }
+
+    private static void assertCommands(ReplayReader replayReader) {
+        assertEquals(0L, replayReader.peekTick());
+        assertEquals(PlayerCommand.UP, replayReader.next());
+        assertEquals(1L, replayReader.peekTick());
+        assertEquals(PlayerCommand.FIRE, replayReader.next());
+        assertEquals(1000L, replayReader.peekTick());
+        assertEquals(PlayerCommand.LEFT, replayReader.next());
+        assertFalse(replayReader.hasNext());
+    }
+
+    private static void truncateLastByte(Path file) throws IOException {
+        try(FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 1);
+        }
+    }
+}
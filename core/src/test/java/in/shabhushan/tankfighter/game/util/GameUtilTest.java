@@ -1,4 +1,113 @@
 package in.shabhushan.tankfighter.game.util;
 
+import in.shabhushan.tankfighter.game.enumeration.Direction;
+import in.shabhushan.tankfighter.game.game.TankFighterGameEngine;
+import in.shabhushan.tankfighter.game.model.Tank;
+import org.junit.Test;
+
+import static in.shabhushan.tankfighter.game.game.TestGames.newGame;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
 public class GameUtilTest {
+
+    // player tank starts in the center of the playing field, no enemy tank starts in it's column
+    private static final int PLAYER_HORIZONTAL_POSITION = 1280;
+    private static final int PLAYER_VERTICAL_POSITION = 720;
+
+    // box of a tank at (100, 200)
+    private static final int BOX_MIN_HORIZONTAL = 100;
+    private static final int BOX_MIN_VERTICAL = 200;
+    private static final int BOX_MAX_HORIZONTAL = BOX_MIN_HORIZONTAL + Tank.TANK_SIZE;
+    private static final int BOX_MAX_VERTICAL = BOX_MIN_VERTICAL + Tank.TANK_SIZE;
+
+    @Test
+    public void lineOfSightPointsTowardsPlayer() {
+        TankFighterGameEngine game = newGame();
+        Tank playerTank = game.getPlayerTank();
+        Tank enemyTank = game.getEnemyTanks().get(0);
+
+        assertTrue(TankUtil.moveTank(enemyTank, PLAYER_HORIZONTAL_POSITION, PLAYER_VERTICAL_POSITION - 120));
+        assertEquals(Direction.DOWN, GameUtil.objectInLineOfSight(enemyTank, playerTank));
+        assertEquals(Direction.UP, GameUtil.objectInLineOfSight(playerTank, enemyTank));
+
+        assertTrue(TankUtil.moveTank(enemyTank, PLAYER_HORIZONTAL_POSITION + 200, PLAYER_VERTICAL_POSITION));
+        assertEquals(Direction.LEFT, GameUtil.objectInLineOfSight(enemyTank, playerTank));
+
+        // neither in the same row nor in the same column
+        assertTrue(TankUtil.moveTank(enemyTank, PLAYER_HORIZONTAL_POSITION + 200, PLAYER_VERTICAL_POSITION + 100));
+        assertNull(GameUtil.objectInLineOfSight(enemyTank, playerTank));
+    }
+
+    @Test
+    public void lineOfSightIsBlockedByAnotherTank() {
+        TankFighterGameEngine game = newGame();
+        Tank playerTank = game.getPlayerTank();
+        Tank enemyTank = game.getEnemyTanks().get(0);
+        Tank blockingTank = game.getEnemyTanks().get(1);
+
+        assertTrue(TankUtil.moveTank(enemyTank, PLAYER_HORIZONTAL_POSITION, PLAYER_VERTICAL_POSITION - 120));
+        assertTrue(TankUtil.moveTank(blockingTank, PLAYER_HORIZONTAL_POSITION + 10, PLAYER_VERTICAL_POSITION - 60));
+
+        assertNull(GameUtil.objectInLineOfSight(enemyTank, playerTank));
+    }
+
+    @Test
+    public void touchingTanksAreInLineOfSight() {
+        TankFighterGameEngine game = newGame();
+        Tank playerTank = game.getPlayerTank();
+        Tank enemyTank = game.getEnemyTanks().get(0);
+
+        assertTrue(TankUtil.moveTank(enemyTank, PLAYER_HORIZONTAL_POSITION - playerTank.getObjectSize(), PLAYER_VERTICAL_POSITION));
+        assertEquals(Direction.RIGHT, GameUtil.objectInLineOfSight(enemyTank, playerTank));
+    }
+
+    @Test
+    public void segmentTunnellingThroughBoxHitsIt() {
+        // previous position above the tank, current one below it, neither of them inside it
+        assertTrue(segmentIntersectsBox(115, 180, 115, 250));
+        assertTrue(segmentIntersectsBox(115, 250, 115, 180));
+
+        // same, horizontally and diagonally
+        assertTrue(segmentIntersectsBox(80, 215, 150, 215));
+        assertTrue(segmentIntersectsBox(90, 190, 140, 240));
+    }
+
+    @Test
+    public void segmentGrazingBoxEdgeHitsIt() {
+        // moving along the left edge
+        assertTrue(segmentIntersectsBox(BOX_MIN_HORIZONTAL, 180, BOX_MIN_HORIZONTAL, 250));
+        // moving along the bottom edge
+        assertTrue(segmentIntersectsBox(80, BOX_MAX_VERTICAL, 150, BOX_MAX_VERTICAL));
+        // touching just the corner
+        assertTrue(segmentIntersectsBox(140, 220, 120, 240));
+        assertTrue(segmentIntersectsBox(BOX_MAX_HORIZONTAL, 180, BOX_MAX_HORIZONTAL, BOX_MIN_VERTICAL));
+    }
+
+    @Test
+    public void zeroLengthSegmentHitsOnlyInsideBox() {
+        assertTrue(segmentIntersectsBox(115, 215, 115, 215));
+        assertTrue(segmentIntersectsBox(BOX_MAX_HORIZONTAL, BOX_MAX_VERTICAL, BOX_MAX_HORIZONTAL, BOX_MAX_VERTICAL));
+
+        assertFalse(segmentIntersectsBox(99, 215, 99, 215));
+        assertFalse(segmentIntersectsBox(115, 231, 115, 231));
+    }
+
+    @Test
+    public void segmentParallelToBoxMissesIt() {
+        // next to the left and right edges
+        assertFalse(segmentIntersectsBox(BOX_MIN_HORIZONTAL - 1, 180, BOX_MIN_HORIZONTAL - 1, 250));
+        assertFalse(segmentIntersectsBox(BOX_MAX_HORIZONTAL + 1, 180, BOX_MAX_HORIZONTAL + 1, 250));
+        // above the box
+        assertFalse(segmentIntersectsBox(80, BOX_MIN_VERTICAL - 1, 150, BOX_MIN_VERTICAL - 1));
+        // in line with the box, but stopping short of it
+        assertFalse(segmentIntersectsBox(115, 150, 115, 199));
+    }
+
+    private static boolean segmentIntersectsBox(int startHorizontal, int startVertical, int endHorizontal, int endVertical) {
+        return GameUtil.segmentIntersectsBox(startHorizontal, startVertical, endHorizontal, endVertical,
+                BOX_MIN_HORIZONTAL, BOX_MIN_VERTICAL, BOX_MAX_HORIZONTAL, BOX_MAX_VERTICAL);
+    }
 }
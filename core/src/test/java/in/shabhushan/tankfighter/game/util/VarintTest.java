@@ -0,0 +1,46 @@
+package in.shabhushan.tankfighter.game.util;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.assertEquals;
+
+public class VarintTest {
+
+    @Test
+    public void longsRoundTrip() {
+        assertLongRoundTrip(0, 1);
+        assertLongRoundTrip(127, 1);
+        assertLongRoundTrip(128, 2);
+        assertLongRoundTrip(Long.MAX_VALUE, 9);
+        assertLongRoundTrip(-1, Varint.MAX_LONG_BYTES);
+    }
+
+    @Test
+    public void intsRoundTrip() {
+        ByteBuffer buffer = ByteBuffer.allocate(64);
+        int[] values = {0, 127, 128, Integer.MAX_VALUE, Integer.MIN_VALUE, -1};
+
+        for(int value: values) {
+            Varint.putInt(buffer, value);
+            Varint.putSignedInt(buffer, value);
+        }
+        buffer.flip();
+
+        for(int value: values) {
+            assertEquals(value, Varint.getInt(buffer));
+            assertEquals(value, Varint.getSignedInt(buffer));
+        }
+        assertEquals(0, buffer.remaining());
+    }
+
+    private static void assertLongRoundTrip(long value, int bytes) {
+        ByteBuffer buffer = ByteBuffer.allocate(Varint.MAX_LONG_BYTES);
+        Varint.putLong(buffer, value);
+        assertEquals(bytes, buffer.position());
+
+        buffer.flip();
+        assertEquals(value, Varint.getLong(buffer));
+    }
+}